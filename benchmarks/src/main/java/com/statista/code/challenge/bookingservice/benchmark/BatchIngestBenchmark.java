@@ -0,0 +1,117 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.notification.EmailDispatcher;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.StorageMode;
+import com.statista.code.challenge.bookingservice.service.BookingService;
+import com.statista.code.challenge.bookingservice.service.ITDepartmentService;
+import com.statista.code.challenge.bookingservice.service.SalesDepartmentService;
+import com.statista.code.challenge.bookingservice.service.SupportDepartmentService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of batch ingestion, in bookings per second: {@link BookingService#createBookings} with
+ * one chunk of {@value #BATCH_SIZE} new bookings per call, as {@code POST /bookings/batch} runs it.
+ * With {@code input} {@code JSON} each call also reads the bookings from a JSON array the way the
+ * endpoint reads its request body, otherwise they are handed over as objects. Confirmation emails are
+ * queued to a running {@link EmailDispatcher} whose sender discards them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class BatchIngestBenchmark {
+
+    static final int BATCH_SIZE = 10_000;
+
+    public enum Input {
+        OBJECTS,
+        JSON
+    }
+
+    @Param({"OBJECTS", "JSON"})
+    public Input input;
+
+    @Param({"NONE", "WAL"})
+    public JournalMode journal;
+
+    private JournalMode.OpenJournal openJournal;
+    private BookingRepository repository;
+    private EmailDispatcher emailDispatcher;
+    private ValidatorFactory validatorFactory;
+    private BookingService bookingService;
+    private ObjectMapper objectMapper;
+    private ObjectReader bookingReader;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        openJournal = journal.open();
+        repository = new BookingRepository(openJournal.journal(), StorageMode.HEAP, false);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        emailDispatcher = new EmailDispatcher(messages -> {
+        }, 1_000_000, 1_000, 1, 1, 100, 100, 0);
+        emailDispatcher.start();
+        bookingService = new BookingService(repository,
+                List.of(new SalesDepartmentService(), new SupportDepartmentService(), new ITDepartmentService()),
+                validatorFactory.getValidator(), emailDispatcher, Runnable::run);
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bookingReader = objectMapper.readerFor(Booking.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        emailDispatcher.stop();
+        validatorFactory.close();
+        repository.close();
+        openJournal.close();
+    }
+
+    /**
+     * The next batch of new bookings of a benchmark thread, prepared outside the measurement.
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+
+        private List<Booking> bookings;
+        private byte[] json;
+
+        @Setup(Level.Invocation)
+        public void prepare(BatchIngestBenchmark benchmark) throws IOException {
+            long first = benchmark.nextId.getAndAdd(BATCH_SIZE);
+            bookings = new ArrayList<>(BATCH_SIZE);
+            for (long i = first; i < first + BATCH_SIZE; i++) {
+                bookings.add(BenchmarkData.booking(i));
+            }
+            json = benchmark.input == Input.JSON ? benchmark.objectMapper.writeValueAsBytes(bookings) : null;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createBookings(Batch batch, Blackhole blackhole) throws IOException {
+        Iterator<Booking> bookings = input == Input.JSON
+                ? bookingReader.readValues(batch.json)
+                : batch.bookings.iterator();
+        bookingService.createBookings(bookings, blackhole::consume);
+    }
+}
@@ -0,0 +1,90 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Deterministic booking data shared by the benchmarks. Booking {@code i} has the ID
+ * {@code "booking-" + i} and cycles through a small set of currencies and departments, as a
+ * realistic dataset would.
+ */
+final class BenchmarkData {
+
+    static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "CHF"};
+    static final String[] DEPARTMENTS = {"sales", "support", "it"};
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final LocalDate START_DATE = LocalDate.of(2023, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    static String bookingId(long index) {
+        return "booking-" + index;
+    }
+
+    static Booking booking(long index) {
+        return new Booking(bookingId(index), "Booking " + index, index % 1000 + 0.99,
+                CURRENCIES[(int) (index % CURRENCIES.length)], START_DATE.plusDays(index % 365),
+                "user" + index + "@example.com", DEPARTMENTS[(int) (index % DEPARTMENTS.length)]);
+    }
+
+    /**
+     * Booking {@code index} with its currency and department in strings of their own, as they are when
+     * each booking is parsed from its own request. {@link #booking} shares them, which hides their
+     * share of the memory a store holds.
+     */
+    static Booking parsedBooking(long index) {
+        Booking booking = booking(index);
+        booking.setCurrency(new String(booking.getCurrency()));
+        booking.setDepartment(new String(booking.getDepartment()));
+        return booking;
+    }
+
+    static List<Booking> bookings(int size) {
+        List<Booking> bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bookings.add(booking(i));
+        }
+        return bookings;
+    }
+
+    /**
+     * Loads bookings {@code 0} to {@code size - 1} into the repository in batches.
+     */
+    static void populate(BookingRepository repository, int size) {
+        populate(repository::addBookings, size);
+    }
+
+    /**
+     * Hands bookings {@code 0} to {@code size - 1} to the batch consumer in batches.
+     */
+    static void populate(Consumer<List<Booking>> addBookings, int size) {
+        populate(addBookings, size, BenchmarkData::booking);
+    }
+
+    /**
+     * Loads bookings {@code 0} to {@code size - 1}, built by {@link #parsedBooking}, into the repository in batches.
+     */
+    static void populateParsed(BookingRepository repository, int size) {
+        populate(repository::addBookings, size, BenchmarkData::parsedBooking);
+    }
+
+    private static void populate(Consumer<List<Booking>> addBookings, int size, LongFunction<Booking> booking) {
+        List<Booking> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            batch.add(booking.apply(i));
+            if (batch.size() == BATCH_SIZE) {
+                addBookings.accept(batch);
+                batch.clear();
+            }
+        }
+        addBookings.accept(batch);
+    }
+}
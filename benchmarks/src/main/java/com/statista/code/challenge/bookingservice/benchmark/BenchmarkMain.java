@@ -0,0 +1,54 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks once per thread count and writes the results of each run as JSON, for
+ * tracking regressions between builds.
+ * <p>
+ * The benchmarks to run are selected by the optional first argument, a regular expression over the
+ * benchmark names (all benchmarks by default). Further settings are read from system properties:
+ * <ul>
+ *     <li>{@code threads}: comma-separated thread counts, default {@code 1,2,4,8,16,32,64}, doubling up to the
+ *     64 lock stripes of the repository</li>
+ *     <li>{@code sizes}: comma-separated dataset sizes overriding each benchmark's {@code size} values</li>
+ *     <li>{@code results}: directory for the {@code jmh-threads-N.json} result files, default {@code jmh-results}</li>
+ * </ul>
+ * The JMH command line remains available through {@code org.openjdk.jmh.Main}.
+ */
+public final class BenchmarkMain {
+
+    private static final String DEFAULT_THREADS = "1,2,4,8,16,32,64";
+    private static final String DEFAULT_RESULTS = "jmh-results";
+    private static final String SIZE_PARAMETER = "size";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String sizes = System.getProperty("sizes");
+        Path results = Path.of(System.getProperty("results", DEFAULT_RESULTS));
+        Files.createDirectories(results);
+
+        for (String threads : System.getProperty("threads", DEFAULT_THREADS).split(",")) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(results.resolve("jmh-threads-" + threads.trim() + ".json").toString());
+            if (sizes != null) {
+                options.param(SIZE_PARAMETER, sizes.split(","));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.statista.code.challenge.bookingservice.controller.ResponseCache;
+import com.statista.code.challenge.bookingservice.json.BookingJsonCodec;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link BookingJsonCodec} against Jackson data binding for the single-booking bodies of
+ * {@code POST /bookings} and {@code GET /bookings/{id}}, both working on UTF-8 bytes as the HTTP
+ * converters do. {@code cachedResponse} is a {@code GET} served from the {@link ResponseCache}
+ * bytes of an unchanged booking, which skips encoding altogether.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class BookingCodecBenchmark {
+
+    private Booking booking;
+    private byte[] bookingJson;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private BookingJsonCodec codec;
+    private ResponseCache responseCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        writer = objectMapper.writerFor(Booking.class);
+        reader = objectMapper.readerFor(Booking.class);
+        codec = new BookingJsonCodec(objectMapper.getFactory());
+        responseCache = new ResponseCache(objectMapper, codec, 16);
+        booking = BenchmarkData.booking(0);
+        bookingJson = writer.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] databindEncode() throws IOException {
+        return writer.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return codec.encode(booking);
+    }
+
+    @Benchmark
+    public Booking databindDecode() throws IOException {
+        return reader.readValue(bookingJson);
+    }
+
+    @Benchmark
+    public Booking codecDecode() throws IOException {
+        return codec.decode(bookingJson);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> cachedResponse() {
+        return responseCache.respond(booking.getBookingId(), "1", null, () -> booking);
+    }
+}
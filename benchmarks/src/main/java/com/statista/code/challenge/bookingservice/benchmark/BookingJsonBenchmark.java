@@ -0,0 +1,76 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of {@link Booking}, configured like the application's
+ * object mapper: a single booking, as in the single-booking endpoints, and a list of {@code size}
+ * bookings, as in the listing and batch endpoints. The list sizes stop at one million because a
+ * ten-million-booking JSON document does not fit into a single string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class BookingJsonBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Booking booking;
+    private String bookingJson;
+    private List<Booking> bookings;
+    private String bookingsJson;
+    private ObjectWriter writer;
+    private ObjectReader bookingReader;
+    private ObjectReader listReader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = objectMapper.writer();
+        bookingReader = objectMapper.readerFor(Booking.class);
+        listReader = objectMapper.readerFor(new TypeReference<List<Booking>>() {
+        });
+        booking = BenchmarkData.booking(0);
+        bookingJson = writer.writeValueAsString(booking);
+        bookings = BenchmarkData.bookings(size);
+        bookingsJson = writer.writeValueAsString(bookings);
+    }
+
+    @Benchmark
+    public String serializeBooking() throws JsonProcessingException {
+        return writer.writeValueAsString(booking);
+    }
+
+    @Benchmark
+    public Booking deserializeBooking() throws IOException {
+        return bookingReader.readValue(bookingJson);
+    }
+
+    @Benchmark
+    public String serializeBookings() throws JsonProcessingException {
+        return writer.writeValueAsString(bookings);
+    }
+
+    @Benchmark
+    public List<Booking> deserializeBookings() throws IOException {
+        return listReader.readValue(bookingsJson);
+    }
+}
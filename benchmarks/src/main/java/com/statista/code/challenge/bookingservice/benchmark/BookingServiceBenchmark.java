@@ -0,0 +1,71 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.config.ExecutionConfig;
+import com.statista.code.challenge.bookingservice.notification.EmailDispatcher;
+import com.statista.code.challenge.bookingservice.notification.LoggingEmailSender;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.service.BookingService;
+import com.statista.code.challenge.bookingservice.service.ITDepartmentService;
+import com.statista.code.challenge.bookingservice.service.SalesDepartmentService;
+import com.statista.code.challenge.bookingservice.service.SupportDepartmentService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link BookingService#doBusiness(String)}: the booking lookup, the department
+ * dispatch and the hand-off to the department executor, which runs either on the calling thread
+ * or on a virtual thread per call as configured by {@link ExecutionConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class BookingServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private BookingService bookingService;
+    private EmailDispatcher emailDispatcher;
+    private ValidatorFactory validatorFactory;
+    private Executor departmentExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BookingRepository repository = new BookingRepository();
+        BenchmarkData.populate(repository, size);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        emailDispatcher = new EmailDispatcher(new LoggingEmailSender(), 10_000, 100, 1, 1, 100, 100, 0);
+        emailDispatcher.start();
+        departmentExecutor = new ExecutionConfig().departmentExecutor(virtualThreads);
+        bookingService = new BookingService(repository,
+                List.of(new SalesDepartmentService(), new SupportDepartmentService(), new ITDepartmentService()),
+                validatorFactory.getValidator(), emailDispatcher, departmentExecutor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emailDispatcher.stop();
+        if (departmentExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public String doBusiness() {
+        return bookingService.doBusiness(BenchmarkData.bookingId(ThreadLocalRandom.current().nextInt(size)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+import com.statista.code.challenge.bookingservice.repository.wal.DurabilityMode;
+import com.statista.code.challenge.bookingservice.repository.wal.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The journal a benchmarked repository writes to, so write benchmarks can compare a purely in-memory
+ * repository with a durable one.
+ */
+public enum JournalMode {
+
+    /**
+     * No journal; writes are only kept in memory.
+     */
+    NONE,
+
+    /**
+     * A memory-mapped {@link WriteAheadLog} in a temporary directory with {@link DurabilityMode#BATCH},
+     * the service default: each write waits for its force to disk, shared by the writers that arrive
+     * while a force is in progress.
+     */
+    WAL;
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final long SYNC_INTERVAL_MILLIS = 10;
+
+    /**
+     * Opens a journal of this mode; close it after the repository writing to it.
+     */
+    OpenJournal open() throws IOException {
+        if (this == NONE) {
+            return new OpenJournal(BookingJournal.NONE, null);
+        }
+        Path directory = Files.createTempDirectory("journal-benchmark");
+        return new OpenJournal(new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, SYNC_INTERVAL_MILLIS), directory);
+    }
+
+    /**
+     * A journal and the temporary directory holding it, if any, which is deleted on close.
+     */
+    record OpenJournal(BookingJournal journal, Path directory) implements AutoCloseable {
+
+        @Override
+        public void close() throws IOException {
+            journal.close();
+            if (directory != null) {
+                try (Stream<Path> paths = Files.walk(directory)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        }
+    }
+}
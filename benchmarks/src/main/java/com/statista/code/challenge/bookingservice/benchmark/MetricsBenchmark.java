@@ -0,0 +1,56 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.metrics.OperationMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of timing an operation with {@link OperationMetrics}, isolated from the noise of a real
+ * repository call: the timed code burns a fixed amount of CPU ({@code work} tokens) and the runs
+ * compare metrics switched off, sampling one call in {@value OperationMetrics#SAMPLE_INTERVAL},
+ * and timing every call. {@link RepositoryBenchmark} with and without {@code metrics} shows the
+ * same overhead on the repository operations themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    public enum Timing {
+        OFF, SAMPLED, EVERY_CALL
+    }
+
+    private enum Operation {
+        WORK
+    }
+
+    @Param({"OFF", "SAMPLED", "EVERY_CALL"})
+    public Timing timing;
+
+    @Param({"40", "400"})
+    public int work;
+
+    private OperationMetrics<Operation> metrics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        metrics = new OperationMetrics<>(Operation.class, timing != Timing.OFF,
+                timing == Timing.SAMPLED ? Set.of(Operation.WORK) : Set.of());
+    }
+
+    @Benchmark
+    public long timedCall() {
+        return metrics.call(Operation.WORK, this::doWork);
+    }
+
+    private long doWork() {
+        Blackhole.consumeCPU(work);
+        return work;
+    }
+}
@@ -0,0 +1,100 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.StorageMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the {@link BookingRepository} operations against a repository preloaded with
+ * {@code size} bookings. Reads and updates pick a random existing booking; adds insert new IDs,
+ * so the repository grows slightly over the run. Comparing the runs with and without {@code metrics}
+ * gives the overhead of recording operation latencies, and the runs with each {@code journal} the cost
+ * of making writes durable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class RepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"HEAP", "COLUMNAR", "OFF_HEAP"})
+    public StorageMode storageMode;
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    @Param({"NONE", "WAL"})
+    public JournalMode journal;
+
+    private JournalMode.OpenJournal openJournal;
+    private BookingRepository repository;
+    private AtomicLong nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        openJournal = journal.open();
+        repository = new BookingRepository(openJournal.journal(), storageMode, metrics);
+        BenchmarkData.populate(repository, size);
+        nextId = new AtomicLong(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        openJournal.close();
+    }
+
+    @Benchmark
+    public void addBooking() {
+        repository.addBooking(BenchmarkData.booking(nextId.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Booking getBooking() {
+        return repository.getBooking(BenchmarkData.bookingId(randomIndex()));
+    }
+
+    @Benchmark
+    public void updateBooking() {
+        long index = randomIndex();
+        repository.updateBooking(BenchmarkData.bookingId(index), BenchmarkData.booking(index));
+    }
+
+    @Benchmark
+    public List<String> getBookingsByDepartment() {
+        return repository.getBookingsByDepartment(BenchmarkData.DEPARTMENTS[randomIndex() % BenchmarkData.DEPARTMENTS.length]);
+    }
+
+    @Benchmark
+    public Set<String> getAllCurrencies() {
+        return repository.getAllCurrencies();
+    }
+
+    @Benchmark
+    public double getSumByCurrency() {
+        return repository.getSumByCurrency(BenchmarkData.CURRENCIES[randomIndex() % BenchmarkData.CURRENCIES.length]);
+    }
+
+    @Benchmark
+    public PriceSummary getPriceSummaryByCurrency() {
+        return repository.getPriceSummaryByCurrency(BenchmarkData.CURRENCIES[randomIndex() % BenchmarkData.CURRENCIES.length]);
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+}
@@ -0,0 +1,92 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.repository.LocalBookingShard;
+import com.statista.code.challenge.bookingservice.repository.ShardedBookingRepository;
+import com.statista.code.challenge.bookingservice.repository.StorageMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the {@link ShardedBookingRepository} operations over {@code shards} in-process shards,
+ * preloaded with {@code size} bookings. With a single shard the results show the cost of routing every
+ * call through a shard's writer thread and futures compared to {@link RepositoryBenchmark}; with more
+ * shards, how writes scale over the writer threads and what the scatter-gather queries cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class ShardedRepositoryBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    private List<LocalBookingShard> localShards;
+    private ShardedBookingRepository repository;
+    private AtomicLong nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        localShards = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            localShards.add(new LocalBookingShard("shard-" + i, StorageMode.HEAP, ForkJoinPool.commonPool()));
+        }
+        repository = new ShardedBookingRepository(localShards);
+        BenchmarkData.populate(repository::addBookings, size);
+        nextId = new AtomicLong(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        localShards.forEach(LocalBookingShard::close);
+    }
+
+    @Benchmark
+    public void addBooking() {
+        repository.addBooking(BenchmarkData.booking(nextId.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Booking getBooking() {
+        return repository.getBooking(BenchmarkData.bookingId(randomIndex()));
+    }
+
+    @Benchmark
+    public void updateBooking() {
+        long index = randomIndex();
+        repository.updateBooking(BenchmarkData.bookingId(index), BenchmarkData.booking(index));
+    }
+
+    @Benchmark
+    public List<String> getBookingsByDepartment() {
+        return repository.getBookingsByDepartment(BenchmarkData.DEPARTMENTS[randomIndex() % BenchmarkData.DEPARTMENTS.length]);
+    }
+
+    @Benchmark
+    public Set<String> getAllCurrencies() {
+        return repository.getAllCurrencies();
+    }
+
+    @Benchmark
+    public PriceSummary getPriceSummaryByCurrency() {
+        return repository.getPriceSummaryByCurrency(BenchmarkData.CURRENCIES[randomIndex() % BenchmarkData.CURRENCIES.length]);
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+}
@@ -0,0 +1,99 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.wal.DurabilityMode;
+import com.statista.code.challenge.bookingservice.repository.wal.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup of a repository from a snapshot of {@code size} bookings, and the checkpoint that writes
+ * the snapshot. The trial writes the bookings to a {@link WriteAheadLog} in a temporary directory
+ * with {@link DurabilityMode#INTERVAL} and checkpoints once; {@code startup} then opens the log and
+ * a repository on it, which loads the snapshot, and {@code checkpoint} writes a new snapshot of a
+ * repository that is already open.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class SnapshotStartupBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final long SYNC_INTERVAL_MILLIS = 100;
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        try (WriteAheadLog log = openLog(directory)) {
+            BookingRepository repository = new BookingRepository(log);
+            BenchmarkData.populate(repository, size);
+            repository.checkpoint();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * A repository opened on the snapshot for the whole trial, with one booking updated before each
+     * checkpoint, since the log skips a checkpoint when nothing was written after the last one.
+     */
+    @State(Scope.Benchmark)
+    public static class OpenRepository {
+
+        private WriteAheadLog log;
+        private BookingRepository repository;
+
+        @Setup(Level.Trial)
+        public void setUp(SnapshotStartupBenchmark benchmark) throws IOException {
+            log = openLog(benchmark.directory);
+            repository = new BookingRepository(log);
+        }
+
+        @Setup(Level.Iteration)
+        public void write() {
+            repository.updateBooking(BenchmarkData.bookingId(0), BenchmarkData.booking(0));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            log.close();
+        }
+    }
+
+    @Benchmark
+    public BookingRepository startup() throws IOException {
+        try (WriteAheadLog log = openLog(directory)) {
+            return new BookingRepository(log);
+        }
+    }
+
+    @Benchmark
+    public void checkpoint(OpenRepository open) {
+        open.repository.checkpoint();
+    }
+
+    private static WriteAheadLog openLog(Path directory) throws IOException {
+        return new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.INTERVAL, SYNC_INTERVAL_MILLIS);
+    }
+}
@@ -0,0 +1,64 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.StorageMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by a repository of {@code size} bookings in each {@link StorageMode}, reported as the
+ * {@code retainedBytesPerBooking} secondary result of a single load. The score, the time to load the
+ * bookings and collect the garbage, is incidental. Currencies and departments come in strings of their
+ * own per booking, as they would from JSON, so a store that does not share them pays for them.
+ * Off-heap memory is not part of the figure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g", "-XX:MaxDirectMemorySize=16g"})
+public class StorageFootprintBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"HEAP", "COLUMNAR", "OFF_HEAP"})
+    public StorageMode storageMode;
+
+    private BookingRepository repository;
+    private long heapBefore;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytesPerBooking;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        heapBefore = usedHeap();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    public void load(Footprint footprint) {
+        repository = new BookingRepository(BookingJournal.NONE, storageMode, false);
+        BenchmarkData.populateParsed(repository, size);
+        footprint.retainedBytesPerBooking = (usedHeap() - heapBefore) / size;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
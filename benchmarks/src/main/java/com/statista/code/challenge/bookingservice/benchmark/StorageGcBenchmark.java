@@ -0,0 +1,69 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.StorageMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Garbage collection and latency of the storage modes with {@code size} bookings live. {@code mixedWorkload}
+ * runs 90% reads and 10% updates of random bookings in sample mode, so the results carry latency
+ * percentiles; run it with {@code -prof gc} for the allocation rate and the collections of each mode.
+ * {@code fullCollection} times a full collection, which has to trace every booking object of a heap
+ * store but only the indexes of an off-heap one. Every mode runs with the same heap, e.g.
+ * {@code java -cp benchmarks.jar org.openjdk.jmh.Main StorageGcBenchmark -prof gc -p size=20000000
+ * -jvmArgsAppend "-Xms24g -Xmx24g -XX:MaxDirectMemorySize=24g"}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g", "-XX:MaxDirectMemorySize=16g"})
+public class StorageGcBenchmark {
+
+    @Param({"10000000"})
+    public int size;
+
+    @Param({"HEAP", "COLUMNAR", "OFF_HEAP"})
+    public StorageMode storageMode;
+
+    private BookingRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new BookingRepository(BookingJournal.NONE, storageMode, false);
+        BenchmarkData.populateParsed(repository, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Booking mixedWorkload() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(size);
+        if (random.nextInt(10) == 0) {
+            Booking booking = BenchmarkData.parsedBooking(index);
+            booking.setPrice(random.nextInt(1000) + 0.99);
+            repository.updateBooking(booking.getBookingId(), booking);
+            return booking;
+        }
+        return repository.getBooking(BenchmarkData.bookingId(index));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public void fullCollection() {
+        System.gc();
+    }
+}
@@ -0,0 +1,76 @@
+package com.statista.code.challenge.bookingservice.benchmark;
+
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.StorageMode;
+import com.statista.code.challenge.bookingservice.repository.WriteMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write throughput of the {@link BookingRepository} with writes applied under striped locks on the
+ * calling threads ({@link WriteMode#LOCKED}) or handed to one writer thread ({@link WriteMode#SINGLE_WRITER}).
+ * The difference shows with the thread count, which {@link BenchmarkMain} sweeps from 1 to 64 by default.
+ * With {@code journal} {@link JournalMode#WAL} every write also waits for its group commit to the
+ * write-ahead log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class WritePathBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"LOCKED", "SINGLE_WRITER"})
+    public WriteMode writeMode;
+
+    @Param({"NONE", "WAL"})
+    public JournalMode journal;
+
+    private JournalMode.OpenJournal openJournal;
+    private BookingRepository repository;
+    private AtomicLong nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        openJournal = journal.open();
+        repository = new BookingRepository(openJournal.journal(), StorageMode.HEAP, false, 65_536, writeMode, 8_192);
+        BenchmarkData.populate(repository, size);
+        nextId = new AtomicLong(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        openJournal.close();
+    }
+
+    @Benchmark
+    public long createBooking() {
+        return repository.createBooking(BenchmarkData.booking(nextId.getAndIncrement()));
+    }
+
+    @Benchmark
+    public void updateBooking() {
+        long index = randomIndex();
+        repository.updateBooking(BenchmarkData.bookingId(index), BenchmarkData.booking(index));
+    }
+
+    @Benchmark
+    public long updateBookingIfVersion() {
+        long index = randomIndex();
+        String bookingId = BenchmarkData.bookingId(index);
+        return repository.updateBooking(bookingId, BenchmarkData.booking(index), repository.getBookingVersion(bookingId));
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+}
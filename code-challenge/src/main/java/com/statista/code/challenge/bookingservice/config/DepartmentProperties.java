@@ -0,0 +1,107 @@
+package com.statista.code.challenge.bookingservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Limits applied when dispatching bookings to department services. {@code booking.departments.defaults.*}
+ * applies to every department, and {@code booking.departments.overrides.<department>.*} replaces
+ * individual limits for one department, matched case-insensitively. The concurrency, rate and timeout
+ * limits are disabled unless set to a positive value.
+ */
+@Data
+@ConfigurationProperties(prefix = "booking.departments")
+public class DepartmentProperties {
+
+    static final int DEFAULT_BULK_PARALLELISM = 4;
+    static final long DEFAULT_BULK_RESULT_TIMEOUT_MS = 60_000;
+
+    private Limits defaults = new Limits(DEFAULT_BULK_PARALLELISM, null, null, null, null);
+    private Map<String, Limits> overrides = new HashMap<>();
+
+    /**
+     * How long a bulk request waits for the next result, in milliseconds, before it gives up on the
+     * departments that still have bookings outstanding. Only departments without a timeout can take
+     * this long, since each booking of a department with one ends within the timeout.
+     */
+    private long bulkResultTimeoutMs = DEFAULT_BULK_RESULT_TIMEOUT_MS;
+
+    /**
+     * @param department the name of the department
+     * @return the maximum number of bookings of the department processed concurrently by a bulk request,
+     *         which is further capped by {@link #maxConcurrent(String)} if that is set
+     */
+    public int bulkParallelism(String department) {
+        Integer value = resolve(department, Limits::getBulkParallelism);
+        return value != null ? Math.max(1, value) : DEFAULT_BULK_PARALLELISM;
+    }
+
+    /**
+     * @param department the name of the department
+     * @return the maximum number of bookings of the department processed concurrently by single and bulk requests together; {@code 0} if unlimited
+     */
+    public int maxConcurrent(String department) {
+        Integer value = resolve(department, Limits::getMaxConcurrent);
+        return value != null ? Math.max(0, value) : 0;
+    }
+
+    /**
+     * @param department the name of the department
+     * @return the sustained number of bookings per second the department accepts; {@code 0} if unlimited
+     */
+    public double ratePerSecond(String department) {
+        Double value = resolve(department, Limits::getRatePerSecond);
+        return value != null ? Math.max(0, value) : 0;
+    }
+
+    /**
+     * @param department the name of the department
+     * @return the number of bookings the department accepts in a burst above its rate; at least one second's worth
+     */
+    public int burst(String department) {
+        Integer value = resolve(department, Limits::getBurst);
+        int minimum = (int) Math.ceil(ratePerSecond(department));
+        return Math.max(Math.max(1, minimum), value != null ? value : 0);
+    }
+
+    /**
+     * @param department the name of the department
+     * @return how long to wait for the department to process a booking, in milliseconds; {@code 0} if unlimited
+     */
+    public long timeoutMillis(String department) {
+        Long value = resolve(department, Limits::getTimeoutMs);
+        return value != null ? Math.max(0, value) : 0;
+    }
+
+    private <T> T resolve(String department, Function<Limits, T> limit) {
+        Limits override = overrides.get(department.toLowerCase(Locale.ROOT));
+        T value = override != null ? limit.apply(override) : null;
+        return value != null ? value : limit.apply(defaults);
+    }
+
+    /**
+     * Limits of one department, or the defaults of all departments. Unset limits fall back to the defaults.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        private Integer bulkParallelism;
+        private Integer maxConcurrent;
+        private Double ratePerSecond;
+        private Integer burst;
+        private Long timeoutMs;
+
+        public Limits(Integer bulkParallelism) {
+            this.bulkParallelism = bulkParallelism;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.statista.code.challenge.bookingservice.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configures the threads that serve requests and run department business logic.
+ * <p>
+ * By default requests are served by Tomcat's platform thread pool and
+ * {@link com.statista.code.challenge.bookingservice.service.DepartmentService#doBusiness} runs on the
+ * request thread. With {@code booking.execution.virtual-threads=true}, Tomcat hands every request to
+ * a new virtual thread and department processing is dispatched to virtual threads as well, so
+ * blocking department work no longer ties up a platform thread.
+ * <p>
+ * Bulk processing requests run on a separate work-stealing pool sized by {@code booking.bulk.parallelism},
+ * which defaults to the number of available processors.
+ */
+@Configuration
+@EnableConfigurationProperties(DepartmentProperties.class)
+public class ExecutionConfig {
+
+    public static final String DEPARTMENT_EXECUTOR = "departmentExecutor";
+    public static final String BULK_EXECUTOR = "bulkExecutor";
+    static final String VIRTUAL_THREADS_PROPERTY = "booking.execution.virtual-threads";
+
+    private static final String TOMCAT_THREAD_PREFIX = "tomcat-virtual-";
+    private static final String DEPARTMENT_THREAD_PREFIX = "department-virtual-";
+
+    /**
+     * Serves every request on its own virtual thread instead of Tomcat's platform thread pool.
+     *
+     * @return the Tomcat customizer installing a virtual-thread-per-task executor
+     */
+    @Bean
+    @ConditionalOnProperty(name = VIRTUAL_THREADS_PROPERTY, havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(TOMCAT_THREAD_PREFIX, 0).factory()));
+    }
+
+    /**
+     * The executor that runs department business logic: a virtual-thread-per-task executor in
+     * virtual-thread mode, otherwise an executor that runs the work on the calling thread. Departments
+     * with a timeout run their logic on virtual threads in either mode, so that the timeout can expire.
+     *
+     * @param virtualThreads whether virtual-thread mode is enabled
+     * @return the department executor
+     */
+    @Bean(DEPARTMENT_EXECUTOR)
+    public Executor departmentExecutor(@Value("${" + VIRTUAL_THREADS_PROPERTY + ":false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(DEPARTMENT_THREAD_PREFIX, 0).factory());
+        }
+        return Runnable::run;
+    }
+
+    /**
+     * The work-stealing pool that runs bulk department processing.
+     *
+     * @param parallelism the number of worker threads; the number of available processors if not positive
+     * @return the bulk executor
+     */
+    @Bean(BULK_EXECUTOR)
+    public ExecutorService bulkExecutor(@Value("${booking.bulk.parallelism:0}") int parallelism) {
+        return parallelism > 0 ? Executors.newWorkStealingPool(parallelism) : Executors.newWorkStealingPool();
+    }
+}
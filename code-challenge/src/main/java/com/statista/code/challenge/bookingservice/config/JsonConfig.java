@@ -0,0 +1,37 @@
+package com.statista.code.challenge.bookingservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.statista.code.challenge.bookingservice.json.BookingHttpMessageConverter;
+import com.statista.code.challenge.bookingservice.json.BookingJsonCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves {@link com.statista.code.challenge.bookingservice.model.Booking} bodies through the streaming
+ * {@link BookingJsonCodec} instead of Jackson data binding: request bodies are read by the
+ * {@link BookingHttpMessageConverter}, which Spring Boot places ahead of the default converters, and
+ * the cached single-booking responses are encoded by the codec. {@code booking.json.codec.enabled=false}
+ * goes back to data binding for both.
+ */
+@Configuration
+public class JsonConfig {
+
+    static final String CODEC_PROPERTY = "booking.json.codec.enabled";
+
+    /**
+     * @param objectMapper the application's object mapper, whose factory and its parser and generator settings are shared
+     * @return the booking codec
+     */
+    @Bean
+    @ConditionalOnProperty(name = CODEC_PROPERTY, havingValue = "true", matchIfMissing = true)
+    public BookingJsonCodec bookingJsonCodec(ObjectMapper objectMapper) {
+        return new BookingJsonCodec(objectMapper.getFactory());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = CODEC_PROPERTY, havingValue = "true", matchIfMissing = true)
+    public BookingHttpMessageConverter bookingHttpMessageConverter(BookingJsonCodec bookingJsonCodec) {
+        return new BookingHttpMessageConverter(bookingJsonCodec);
+    }
+}
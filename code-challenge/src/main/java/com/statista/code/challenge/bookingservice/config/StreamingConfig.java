@@ -0,0 +1,83 @@
+package com.statista.code.challenge.bookingservice.config;
+
+import com.statista.code.challenge.bookingservice.controller.StreamTimeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * Configures how streaming response bodies are written. Each stream is written by its own virtual
+ * thread from the {@value #STREAM_EXECUTOR} executor, so open streams hold no platform threads, and
+ * an endpoint annotated with {@link StreamTimeout} gets its own async timeout instead of the
+ * container's default.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    public static final String STREAM_EXECUTOR = "streamExecutor";
+
+    private static final String STREAM_THREAD_PREFIX = "stream-virtual-";
+
+    private final AsyncTaskExecutor streamExecutor;
+    private final Environment environment;
+
+    public StreamingConfig(@Qualifier(STREAM_EXECUTOR) AsyncTaskExecutor streamExecutor, Environment environment) {
+        this.streamExecutor = streamExecutor;
+        this.environment = environment;
+    }
+
+    /**
+     * The executor that writes streaming response bodies, one virtual thread per stream.
+     *
+     * @return the stream executor
+     */
+    @Bean(STREAM_EXECUTOR)
+    public static AsyncTaskExecutor streamExecutor() {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(STREAM_THREAD_PREFIX, 0).factory()));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor);
+        configurer.registerCallableInterceptors(new StreamTimeoutInterceptor(environment));
+    }
+
+    /**
+     * Applies the {@link StreamTimeout} of the handler method before the stream starts, while the
+     * timeout of the async request can still be changed.
+     */
+    static final class StreamTimeoutInterceptor implements CallableProcessingInterceptor {
+
+        private final Environment environment;
+
+        StreamTimeoutInterceptor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (handler instanceof HandlerMethod method && request instanceof AsyncWebRequest asyncRequest) {
+                StreamTimeout timeout = method.getMethodAnnotation(StreamTimeout.class);
+                if (timeout != null) {
+                    asyncRequest.setTimeout(Long.parseLong(environment.resolveRequiredPlaceholders(timeout.value()).trim()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.statista.code.challenge.bookingservice.config;
+
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+import com.statista.code.challenge.bookingservice.repository.wal.DurabilityMode;
+import com.statista.code.challenge.bookingservice.repository.wal.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configures the journal backing the booking repository. Bookings are kept in memory only unless
+ * {@code booking.wal.enabled=true}, in which case every write is recorded in a memory-mapped
+ * write-ahead log under {@code booking.wal.directory} and replayed on startup.
+ */
+@Configuration
+public class WalConfig {
+
+    private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    @Bean
+    public BookingJournal bookingJournal(@Value("${booking.wal.enabled:false}") boolean enabled,
+                                         @Value("${booking.wal.directory:data/wal}") Path directory,
+                                         @Value("${booking.wal.segment-size-mb:64}") int segmentSizeMegabytes,
+                                         @Value("${booking.wal.durability:BATCH}") DurabilityMode durability,
+                                         @Value("${booking.wal.sync-interval-ms:10}") long syncIntervalMillis)
+            throws IOException {
+        if (!enabled) {
+            return BookingJournal.NONE;
+        }
+        return new WriteAheadLog(directory, segmentSizeMegabytes * BYTES_PER_MEGABYTE, durability, syncIntervalMillis);
+    }
+}
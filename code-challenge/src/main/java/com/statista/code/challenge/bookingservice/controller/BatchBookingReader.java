@@ -0,0 +1,81 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.statista.code.challenge.bookingservice.exception.MalformedBookingException;
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the bookings of a batch request body, either a JSON array or newline-delimited JSON, one at
+ * a time. An element that is valid JSON but not a booking is reported with a recoverable
+ * {@link MalformedBookingException} and reading continues after it; a syntax error ends the body,
+ * since the parser cannot tell where the next element starts. A failure to read the body itself is
+ * thrown as an {@link UncheckedIOException}.
+ */
+class BatchBookingReader implements Iterator<Booking>, Closeable {
+
+    private final ObjectReader reader;
+    private final InputStream body;
+    private MappingIterator<Booking> values;
+    private boolean ended;
+
+    BatchBookingReader(ObjectReader reader, InputStream body) {
+        this.reader = reader;
+        this.body = body;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ended) {
+            return false;
+        }
+        try {
+            if (values == null) {
+                values = reader.readValues(body);
+            }
+            ended = !values.hasNextValue();
+            return !ended;
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public Booking next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return values.nextValue();
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    private RuntimeException failure(IOException e) {
+        if (e instanceof JsonMappingException mappingException) {
+            return new MalformedBookingException(mappingException.getOriginalMessage(), true, e);
+        }
+        ended = true;
+        if (e instanceof JsonProcessingException parseException) {
+            return new MalformedBookingException(parseException.getOriginalMessage(), false, e);
+        }
+        return new UncheckedIOException(e);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (values != null) {
+            values.close();
+        }
+    }
+}
@@ -1,15 +1,45 @@
 package com.statista.code.challenge.bookingservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.statista.code.challenge.bookingservice.model.BatchItemResult;
 import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+import com.statista.code.challenge.bookingservice.model.BookingIdPage;
+import com.statista.code.challenge.bookingservice.model.BusinessResult;
+import com.statista.code.challenge.bookingservice.model.ChangeOverrunPolicy;
+import com.statista.code.challenge.bookingservice.model.ConvertedTotal;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.model.RollupDimension;
+import com.statista.code.challenge.bookingservice.model.RollupRow;
+import com.statista.code.challenge.bookingservice.service.BatchItemResultSink;
+import com.statista.code.challenge.bookingservice.service.BookingChangeSink;
 import com.statista.code.challenge.bookingservice.service.BookingService;
+import com.statista.code.challenge.bookingservice.service.BusinessResultSink;
+import com.statista.code.challenge.bookingservice.service.CurrencyConversionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.SortedMap;
 
 /**
  * REST controller for managing bookings. Provides endpoints for creating, updating,
@@ -20,60 +50,135 @@ import java.util.Set;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final CurrencyConversionService currencyConversionService;
+    private final ResponseCache responseCache;
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectMapper objectMapper;
+
+    // Request header carrying a client-chosen key that makes retried creations idempotent
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // Request header an event stream client sends with the ID of the last event it received when reconnecting
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
 
     // Constants for response messages
     private static final String BOOKING_NOT_FOUND_MESSAGE = "Booking not found";
     private static final String UNKNOWN_DEPARTMENT_MESSAGE = "Unknown department";
 
+    // Keys of cached responses
+    private static final String BOOKING_CACHE_KEY = "booking:";
+    private static final String CURRENCIES_CACHE_KEY = "currencies";
+    private static final String SUM_CACHE_KEY = "sum:";
+
+    // Async timeouts of the streaming endpoints in milliseconds; the change feed stays open until the client leaves
+    private static final String BATCH_TIMEOUT = "${booking.batch.timeout-ms:600000}";
+    private static final String EXPORT_TIMEOUT = "${booking.export.timeout-ms:600000}";
+    private static final String BULK_TIMEOUT = "${booking.bulk.timeout-ms:600000}";
+    private static final String CHANGES_TIMEOUT = "${booking.changes.timeout-ms:0}";
+
+    // Page sizes for department listings
+    private static final String DEFAULT_PAGE_SIZE = "1000";
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     /**
      * Constructs a new BookingController with the specified BookingService.
      *
      * @param bookingService the service used to manage bookings
+     * @param currencyConversionService the service used to convert totals between currencies
+     * @param responseCache the cache answering conditional requests for polled endpoints
+     * @param idempotencyCache the cache remembering the outcome of creations sent with an idempotency key
+     * @param objectMapper the mapper used to read streamed batch request bodies
      */
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, CurrencyConversionService currencyConversionService,
+                             ResponseCache responseCache, IdempotencyCache idempotencyCache, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.currencyConversionService = currencyConversionService;
+        this.responseCache = responseCache;
+        this.idempotencyCache = idempotencyCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Creates a new booking.
+     * Creates a new booking. A request repeated with the same {@code Idempotency-Key} header gets the
+     * response of the first one without creating the booking again.
      *
      * @param booking the booking to create; must be valid
-     * @return a ResponseEntity with HTTP status 201 (Created)
+     * @param idempotencyKey a key identifying the request across retries; optional
+     * @return a ResponseEntity with HTTP status 201 (Created) and the ETag of the new booking; HTTP status
+     *         409 (Conflict) is returned if the booking ID is taken, or 422 (Unprocessable Entity) if the
+     *         idempotency key was used for a different booking
      */
     @PostMapping("/bookings")
-    public ResponseEntity<Void> createBooking(@Valid @RequestBody Booking booking) {
-        bookingService.createBooking(booking);
-        return new ResponseEntity<>(HttpStatus.CREATED);
+    public ResponseEntity<Void> createBooking(@Valid @RequestBody Booking booking,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String versionTag = idempotencyKey == null
+                ? bookingService.createBooking(booking)
+                : idempotencyCache.execute(idempotencyKey, booking, () -> bookingService.createBooking(booking));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag('"' + versionTag + '"').build();
+    }
+
+    /**
+     * Creates bookings in bulk. The request body is either a JSON array of bookings or a stream of
+     * newline-delimited JSON bookings; it is read incrementally rather than buffered as a whole, and
+     * the outcomes are streamed as a JSON array while later bookings are still being read. An element
+     * that cannot be read as a booking is reported as {@code MALFORMED}; after a syntax error that
+     * outcome is the last one, and the bookings before it have been created.
+     *
+     * @param body the request body
+     * @return a ResponseEntity streaming the outcome of each booking with HTTP status 200 (OK)
+     */
+    @StreamTimeout(BATCH_TIMEOUT)
+    @PostMapping(value = "/bookings/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createBookings(InputStream body) {
+        StreamingResponseBody response = output -> {
+            try (BatchBookingReader bookings = new BatchBookingReader(objectMapper.readerFor(Booking.class), body);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                bookingService.createBookings(bookings, batchSink(generator));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
     }
 
     /**
-     * Updates an existing booking.
+     * Updates an existing booking. With an {@code If-Match} header the booking is only updated if its
+     * current ETag is listed, so a client cannot overwrite changes it has not seen.
      *
      * @param bookingId the ID of the booking to update; must not be null
      * @param booking the updated booking details; must be valid
-     * @return a ResponseEntity with HTTP status 200 (OK)
+     * @param ifMatch the entity tags the update is based on; optional
+     * @return a ResponseEntity with HTTP status 200 (OK), carrying the new ETag for a conditional update;
+     *         HTTP status 412 (Precondition Failed) is returned if the booking has changed or does not exist
      */
     @PutMapping("/bookings/{bookingId}")
-    public ResponseEntity<Void> updateBooking(@PathVariable String bookingId, @Valid @RequestBody Booking booking) {
-        bookingService.updateBooking(bookingId, booking);
-        return new ResponseEntity<>(HttpStatus.OK);
+    public ResponseEntity<Void> updateBooking(@PathVariable String bookingId, @Valid @RequestBody Booking booking,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            bookingService.updateBooking(bookingId, booking);
+            return new ResponseEntity<>(HttpStatus.OK);
+        }
+        String versionTag = bookingService.updateBooking(bookingId, booking,
+                tag -> ResponseCache.matchesStrongly(ifMatch, '"' + tag + '"'));
+        return ResponseEntity.ok().eTag('"' + versionTag + '"').build();
     }
 
     /**
-     * Retrieves a booking by its ID.
+     * Retrieves a booking by its ID. The response carries an ETag of the booking's version and a request
+     * whose {@code If-None-Match} header names it is answered without a body.
      *
      * @param bookingId the ID of the booking to retrieve; must not be null
-     * @return a ResponseEntity containing the booking and HTTP status 200 (OK), or HTTP status 404 (Not Found) if not found
+     * @param ifNoneMatch the entity tags the client already has; optional
+     * @return a ResponseEntity containing the booking and HTTP status 200 (OK), or HTTP status 304 (Not Modified)
+     *         if the booking is unchanged; HTTP status 404 (Not Found) is returned if not found
      */
     @GetMapping("/bookings/{bookingId}")
-    public ResponseEntity<Booking> getBooking(@PathVariable String bookingId) {
-        Booking booking = bookingService.getBooking(bookingId);
-        if (booking != null) {
-            return ResponseEntity.ok(booking);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
+    public ResponseEntity<byte[]> getBooking(@PathVariable String bookingId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.respond(BOOKING_CACHE_KEY + bookingId, bookingService.getBookingVersionTag(bookingId),
+                ifNoneMatch, () -> bookingService.getBooking(bookingId));
     }
 
     /**
@@ -82,7 +187,8 @@ public class BookingController {
      * @param department the name of the department; must not be null
      * @return a ResponseEntity containing a list of booking IDs and HTTP status 200 (OK), or HTTP status 404 (Not Found) if no bookings found
      */
-    @GetMapping("/bookings/department/{department}")
+    @GetMapping(value = "/bookings/department/{department}", params = {"!cursor", "!limit"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<String>> getBookingsByDepartment(@PathVariable String department) {
         List<String> bookings = bookingService.getBookingsByDepartment(department);
         if (bookings.isEmpty()) {
@@ -92,26 +198,172 @@ public class BookingController {
     }
 
     /**
-     * Retrieves a set of all unique currencies used in the bookings.
+     * Retrieves one page of the booking IDs associated with a specific department, in insertion order.
+     * Used instead of the full listing when a {@code cursor} or {@code limit} parameter is present.
+     *
+     * @param department the name of the department; must not be null
+     * @param cursor the {@code nextCursor} of the previous page; omitted for the first page
+     * @param limit the maximum number of booking IDs in the page, at most {@value #MAX_PAGE_SIZE}
+     * @return a ResponseEntity containing the page and HTTP status 200 (OK), or HTTP status 404 (Not Found)
+     *         if the first page is requested and the department has no bookings
+     */
+    @GetMapping(value = "/bookings/department/{department}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookingIdPage> getBookingsByDepartmentPage(@PathVariable String department,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        BookingIdPage page = bookingService.getBookingsByDepartment(department, cursor, pageSize(limit));
+        if (cursor == null && page.getBookingIds().isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Streams the booking IDs associated with a specific department as newline-delimited JSON
+     * strings, writing each ID as it is read from the index instead of building the whole list.
      *
-     * @return a ResponseEntity containing a set of unique currencies and HTTP status 200 (OK)
+     * @param department the name of the department; must not be null
+     * @return a ResponseEntity streaming the booking IDs with HTTP status 200 (OK), or HTTP status 404 (Not Found)
+     *         if the department has no bookings
+     */
+    @StreamTimeout(EXPORT_TIMEOUT)
+    @GetMapping(value = "/bookings/department/{department}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookingsByDepartment(@PathVariable String department) {
+        Iterator<String> bookingIds = bookingService.iterateBookingsByDepartment(department);
+        if (!bookingIds.hasNext()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.setRootValueSeparator(null);
+                while (bookingIds.hasNext()) {
+                    generator.writeString(bookingIds.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves the bookings whose subscription starts between two dates, both inclusive, ordered by start date.
+     *
+     * @param from the first start date of the range, as an ISO date
+     * @param to the last start date of the range, as an ISO date
+     * @param department restricts the bookings to a department; optional
+     * @return a ResponseEntity containing the bookings and HTTP status 200 (OK)
+     */
+    @GetMapping("/bookings/range")
+    public ResponseEntity<List<Booking>> getBookingsByDateRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                @RequestParam(required = false) String department) {
+        return ResponseEntity.ok(bookingService.getBookingsByDateRange(from, to, department));
+    }
+
+    /**
+     * Counts the bookings whose subscription starts between two dates, both inclusive.
+     *
+     * @param from the first start date of the range, as an ISO date
+     * @param to the last start date of the range, as an ISO date
+     * @param department restricts the bookings to a department; optional
+     * @return a ResponseEntity containing the number of bookings and HTTP status 200 (OK)
+     */
+    @GetMapping("/bookings/range/count")
+    public ResponseEntity<Long> countBookingsByDateRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                         @RequestParam(required = false) String department) {
+        return ResponseEntity.ok(bookingService.countBookingsByDateRange(from, to, department));
+    }
+
+    /**
+     * Summarizes the prices of the bookings whose subscription starts between two dates, both inclusive, per currency.
+     *
+     * @param from the first start date of the range, as an ISO date
+     * @param to the last start date of the range, as an ISO date
+     * @param department restricts the bookings to a department; optional
+     * @return a ResponseEntity containing the price summaries keyed by currency and HTTP status 200 (OK)
+     */
+    @GetMapping("/bookings/range/summary")
+    public ResponseEntity<SortedMap<String, PriceSummary>> getPriceSummariesByDateRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                                        @RequestParam(required = false) String department) {
+        return ResponseEntity.ok(bookingService.getPriceSummariesByDateRange(from, to, department));
+    }
+
+    /**
+     * Summarizes the prices of the bookings grouped by any subset of department, currency and month
+     * of the subscription start date, from aggregates maintained on every write.
+     *
+     * @param groupBy the dimensions to group by, e.g. {@code groupBy=DEPARTMENT,MONTH}; omitted for a grand total
+     * @param department restricts the bookings to a department; optional
+     * @param currency restricts the bookings to a currency; optional
+     * @param from the first start month to include, as {@code yyyy-MM}; optional
+     * @param to the last start month to include, as {@code yyyy-MM}; optional
+     * @return a ResponseEntity containing one row per group and HTTP status 200 (OK)
+     */
+    @GetMapping("/rollup")
+    public ResponseEntity<List<RollupRow>> getRollup(@RequestParam(required = false) Set<RollupDimension> groupBy,
+                                                     @RequestParam(required = false) String department,
+                                                     @RequestParam(required = false) String currency,
+                                                     @RequestParam(required = false) YearMonth from,
+                                                     @RequestParam(required = false) YearMonth to) {
+        Set<RollupDimension> dimensions = groupBy != null && !groupBy.isEmpty()
+                ? EnumSet.copyOf(groupBy) : EnumSet.noneOf(RollupDimension.class);
+        return ResponseEntity.ok(bookingService.getRollup(dimensions, department, currency, from, to));
+    }
+
+    /**
+     * Retrieves a set of all unique currencies used in the bookings. The response carries an ETag of the
+     * repository version and a request whose {@code If-None-Match} header names it is answered without a body.
+     *
+     * @param ifNoneMatch the entity tags the client already has; optional
+     * @return a ResponseEntity containing a set of unique currencies and HTTP status 200 (OK),
+     *         or HTTP status 304 (Not Modified) if no booking changed
      */
     @GetMapping("/bookings/currencies")
-    public ResponseEntity<Set<String>> getAllCurrencies() {
-        Set<String> currencies = bookingService.getAllCurrencies();
-        return ResponseEntity.ok(currencies);
+    public ResponseEntity<byte[]> getAllCurrencies(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.respond(CURRENCIES_CACHE_KEY, bookingService.getVersionTag(), ifNoneMatch,
+                bookingService::getAllCurrencies);
     }
 
     /**
-     * Calculates the total sum of prices for bookings in a specific currency.
+     * Calculates the total sum of prices for bookings in a specific currency. The response carries an ETag
+     * of the repository version and a request whose {@code If-None-Match} header names it is answered without a body.
      *
      * @param currency the currency code; must not be null
-     * @return a ResponseEntity containing the total sum and HTTP status 200 (OK)
+     * @param ifNoneMatch the entity tags the client already has; optional
+     * @return a ResponseEntity containing the total sum and HTTP status 200 (OK),
+     *         or HTTP status 304 (Not Modified) if no booking changed
      */
     @GetMapping("/sum/{currency}")
-    public ResponseEntity<Double> getSumByCurrency(@PathVariable String currency) {
-        double sum = bookingService.getSumByCurrency(currency);
-        return ResponseEntity.ok(sum);
+    public ResponseEntity<byte[]> getSumByCurrency(@PathVariable String currency,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseCache.respond(SUM_CACHE_KEY + currency.toUpperCase(Locale.ROOT), bookingService.getVersionTag(),
+                ifNoneMatch, () -> bookingService.getSumByCurrency(currency));
+    }
+
+    /**
+     * Retrieves the count, sum, minimum and maximum price of the bookings in a specific currency.
+     *
+     * @param currency the currency code; must not be null
+     * @return a ResponseEntity containing the price summary and HTTP status 200 (OK)
+     */
+    @GetMapping("/summary/{currency}")
+    public ResponseEntity<PriceSummary> getPriceSummaryByCurrency(@PathVariable String currency) {
+        PriceSummary summary = bookingService.getPriceSummaryByCurrency(currency);
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Converts the prices of all bookings into one currency and adds them up, using the current exchange rates.
+     *
+     * @param currency the currency to convert into; must not be null
+     * @return a ResponseEntity containing the converted total and HTTP status 200 (OK),
+     *         or HTTP status 400 (Bad Request) if there is no exchange rate for the currency
+     */
+    @GetMapping("/total/{currency}")
+    public ResponseEntity<ConvertedTotal> getTotalIn(@PathVariable String currency) {
+        return ResponseEntity.ok(currencyConversionService.getTotalIn(currency));
     }
 
     /**
@@ -132,6 +384,151 @@ public class BookingController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Processes many bookings at once. The bookings are dispatched to their departments in parallel and
+     * the results are streamed as newline-delimited JSON in the order they complete.
+     *
+     * @param bookingIds the IDs of the bookings to process
+     * @return a ResponseEntity streaming one result per booking ID with HTTP status 200 (OK)
+     */
+    @StreamTimeout(BULK_TIMEOUT)
+    @PostMapping(value = "/bookings/dobusiness", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> doBusiness(@RequestBody List<String> bookingIds) {
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                bookingService.doBusiness(bookingIds.iterator(), resultSink(generator));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Processes every booking of a department. The results are streamed as newline-delimited JSON
+     * in the order they complete.
+     *
+     * @param department the name of the department; must not be null
+     * @return a ResponseEntity streaming one result per booking with HTTP status 200 (OK)
+     */
+    @StreamTimeout(BULK_TIMEOUT)
+    @PostMapping(value = "/bookings/dobusiness/department/{department}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> doBusinessForDepartment(@PathVariable String department) {
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                bookingService.doBusinessForDepartment(department, resultSink(generator));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Streams the changes made to bookings as Server-Sent Events. Each event has the change's sequence
+     * as its ID and its type as the event name; a client reconnecting with {@code Last-Event-ID}
+     * continues after that sequence.
+     *
+     * @param after the sequence to continue after; omitted to start with the next change
+     * @param lastEventId the ID of the last event received before reconnecting; takes precedence over {@code after}
+     * @param onOverrun whether to continue or end the stream after changes were lost to a slow client
+     * @return a ResponseEntity streaming the changes with HTTP status 200 (OK)
+     */
+    @StreamTimeout(CHANGES_TIMEOUT)
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamChangeEvents(@RequestParam(required = false) Long after,
+                                                                    @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+                                                                    @RequestParam(defaultValue = "SKIP") ChangeOverrunPolicy onOverrun) {
+        Long resumeAfter = lastEventId != null ? lastEventId : after;
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                bookingService.streamChanges(resumeAfter, onOverrun, changeSink(generator, true));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).cacheControl(CacheControl.noStore()).body(body);
+    }
+
+    /**
+     * Streams the changes made to bookings as newline-delimited JSON, one change per line. While no
+     * changes are published, an empty line is sent periodically.
+     *
+     * @param after the sequence to continue after; omitted to start with the next change
+     * @param onOverrun whether to continue or end the stream after changes were lost to a slow client
+     * @return a ResponseEntity streaming the changes with HTTP status 200 (OK)
+     */
+    @StreamTimeout(CHANGES_TIMEOUT)
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamChanges(@RequestParam(required = false) Long after,
+                                                               @RequestParam(defaultValue = "SKIP") ChangeOverrunPolicy onOverrun) {
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                bookingService.streamChanges(after, onOverrun, changeSink(generator, false));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).cacheControl(CacheControl.noStore()).body(body);
+    }
+
+    private BookingChangeSink changeSink(JsonGenerator generator, boolean eventStream) {
+        generator.setRootValueSeparator(null);
+        ObjectWriter writer = objectMapper.writerFor(BookingChange.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return new BookingChangeSink() {
+            @Override
+            public void accept(BookingChange change) throws IOException {
+                if (eventStream) {
+                    generator.writeRaw("id: " + change.getSequence() + "\nevent: "
+                            + change.getType().name().toLowerCase(Locale.ROOT) + "\ndata: ");
+                }
+                writer.writeValue(generator, change);
+                generator.writeRaw(eventStream ? "\n\n" : "\n");
+            }
+
+            @Override
+            public void flush() throws IOException {
+                generator.flush();
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                generator.writeRaw(eventStream ? ":\n\n" : "\n");
+                generator.flush();
+            }
+        };
+    }
+
+    private BatchItemResultSink batchSink(JsonGenerator generator) {
+        ObjectWriter writer = objectMapper.writerFor(BatchItemResult.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return new BatchItemResultSink() {
+            @Override
+            public void accept(BatchItemResult result) throws IOException {
+                writer.writeValue(generator, result);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                generator.flush();
+            }
+        };
+    }
+
+    private BusinessResultSink resultSink(JsonGenerator generator) {
+        generator.setRootValueSeparator(null);
+        // Flushed only while the service waits for more results, not after every line
+        ObjectWriter writer = objectMapper.writerFor(BusinessResult.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return new BusinessResultSink() {
+            @Override
+            public void accept(BusinessResult result) throws IOException {
+                writer.writeValue(generator, result);
+                generator.writeRaw('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                generator.flush();
+            }
+        };
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
     @PostMapping("/test-validation")
     public ResponseEntity<String> testValidation(@Valid @RequestBody Booking booking) {
         return ResponseEntity.ok("Validation passed");
@@ -0,0 +1,110 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import com.statista.code.challenge.bookingservice.exception.IdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of requests sent with an {@code Idempotency-Key} header so that a client
+ * retrying a request gets the original result instead of performing it twice. A retry that arrives
+ * while the original is still running waits for it. A key reused for a different request is rejected.
+ * Failed requests, including those that fail with an error, are forgotten, so they can be retried;
+ * retries already waiting for one get its failure.
+ * <p>
+ * Keys expire {@code booking.idempotency.ttl-ms} after first use, and at most
+ * {@code booking.idempotency.max-keys} keys are kept; beyond that the oldest are dropped first.
+ * Keys are expired in the order they were added, on the write path, so reads never scan the cache.
+ */
+@Component
+public class IdempotencyCache {
+
+    private record Entry(String key, Object request, CompletableFuture<Object> outcome, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public IdempotencyCache(@Value("${booking.idempotency.max-keys:100000}") int maxKeys,
+                            @Value("${booking.idempotency.ttl-ms:86400000}") long ttlMillis) {
+        this.maxKeys = maxKeys;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Performs a request once per idempotency key.
+     *
+     * @param key     the idempotency key sent by the client
+     * @param request the request, compared with {@link Object#equals} to the one first sent with the key
+     * @param action  performs the request
+     * @param <T>     the type of the outcome
+     * @return the outcome of the action, or of the earlier request with the same key
+     * @throws IdempotencyKeyReusedException if the key was first used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        long now = System.nanoTime();
+        Entry entry = new Entry(key, request, new CompletableFuture<>(), now + ttlNanos);
+        Entry existing = entries.putIfAbsent(key, entry);
+        while (existing != null && existing.isExpired(now)) {
+            existing = entries.replace(key, existing, entry) ? null : entries.putIfAbsent(key, entry);
+        }
+        if (existing != null) {
+            if (!existing.request().equals(request)) {
+                throw new IdempotencyKeyReusedException("Key was used for a different request: " + key);
+            }
+            return (T) await(existing.outcome());
+        }
+        order.add(entry);
+        evict(now);
+        try {
+            T outcome = action.get();
+            entry.outcome().complete(outcome);
+            return outcome;
+        } catch (Throwable e) {
+            // Errors as well: an outcome never completed would leave every retry with the key waiting forever
+            entries.remove(key, entry);
+            entry.outcome().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = order.peek()) != null && (oldest.isExpired(now) || entries.size() > maxKeys)) {
+            if (order.remove(oldest)) {
+                entries.remove(oldest.key(), oldest);
+            }
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import com.statista.code.challenge.bookingservice.metrics.MetricsSource;
+import com.statista.code.challenge.bookingservice.metrics.PrometheusWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller exposing the metrics of every {@link MetricsSource} in the Prometheus text format.
+ */
+@RestController
+@RequestMapping("/bookingservice")
+public class MetricsController {
+
+    private final List<MetricsSource> sources;
+
+    public MetricsController(List<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Endpoint to scrape the current metrics.
+     *
+     * @return the metrics of all components in the Prometheus text exposition format
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<String> getMetrics() {
+        PrometheusWriter writer = new PrometheusWriter();
+        for (MetricsSource source : sources) {
+            source.writeMetrics(writer);
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, PrometheusWriter.CONTENT_TYPE)
+                .body(writer.toString());
+    }
+}
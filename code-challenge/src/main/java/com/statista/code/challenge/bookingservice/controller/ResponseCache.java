@@ -0,0 +1,126 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.statista.code.challenge.bookingservice.json.BookingJsonCodec;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for frequently polled endpoints. Responses carry an entity tag derived
+ * from the repository version of the data they were rendered from; a request whose
+ * {@code If-None-Match} header names the current tag is answered with 304 (Not Modified) without
+ * rendering anything, and other requests are served the serialized JSON body cached for the
+ * current tag if there is one.
+ * <p>
+ * The cache holds one body per key and is cleared when it reaches {@code booking.http.cache.max-entries},
+ * which keeps it small without tracking recency on the read path. Booking bodies are encoded with the
+ * {@link BookingJsonCodec} when one is configured, other bodies with the object mapper.
+ */
+@Component
+public class ResponseCache {
+
+    private record Entry(String etag, byte[] body) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final BookingJsonCodec bookingCodec;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ResponseCache(ObjectMapper objectMapper, int maxEntries) {
+        this(objectMapper, null, maxEntries);
+    }
+
+    @Autowired
+    public ResponseCache(ObjectMapper objectMapper, @Nullable BookingJsonCodec bookingCodec,
+                         @Value("${booking.http.cache.max-entries:4096}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.bookingCodec = bookingCodec;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Answers a conditional GET.
+     *
+     * @param key         identifies the response among the cached ones
+     * @param versionTag  the version of the data the response is rendered from; read before the data
+     * @param ifNoneMatch the {@code If-None-Match} request header, or {@code null} if absent
+     * @param body        renders the response body if it is not cached for the current version
+     * @return a 304 (Not Modified) response if the client has the current version, otherwise a 200 (OK)
+     *         response with the serialized body; both carry the entity tag
+     */
+    public ResponseEntity<byte[]> respond(String key, String versionTag, String ifNoneMatch, Supplier<?> body) {
+        String etag = '"' + versionTag + '"';
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.etag().equals(etag)) {
+            entry = new Entry(etag, serialize(body.get()));
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+            entries.put(key, entry);
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(entry.body());
+    }
+
+    /**
+     * Evaluates an {@code If-Match} header, which only matches strong entity tags.
+     *
+     * @param ifMatch the {@code If-Match} request header
+     * @param etag    the current entity tag, quoted
+     * @return {@code true} if the header is {@code *} or names the entity tag
+     */
+    static boolean matchesStrongly(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the entity tag, comparing weakly as required for GET.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] serialize(Object body) {
+        if (bookingCodec != null && body instanceof Booking booking) {
+            return bookingCodec.encode(booking);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize the response body", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the async request timeout of an endpoint that returns a streaming body, overriding the servlet
+ * container's default, which would cut a long stream off after about 30 seconds.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface StreamTimeout {
+
+    /**
+     * @return the timeout in milliseconds, a placeholder such as {@code "${booking.batch.timeout-ms:600000}"}
+     *         being resolved against the environment; zero or less means no timeout
+     */
+    String value();
+}
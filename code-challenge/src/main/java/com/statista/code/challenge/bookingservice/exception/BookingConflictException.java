@@ -0,0 +1,16 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown when a booking is created with an ID that is already taken.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new BookingConflictException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception; must not be {@code null}
+     */
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,41 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a department refuses to process a booking because one of its dispatch
+ * limits is exhausted, or gives up on a booking that did not complete in time.
+ */
+@Getter
+public class DepartmentRejectedException extends RuntimeException {
+
+    public enum Reason {
+        /**
+         * The department is already processing as many bookings as it may concurrently.
+         */
+        BULKHEAD_FULL,
+        /**
+         * The department's request rate limit is exhausted.
+         */
+        RATE_LIMITED,
+        /**
+         * The department did not finish processing the booking within its timeout.
+         */
+        TIMED_OUT
+    }
+
+    private final String department;
+    private final Reason reason;
+
+    /**
+     * Constructs a new DepartmentRejectedException.
+     *
+     * @param department the name of the department; must not be {@code null}
+     * @param reason the limit that caused the rejection; must not be {@code null}
+     */
+    public DepartmentRejectedException(String department, Reason reason) {
+        super("Department " + department + " rejected the booking: " + reason);
+        this.department = department;
+        this.reason = reason;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +27,14 @@ public class GlobalExceptionHandler {
 
     private static final String BOOKING_NOT_FOUND_MESSAGE = "Booking not found.";
     private static final String DEPARTMENT_NOT_FOUND_MESSAGE = "Department not found.";
+    private static final String INVALID_CURSOR_MESSAGE = "Invalid cursor.";
+    private static final String INVALID_DATE_RANGE_MESSAGE = "Invalid date range.";
+    private static final String INVALID_PARAMETER_MESSAGE = "Invalid parameter.";
+    private static final String UNKNOWN_CURRENCY_MESSAGE = "Unknown currency.";
+    private static final String DEPARTMENT_REJECTED_MESSAGE = "Department unavailable.";
+    private static final String BOOKING_CONFLICT_MESSAGE = "Booking already exists.";
+    private static final String PRECONDITION_FAILED_MESSAGE = "Booking has changed.";
+    private static final String IDEMPOTENCY_KEY_REUSED_MESSAGE = "Idempotency key reused.";
     private static final String GENERAL_ERROR_MESSAGE = "An unexpected error occurred.";
 
     public GlobalExceptionHandler() {
@@ -72,6 +81,98 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(DEPARTMENT_NOT_FOUND_MESSAGE + " " + ex.getMessage());
     }
 
+    /**
+     * Handles pagination cursors that were not issued by the service.
+     *
+     * @param ex the exception thrown when a cursor cannot be decoded
+     * @return a ResponseEntity containing the exception message, with HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_CURSOR_MESSAGE + " " + ex.getMessage());
+    }
+
+    /**
+     * Handles bookings a department refused or did not finish in time.
+     *
+     * @param ex the exception thrown when a department limit is exhausted
+     * @return a ResponseEntity containing the exception message, with HTTP status 504 (Gateway Timeout) if the
+     *         department timed out, or 429 (Too Many Requests) if its concurrency or rate limit is exhausted
+     */
+    @ExceptionHandler(DepartmentRejectedException.class)
+    public ResponseEntity<String> handleDepartmentRejectedException(DepartmentRejectedException ex) {
+        HttpStatus status = ex.getReason() == DepartmentRejectedException.Reason.TIMED_OUT
+                ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.TOO_MANY_REQUESTS;
+        return ResponseEntity.status(status).body(DEPARTMENT_REJECTED_MESSAGE + " " + ex.getMessage());
+    }
+
+    /**
+     * Handles date ranges whose end lies before their start.
+     *
+     * @param ex the exception thrown when a date range is invalid
+     * @return a ResponseEntity containing the exception message, with HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<String> handleInvalidDateRangeException(InvalidDateRangeException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_DATE_RANGE_MESSAGE + " " + ex.getMessage());
+    }
+
+    /**
+     * Handles conversions into a currency that has no exchange rate.
+     *
+     * @param ex the exception thrown when a currency has no exchange rate
+     * @return a ResponseEntity containing the exception message, with HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(UnknownCurrencyException.class)
+    public ResponseEntity<String> handleUnknownCurrencyException(UnknownCurrencyException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(UNKNOWN_CURRENCY_MESSAGE + " " + ex.getMessage());
+    }
+
+    /**
+     * Handles request parameters that cannot be converted to the expected type, such as malformed
+     * dates or unknown rollup dimensions.
+     *
+     * @param ex the exception thrown when a parameter cannot be converted
+     * @return a ResponseEntity naming the parameter, with HTTP status 400 (Bad Request)
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_PARAMETER_MESSAGE + " " + ex.getName() + "=" + ex.getValue());
+    }
+
+    /**
+     * Handles bookings created with an ID that is already taken.
+     *
+     * @param ex the exception thrown when a booking ID already exists
+     * @return a ResponseEntity containing the exception message, with HTTP status 409 (Conflict)
+     */
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<String> handleBookingConflictException(BookingConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(BOOKING_CONFLICT_MESSAGE + " " + ex.getMessage());
+    }
+
+    /**
+     * Handles conditional updates of bookings that were changed in the meantime.
+     *
+     * @param ex the exception thrown when the version of a booking does not match
+     * @return a ResponseEntity containing the exception message, with HTTP status 412 (Precondition Failed)
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(PRECONDITION_FAILED_MESSAGE + " " + ex.getMessage());
+    }
+
+    /**
+     * Handles idempotency keys sent again with a different request.
+     *
+     * @param ex the exception thrown when an idempotency key is reused
+     * @return a ResponseEntity containing the exception message, with HTTP status 422 (Unprocessable Entity)
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(IDEMPOTENCY_KEY_REUSED_MESSAGE + " " + ex.getMessage());
+    }
+
     /**
      * Handles any other exceptions that are not specifically handled by other methods.
      *
@@ -0,0 +1,16 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown when an idempotency key is reused for a different request.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    /**
+     * Constructs a new IdempotencyKeyReusedException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception; must not be {@code null}
+     */
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
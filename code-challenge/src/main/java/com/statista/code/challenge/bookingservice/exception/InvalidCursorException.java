@@ -0,0 +1,16 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown when a pagination cursor supplied by a client was not issued by this service.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception; must not be {@code null}
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
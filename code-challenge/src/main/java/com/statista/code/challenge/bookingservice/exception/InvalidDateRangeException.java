@@ -0,0 +1,16 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown when a date range supplied by a client ends before it starts.
+ */
+public class InvalidDateRangeException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidDateRangeException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception; must not be {@code null}
+     */
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown while reading a sequence of bookings when an element cannot be read as a booking.
+ */
+public class MalformedBookingException extends RuntimeException {
+
+    private final boolean recoverable;
+
+    /**
+     * Constructs a new MalformedBookingException with the specified detail message and cause.
+     *
+     * @param message the detail message explaining why the element cannot be read; must not be {@code null}
+     * @param recoverable whether the elements after this one can still be read
+     * @param cause the cause of the exception
+     */
+    public MalformedBookingException(String message, boolean recoverable, Throwable cause) {
+        super(message, cause);
+        this.recoverable = recoverable;
+    }
+
+    /**
+     * @return {@code true} if only this element is malformed, {@code false} if the sequence cannot be read any further
+     */
+    public boolean isRecoverable() {
+        return recoverable;
+    }
+}
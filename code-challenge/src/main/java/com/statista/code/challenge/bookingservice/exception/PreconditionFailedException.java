@@ -0,0 +1,16 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown when a conditional update names a version the booking no longer has.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Constructs a new PreconditionFailedException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception; must not be {@code null}
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
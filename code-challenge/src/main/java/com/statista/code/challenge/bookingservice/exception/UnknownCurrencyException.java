@@ -0,0 +1,16 @@
+package com.statista.code.challenge.bookingservice.exception;
+
+/**
+ * Exception thrown when an amount is requested in a currency that has no exchange rate.
+ */
+public class UnknownCurrencyException extends RuntimeException {
+
+    /**
+     * Constructs a new UnknownCurrencyException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception; must not be {@code null}
+     */
+    public UnknownCurrencyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.statista.code.challenge.bookingservice.fx;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link FxRates} in memory. The rates are read from a properties file of
+ * {@code CURRENCY=rate} lines at {@code booking.fx.rates} and the file is checked for changes every
+ * {@code booking.fx.reload-interval-ms}; a changed file is published as a whole new rate set, so
+ * readers always see one consistent set. A file that cannot be read or contains an invalid rate is
+ * logged and the previous rates stay in effect.
+ */
+@Component
+public class FxRateProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateProvider.class);
+
+    private static final String THREAD_NAME = "fx-rate-reloader";
+
+    private final Resource source;
+    private final long reloadIntervalMillis;
+    private final AtomicLong versions = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile FxRates current = FxRates.EMPTY;
+    private long lastModified = Long.MIN_VALUE;
+
+    @Autowired
+    public FxRateProvider(@Value("${booking.fx.rates:classpath:fx-rates.properties}") Resource source,
+                          @Value("${booking.fx.reload-interval-ms:60000}") long reloadIntervalMillis) {
+        this.source = source;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        reload();
+        if (reloadIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::reload, reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return the rate set currently in effect
+     */
+    public FxRates current() {
+        return current;
+    }
+
+    /**
+     * Publishes a new rate set, replacing the current one atomically.
+     *
+     * @param rates the rates by currency code
+     * @return the published rate set
+     * @throws IllegalArgumentException if a rate is not positive
+     */
+    public FxRates replace(Map<String, BigDecimal> rates) {
+        FxRates published = new FxRates(versions.incrementAndGet(), rates);
+        current = published;
+        return published;
+    }
+
+    /**
+     * Reads the rate file again if it has changed since it was last read.
+     */
+    synchronized void reload() {
+        try {
+            if (!source.exists()) {
+                logger.warn("Exchange rate file {} not found; currency conversion is unavailable", source);
+                return;
+            }
+            long modified = lastModified();
+            if (modified == lastModified) {
+                return;
+            }
+            FxRates published = replace(read());
+            lastModified = modified;
+            logger.info("Loaded {} exchange rates from {} as version {}", published.getRates().size(), source, published.getVersion());
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to load exchange rates from {}; keeping version {}", source, current.getVersion(), e);
+        }
+    }
+
+    /**
+     * Returns the modification time of the rate file, or {@code 0} for sources without one, which
+     * are then read only once.
+     */
+    private long lastModified() {
+        try {
+            return source.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private Map<String, BigDecimal> read() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = source.getInputStream()) {
+            properties.load(input);
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (String currency : properties.stringPropertyNames()) {
+            rates.put(currency, new BigDecimal(properties.getProperty(currency).trim()));
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,82 @@
+package com.statista.code.challenge.bookingservice.fx;
+
+import com.statista.code.challenge.bookingservice.exception.UnknownCurrencyException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable set of exchange rates. Each rate is the amount of its currency that buys one unit
+ * of a common pivot currency, so the pivot itself has rate {@code 1} and any two listed currencies
+ * can be converted into each other.
+ * <p>
+ * The conversion factors into a target currency are computed on first use and cached for the
+ * lifetime of the rate set; a new set of rates is published as a new instance by {@link FxRateProvider}.
+ */
+public final class FxRates {
+
+    public static final FxRates EMPTY = new FxRates(0, Map.of());
+
+    private final long version;
+    private final Map<String, BigDecimal> rates;
+    private final Map<String, Map<String, BigDecimal>> factors = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a rate set.
+     *
+     * @param version the version of the rate set, increasing with every published set
+     * @param rates   the rates by currency code; codes are matched case-insensitively
+     * @throws IllegalArgumentException if a rate is not positive
+     */
+    public FxRates(long version, Map<String, BigDecimal> rates) {
+        Map<String, BigDecimal> normalized = new HashMap<>();
+        rates.forEach((currency, rate) -> {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Exchange rate of " + currency + " must be positive: " + rate);
+            }
+            normalized.put(key(currency), rate);
+        });
+        this.version = version;
+        this.rates = Collections.unmodifiableMap(normalized);
+    }
+
+    static String key(String currency) {
+        return currency.toUpperCase(Locale.ROOT);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the rates by upper-cased currency code
+     */
+    public Map<String, BigDecimal> getRates() {
+        return rates;
+    }
+
+    /**
+     * Returns the factors that convert an amount in each listed currency into the target currency.
+     *
+     * @param target the currency to convert into; matched case-insensitively
+     * @return the conversion factors keyed by upper-cased source currency code
+     * @throws UnknownCurrencyException if there is no rate for the target currency
+     */
+    public Map<String, BigDecimal> factorsTo(String target) {
+        String targetKey = key(target);
+        BigDecimal targetRate = rates.get(targetKey);
+        if (targetRate == null) {
+            throw new UnknownCurrencyException("No exchange rate for " + target);
+        }
+        return factors.computeIfAbsent(targetKey, k -> {
+            Map<String, BigDecimal> result = new HashMap<>();
+            rates.forEach((currency, rate) -> result.put(currency, targetRate.divide(rate, MathContext.DECIMAL64)));
+            return Collections.unmodifiableMap(result);
+        });
+    }
+}
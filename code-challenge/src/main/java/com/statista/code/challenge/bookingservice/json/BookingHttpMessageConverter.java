@@ -0,0 +1,56 @@
+package com.statista.code.challenge.bookingservice.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes {@link Booking} request and response bodies with the {@link BookingJsonCodec}
+ * ahead of the general Jackson converter, which still handles every other type. Bodies with a
+ * charset other than UTF-8 or US-ASCII are decoded to characters first; otherwise the parser
+ * reads the bytes directly.
+ */
+public class BookingHttpMessageConverter extends AbstractHttpMessageConverter<Booking> {
+
+    private final BookingJsonCodec codec;
+
+    public BookingHttpMessageConverter(BookingJsonCodec codec) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Booking.class == clazz;
+    }
+
+    @Override
+    protected Booking readInternal(Class<? extends Booking> clazz, HttpInputMessage inputMessage) throws IOException {
+        MediaType contentType = inputMessage.getHeaders().getContentType();
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        InputStream body = inputMessage.getBody();
+        try {
+            if (charset == null || charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+                return codec.read(body);
+            }
+            return codec.read(new InputStreamReader(body, charset));
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Booking booking, HttpOutputMessage outputMessage) throws IOException {
+        codec.write(booking, outputMessage.getBody());
+    }
+}
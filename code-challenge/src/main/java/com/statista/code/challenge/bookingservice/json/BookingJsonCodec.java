@@ -0,0 +1,359 @@
+package com.statista.code.challenge.bookingservice.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes {@link Booking} JSON with Jackson's streaming parser and generator instead of
+ * reflective data binding. The JSON is the same as the application's object mapper produces and
+ * accepts: the fields in declaration order, the subscription start date as an ISO-8601 string, and
+ * unknown fields ignored.
+ * <p>
+ * Field names are written from pre-encoded bytes and, when a document lists them in the order this
+ * codec writes them, matched without being decoded. Dates of the form {@code yyyy-MM-dd} are parsed
+ * from the parser's character buffer without creating a string. Parsers and generators come from
+ * the given factory, so they reuse its recycled buffers. Instances are thread-safe.
+ */
+public final class BookingJsonCodec {
+
+    private static final int BOOKING_ID = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int PRICE = 2;
+    private static final int CURRENCY = 3;
+    private static final int SUBSCRIPTION_START_DATE = 4;
+    private static final int EMAIL = 5;
+    private static final int DEPARTMENT = 6;
+    private static final int UNKNOWN = -1;
+
+    /** The field names, indexed by the constants above in the order they are written. */
+    private static final SerializableString[] FIELD_NAMES = {
+            new SerializedString("bookingId"),
+            new SerializedString("description"),
+            new SerializedString("price"),
+            new SerializedString("currency"),
+            new SerializedString("subscriptionStartDate"),
+            new SerializedString("email"),
+            new SerializedString("department")
+    };
+
+    private static final int ISO_DATE_LENGTH = 10;
+
+    /** Initial capacity of the buffer a booking is encoded into; most bookings fit in it. */
+    private static final int ENCODE_BUFFER_SIZE = 256;
+
+    private final JsonFactory factory;
+
+    public BookingJsonCodec() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * @param factory creates the parsers and generators, such as the application object mapper's factory
+     */
+    public BookingJsonCodec(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Serializes a booking to UTF-8 JSON.
+     */
+    public byte[] encode(Booking booking) {
+        ByteArrayBuilder bytes = new ByteArrayBuilder(ENCODE_BUFFER_SIZE);
+        try (JsonGenerator generator = factory.createGenerator(bytes, JsonEncoding.UTF8)) {
+            write(booking, generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize the booking", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a booking as UTF-8 JSON to a stream, leaving the stream open.
+     */
+    public void write(Booking booking, OutputStream output) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            write(booking, generator);
+        }
+    }
+
+    /**
+     * Writes a booking as the next value of a generator.
+     */
+    public void write(Booking booking, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(FIELD_NAMES[BOOKING_ID]);
+        generator.writeString(booking.getBookingId());
+        generator.writeFieldName(FIELD_NAMES[DESCRIPTION]);
+        generator.writeString(booking.getDescription());
+        generator.writeFieldName(FIELD_NAMES[PRICE]);
+        generator.writeNumber(booking.getPrice());
+        generator.writeFieldName(FIELD_NAMES[CURRENCY]);
+        generator.writeString(booking.getCurrency());
+        generator.writeFieldName(FIELD_NAMES[SUBSCRIPTION_START_DATE]);
+        writeDate(booking.getSubscriptionStartDate(), generator);
+        generator.writeFieldName(FIELD_NAMES[EMAIL]);
+        generator.writeString(booking.getEmail());
+        generator.writeFieldName(FIELD_NAMES[DEPARTMENT]);
+        generator.writeString(booking.getDepartment());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Deserializes a booking from JSON bytes.
+     */
+    public Booking decode(byte[] json) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Reads a booking from a stream of JSON, detecting its encoding, and leaves the stream open.
+     */
+    public Booking read(InputStream input) throws IOException {
+        try (JsonParser parser = factory.createParser(input)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return read(parser);
+        }
+    }
+
+    /**
+     * Reads a booking from JSON characters and leaves the reader open.
+     */
+    public Booking read(Reader input) throws IOException {
+        try (JsonParser parser = factory.createParser(input)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return read(parser);
+        }
+    }
+
+    /**
+     * Reads a booking object starting at the current token of a parser, or at the next token if the
+     * parser has none yet, and leaves the parser at the object's end.
+     *
+     * @throws JsonParseException if the input is not a booking object
+     */
+    public Booking read(JsonParser parser) throws IOException {
+        JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, token == null
+                    ? "No content to read a booking from"
+                    : "Expected a booking object but found " + token);
+        }
+        Booking booking = new Booking();
+        for (int position = 0; ; position++) {
+            int field;
+            if (position < FIELD_NAMES.length && parser.nextFieldName(FIELD_NAMES[position])) {
+                field = position;
+            } else {
+                if (position >= FIELD_NAMES.length) {
+                    parser.nextToken();
+                }
+                token = parser.currentToken();
+                if (token == JsonToken.END_OBJECT) {
+                    return booking;
+                }
+                if (token != JsonToken.FIELD_NAME) {
+                    throw new JsonParseException(parser, "Unexpected end of the booking object");
+                }
+                field = fieldIndex(parser.currentName());
+            }
+            parser.nextToken();
+            switch (field) {
+                case BOOKING_ID -> booking.setBookingId(readString(parser));
+                case DESCRIPTION -> booking.setDescription(readString(parser));
+                case PRICE -> booking.setPrice(readPrice(parser));
+                case CURRENCY -> booking.setCurrency(readString(parser));
+                case SUBSCRIPTION_START_DATE -> booking.setSubscriptionStartDate(readDate(parser));
+                case EMAIL -> booking.setEmail(readString(parser));
+                case DEPARTMENT -> booking.setDepartment(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static int fieldIndex(String name) {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if (FIELD_NAMES[i].getValue().equals(name)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Reads a string field, taking other scalars as their text like data binding does.
+     */
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string for '" + parser.currentName() + "' but found " + token);
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Reads the price from a number or a numeric string; {@code null} and the empty string are zero.
+     */
+    private static double readPrice(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return 0.0;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return 0.0;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Invalid price: '" + text + "'", e);
+            }
+        }
+        throw new JsonParseException(parser, "Expected a number for 'price' but found " + token);
+    }
+
+    /**
+     * Reads the date from an ISO-8601 date or date-time string, an epoch day or a
+     * {@code [year, month, day]} array, the forms data binding accepts.
+     */
+    private static LocalDate readDate(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        try {
+            if (token == JsonToken.VALUE_STRING) {
+                if (parser.getTextLength() == ISO_DATE_LENGTH) {
+                    LocalDate date = parseIsoDate(parser.getTextCharacters(), parser.getTextOffset());
+                    if (date != null) {
+                        return date;
+                    }
+                }
+                return parseDate(parser.getText().trim());
+            }
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+            if (token == JsonToken.START_ARRAY) {
+                int year = nextInt(parser);
+                int month = nextInt(parser);
+                int day = nextInt(parser);
+                if (parser.nextToken() != JsonToken.END_ARRAY) {
+                    throw new JsonParseException(parser, "Expected [year, month, day] for 'subscriptionStartDate'");
+                }
+                return LocalDate.of(year, month, day);
+            }
+        } catch (DateTimeException e) {
+            throw new JsonParseException(parser, "Invalid subscription start date: " + e.getMessage(), e);
+        }
+        throw new JsonParseException(parser, "Expected a date for 'subscriptionStartDate' but found " + token);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd} from ten characters.
+     *
+     * @return the date, or {@code null} if the characters have another form
+     * @throws DateTimeException if the form is right but the date does not exist
+     */
+    private static LocalDate parseIsoDate(char[] chars, int offset) {
+        if (chars[offset + 4] != '-' || chars[offset + 7] != '-') {
+            return null;
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * @return the value of the decimal digits, or {@code -1} if one of the characters is not a digit
+     */
+    private static int digits(char[] chars, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        if (text.indexOf('T') >= 0) {
+            // Date-times are cut to their date; a UTC designator does not change the date
+            return LocalDateTime.parse(text.endsWith("Z") ? text.substring(0, text.length() - 1) : text).toLocalDate();
+        }
+        return LocalDate.parse(text);
+    }
+
+    private static int nextInt(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw new JsonParseException(parser, "Expected [year, month, day] for 'subscriptionStartDate'");
+        }
+        return parser.getIntValue();
+    }
+
+    /**
+     * Writes the date as {@code yyyy-MM-dd} from a character buffer, or through {@link LocalDate#toString()}
+     * for years that need a sign or more than four digits.
+     */
+    private static void writeDate(LocalDate date, JsonGenerator generator) throws IOException {
+        if (date == null) {
+            generator.writeNull();
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(date.toString());
+            return;
+        }
+        char[] chars = new char[ISO_DATE_LENGTH];
+        writeDigits(chars, 0, 4, year);
+        chars[4] = '-';
+        writeDigits(chars, 5, 2, date.getMonthValue());
+        chars[7] = '-';
+        writeDigits(chars, 8, 2, date.getDayOfMonth());
+        generator.writeString(chars, 0, ISO_DATE_LENGTH);
+    }
+
+    private static void writeDigits(char[] chars, int offset, int length, int value) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
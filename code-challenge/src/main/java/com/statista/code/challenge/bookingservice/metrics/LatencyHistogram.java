@@ -0,0 +1,102 @@
+package com.statista.code.challenge.bookingservice.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent latency histogram with log-linear buckets, in the style of HdrHistogram: every power
+ * of two between {@value #MIN_EXPONENT} and {@value #MAX_EXPONENT} bits of nanoseconds is split into
+ * {@value #SUB_BUCKETS} equal sub-buckets, so a bucket's width is at most an eighth of its lower bound
+ * and a quantile read from the buckets is off by at most 12.5%.
+ * Recording is a few arithmetic operations and two {@link LongAdder} increments; it does not allocate
+ * once the adders have spread under contention.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 36;
+
+    /**
+     * Number of buckets: one below {@code 2^MIN_EXPONENT} ns, the log-linear range, and one overflow bucket.
+     */
+    static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS + 2;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one measurement; negative values are recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[index(value)].increment();
+        sumNanos.add(value);
+    }
+
+    /**
+     * Records one measurement that stands for several calls, such as one sampled out of many.
+     *
+     * @param nanos the latency in nanoseconds
+     * @param count the number of calls the measurement stands for
+     */
+    public void record(long nanos, int count) {
+        long value = Math.max(0L, nanos);
+        counts[index(value)].add(count);
+        sumNanos.add(value * count);
+    }
+
+    /**
+     * @return the sum of all recorded latencies in nanoseconds
+     */
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * @return the number of measurements in each bucket; the counts are read one after another
+     *         and may be slightly inconsistent while measurements are recorded
+     */
+    public long[] bucketCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the exclusive upper bound of a bucket in nanoseconds, or {@link Long#MAX_VALUE} for the overflow bucket
+     */
+    public static long upperBoundNanos(int bucket) {
+        if (bucket == 0) {
+            return 1L << MIN_EXPONENT;
+        }
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+        int subBucket = (bucket - 1) % SUB_BUCKETS;
+        return (1L << exponent) + ((long) (subBucket + 1) << (exponent - SUB_BUCKET_BITS));
+    }
+
+    static int index(long nanos) {
+        if (nanos < (1L << MIN_EXPONENT)) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+}
@@ -0,0 +1,14 @@
+package com.statista.code.challenge.bookingservice.metrics;
+
+/**
+ * A component that reports metrics on the metrics endpoint.
+ */
+public interface MetricsSource {
+
+    /**
+     * Writes the component's current metrics. Every metric family must be written in one go.
+     *
+     * @param writer the writer to append to
+     */
+    void writeMetrics(PrometheusWriter writer);
+}
@@ -0,0 +1,156 @@
+package com.statista.code.challenge.bookingservice.metrics;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One {@link LatencyHistogram} per operation of a component, indexed by the ordinal of the
+ * operation's enum constant so that recording needs no lookup. Timed code is wrapped in
+ * <pre>{@code
+ * return metrics.call(Operation.X, () -> ...);
+ * }</pre>
+ * or {@link #run} for code without a result; code whose latency is only known later, such as an
+ * asynchronous write, uses {@link #start} and {@link #record} directly. When disabled, none of
+ * them read the clock.
+ * <p>
+ * Reading the clock twice costs more than some in-memory operations themselves, so the hot point
+ * operations of a component can be sampled: each thread times only every {@value #SAMPLE_INTERVAL}th
+ * of its calls of such an operation and records it {@value #SAMPLE_INTERVAL} times over, which keeps
+ * the counts and quantiles right on average. The calls are counted in per-thread stripes padded to
+ * separate cache lines, so counting is a plain increment that threads do not contend on; a racing
+ * increment merely shifts which call is sampled. Rare or slow operations are left unsampled, so each
+ * call is timed.
+ *
+ * @param <E> the enum of the component's operations
+ */
+public final class OperationMetrics<E extends Enum<E>> {
+
+    /**
+     * One call in this many of a sampled operation is timed; a power of two.
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    private static final int COUNTER_STRIPES = 32;
+    // One counter per 64-byte cache line
+    private static final int COUNTER_STRIDE = 16;
+
+    // Returned by start for a call that is not timed
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private final E[] operations;
+    private final LatencyHistogram[] histograms;
+    private final int[] intervals;
+    private final int[] callCounters;
+    private final boolean enabled;
+
+    public OperationMetrics(Class<E> operationType, boolean enabled) {
+        this(operationType, enabled, Set.of());
+    }
+
+    /**
+     * @param operationType the enum of the component's operations
+     * @param enabled       whether latencies are recorded at all
+     * @param sampled       the operations of which only one call in {@value #SAMPLE_INTERVAL} is timed
+     */
+    public OperationMetrics(Class<E> operationType, boolean enabled, Set<E> sampled) {
+        this.operations = operationType.getEnumConstants();
+        this.histograms = new LatencyHistogram[operations.length];
+        this.intervals = new int[operations.length];
+        this.callCounters = new int[operations.length * COUNTER_STRIPES * COUNTER_STRIDE];
+        for (E operation : operations) {
+            histograms[operation.ordinal()] = new LatencyHistogram();
+            intervals[operation.ordinal()] = sampled.contains(operation) ? SAMPLE_INTERVAL : 1;
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param operation the operation about to be called
+     * @return the start time to pass to {@link #record}, or a marker if this call is not timed
+     */
+    public long start(E operation) {
+        if (!enabled) {
+            return NOT_TIMED;
+        }
+        int index = operation.ordinal();
+        int interval = intervals[index];
+        if (interval == 1) {
+            return System.nanoTime();
+        }
+        int stripe = (int) (Thread.currentThread().threadId() & (COUNTER_STRIPES - 1));
+        int counter = (index * COUNTER_STRIPES + stripe) * COUNTER_STRIDE;
+        return (++callCounters[counter] & (interval - 1)) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the latency of one call of an operation, if the call is timed.
+     *
+     * @param operation the operation that was called
+     * @param start     the value returned by {@link #start} when the call began
+     */
+    public void record(E operation, long start) {
+        if (start != NOT_TIMED) {
+            int index = operation.ordinal();
+            histograms[index].record(System.nanoTime() - start, intervals[index]);
+        }
+    }
+
+    /**
+     * Calls timed code and records its latency, whether it returns or throws.
+     *
+     * @param operation the operation the code performs
+     * @param call      the code
+     * @return the result of the code
+     * @throws X if the code throws it
+     */
+    public <T, X extends Throwable> T call(E operation, TimedCall<T, X> call) throws X {
+        long start = start(operation);
+        try {
+            return call.call();
+        } finally {
+            record(operation, start);
+        }
+    }
+
+    /**
+     * Runs timed code without a result and records its latency, whether it returns or throws.
+     *
+     * @param operation the operation the code performs
+     * @param run       the code
+     * @throws X if the code throws it
+     */
+    public <X extends Throwable> void run(E operation, TimedRun<X> run) throws X {
+        long start = start(operation);
+        try {
+            run.run();
+        } finally {
+            record(operation, start);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @FunctionalInterface
+    public interface TimedCall<T, X extends Throwable> {
+        T call() throws X;
+    }
+
+    @FunctionalInterface
+    public interface TimedRun<X extends Throwable> {
+        void run() throws X;
+    }
+
+    /**
+     * Writes one histogram per operation, labelled {@code operation="<lower-case constant name>"}.
+     */
+    public void write(PrometheusWriter writer, String name, String help) {
+        if (!enabled) {
+            return;
+        }
+        for (E operation : operations) {
+            writer.histogram(name, help, histograms[operation.ordinal()], "operation", operation.name().toLowerCase(Locale.ROOT));
+        }
+    }
+}
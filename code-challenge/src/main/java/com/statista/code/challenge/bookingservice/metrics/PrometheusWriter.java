@@ -0,0 +1,100 @@
+package com.statista.code.challenge.bookingservice.metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Builds a page in the Prometheus text exposition format (version 0.0.4). The {@code HELP} and
+ * {@code TYPE} lines of a metric family are written before its first sample; callers write all
+ * samples of a family consecutively. Labels are given as alternating names and values.
+ */
+public final class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final StringBuilder out = new StringBuilder(4096);
+    private final Set<String> declared = new HashSet<>();
+
+    public PrometheusWriter counter(String name, String help, double value, String... labels) {
+        declare(name, "counter", help);
+        sample(name, labels, null, value);
+        return this;
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value, String... labels) {
+        declare(name, "gauge", help);
+        sample(name, labels, null, value);
+        return this;
+    }
+
+    /**
+     * Writes a histogram of latencies in seconds with cumulative {@code le} buckets.
+     */
+    public PrometheusWriter histogram(String name, String help, LatencyHistogram histogram, String... labels) {
+        declare(name, "histogram", help);
+        long[] counts = histogram.bucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            long bound = LatencyHistogram.upperBoundNanos(i);
+            String le = bound == Long.MAX_VALUE ? "+Inf" : format(bound / NANOS_PER_SECOND);
+            sample(name + "_bucket", labels, le, cumulative);
+        }
+        sample(name + "_sum", labels, null, histogram.sumNanos() / NANOS_PER_SECOND);
+        sample(name + "_count", labels, null, cumulative);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void declare(String name, String type, String help) {
+        if (declared.add(name)) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    private void sample(String name, String[] labels, String le, double value) {
+        out.append(name);
+        if (labels.length > 0 || le != null) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"");
+                escape(labels[i + 1]);
+                out.append('"');
+            }
+            if (le != null) {
+                out.append(labels.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
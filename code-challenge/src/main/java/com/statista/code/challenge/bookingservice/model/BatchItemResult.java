@@ -0,0 +1,59 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single booking within a batch ingestion request.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        /**
+         * A booking with the same ID already exists, or appeared earlier in the request; the stored booking is kept.
+         */
+        CONFLICT,
+        /**
+         * The element could not be read as a booking; if it is the last result, the rest of the request was unreadable.
+         */
+        MALFORMED
+    }
+
+    /**
+     * Zero-based position of the booking in the request.
+     */
+    int index;
+
+    String bookingId;
+
+    Status status;
+
+    /**
+     * Validation errors by field name, the conflict under {@code bookingId} for a {@link Status#CONFLICT}, or
+     * the parse error under {@code booking} for a {@link Status#MALFORMED} element; {@code null} for a
+     * created booking.
+     */
+    Map<String, String> errors;
+
+    public static BatchItemResult created(int index, String bookingId) {
+        return new BatchItemResult(index, bookingId, Status.CREATED, null);
+    }
+
+    public static BatchItemResult invalid(int index, String bookingId, Map<String, String> errors) {
+        return new BatchItemResult(index, bookingId, Status.INVALID, errors);
+    }
+
+    public static BatchItemResult conflict(int index, String bookingId) {
+        return new BatchItemResult(index, bookingId, Status.CONFLICT, Map.of("bookingId", "Booking already exists"));
+    }
+
+    public static BatchItemResult malformed(int index, String error) {
+        return new BatchItemResult(index, null, Status.MALFORMED, Map.of("booking", error));
+    }
+}
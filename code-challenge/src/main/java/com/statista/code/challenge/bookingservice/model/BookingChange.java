@@ -0,0 +1,34 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * One entry of the booking change stream. Changes are numbered by the write that made them, the
+ * same number that versions the booking, so the sequence increases by one with every write. A
+ * {@link Type#GAP} entry stands for changes a subscriber fell too far behind to receive; its sequence
+ * is the last one skipped.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingChange {
+
+    public enum Type {
+        CREATED, UPDATED, GAP
+    }
+
+    long sequence;
+    Type type;
+    String bookingId;
+    Booking before;
+    Booking after;
+    Long lost;
+
+    public static BookingChange of(long sequence, String bookingId, Booking before, Booking after) {
+        return new BookingChange(sequence, before == null ? Type.CREATED : Type.UPDATED, bookingId, before, after, null);
+    }
+
+    public static BookingChange gap(long lastLostSequence, long lost) {
+        return new BookingChange(lastLostSequence, Type.GAP, null, null, null, lost);
+    }
+}
@@ -0,0 +1,18 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of booking IDs. {@code nextCursor} is an opaque token that requests the following page,
+ * and is omitted when no bookings followed this page when it was read.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingIdPage {
+
+    List<String> bookingIds;
+    String nextCursor;
+}
@@ -0,0 +1,54 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * Outcome of processing a single booking within a bulk processing request.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BusinessResult {
+
+    public enum Status {
+        PROCESSED,
+        NOT_FOUND,
+        UNKNOWN_DEPARTMENT,
+        FAILED,
+        /**
+         * The department's bulkhead or rate limit was exhausted; a single request would get 429.
+         */
+        REJECTED,
+        /**
+         * The department did not finish the booking in time; a single request would get 504.
+         */
+        TIMED_OUT
+    }
+
+    String bookingId;
+
+    /**
+     * The department of the booking; {@code null} if the booking was not found.
+     */
+    String department;
+
+    Status status;
+
+    /**
+     * The message returned by the department; {@code null} unless the status is {@link Status#PROCESSED}.
+     */
+    String result;
+
+    /**
+     * The reason the booking was not processed; {@code null} if the status is {@link Status#PROCESSED}.
+     */
+    String error;
+
+    public static BusinessResult processed(String bookingId, String department, String result) {
+        return new BusinessResult(bookingId, department, Status.PROCESSED, result, null);
+    }
+
+    public static BusinessResult rejected(String bookingId, String department, Status status, String error) {
+        return new BusinessResult(bookingId, department, status, null, error);
+    }
+}
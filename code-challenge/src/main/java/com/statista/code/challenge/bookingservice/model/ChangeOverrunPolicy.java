@@ -0,0 +1,18 @@
+package com.statista.code.challenge.bookingservice.model;
+
+/**
+ * What a change stream subscription does when it falls so far behind that changes it has not read
+ * yet were overwritten.
+ */
+public enum ChangeOverrunPolicy {
+
+    /**
+     * Reports the lost changes as a gap and continues with the oldest change still retained.
+     */
+    SKIP,
+
+    /**
+     * Reports the lost changes as a gap and ends the subscription.
+     */
+    CLOSE
+}
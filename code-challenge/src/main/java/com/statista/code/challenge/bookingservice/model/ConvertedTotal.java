@@ -0,0 +1,28 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * The prices of all bookings converted into one currency. Bookings in currencies without an
+ * exchange rate are left out of the total and their currencies are listed in
+ * {@code unconvertedCurrencies}, which is omitted when empty.
+ */
+@Value
+public class ConvertedTotal {
+
+    String currency;
+    BigDecimal total;
+    long count;
+
+    /**
+     * Version of the exchange rates the total was converted with.
+     */
+    long ratesVersion;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    Set<String> unconvertedCurrencies;
+}
@@ -0,0 +1,36 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated price statistics over a group of bookings. Sums are accumulated with exact
+ * decimal arithmetic; {@code min} and {@code max} are {@code null} when the group is empty.
+ */
+@Value
+public class PriceSummary {
+
+    public static final PriceSummary EMPTY = new PriceSummary(0, BigDecimal.ZERO, null, null);
+
+    long count;
+    BigDecimal sum;
+    BigDecimal min;
+    BigDecimal max;
+
+    /**
+     * Combines the statistics of two disjoint groups of bookings.
+     *
+     * @param other the summary of the other group; must not be {@code null}
+     * @return the summary of both groups together
+     */
+    public PriceSummary merge(PriceSummary other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return other;
+        }
+        return new PriceSummary(count + other.count, sum.add(other.sum), min.min(other.min), max.max(other.max));
+    }
+}
@@ -0,0 +1,19 @@
+package com.statista.code.challenge.bookingservice.model;
+
+/**
+ * A dimension of the booking rollup that results can be grouped and filtered by.
+ */
+public enum RollupDimension {
+    /**
+     * The case-normalized department of the booking.
+     */
+    DEPARTMENT,
+    /**
+     * The upper-cased currency code of the booking.
+     */
+    CURRENCY,
+    /**
+     * The month of the booking's subscription start date.
+     */
+    MONTH
+}
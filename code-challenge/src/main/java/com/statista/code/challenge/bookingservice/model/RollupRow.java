@@ -0,0 +1,21 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.time.YearMonth;
+
+/**
+ * One group of a rollup query. Only the dimensions the query was grouped by are set; the others
+ * are {@code null} and omitted from the JSON representation. The currency is always set, because
+ * rows are never summed across currencies.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RollupRow {
+
+    String department;
+    String currency;
+    YearMonth month;
+    PriceSummary summary;
+}
@@ -0,0 +1,18 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * An email the {@link EmailDispatcher} gave up on, either because every delivery attempt failed
+ * or because the queue had no room for it.
+ */
+@Value
+public class DeadLetter {
+
+    EmailMessage message;
+    int attempts;
+    String reason;
+    Instant timestamp;
+}
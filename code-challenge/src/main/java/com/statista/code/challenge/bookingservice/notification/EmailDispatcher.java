@@ -0,0 +1,279 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import com.statista.code.challenge.bookingservice.metrics.MetricsSource;
+import com.statista.code.challenge.bookingservice.metrics.PrometheusWriter;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers booking confirmation emails asynchronously so that booking creation never waits on
+ * mail delivery.
+ * <p>
+ * Emails are placed on a bounded queue. When the queue is full, {@link #submit(Booking)} dead-letters
+ * the email at once rather than waiting for room. Worker threads drain the queue in batches and hand
+ * each batch to the {@link EmailSender}. A failed batch is retried with exponential backoff until the
+ * maximum number of attempts is reached, after which its emails are moved to a bounded dead-letter
+ * list. Retries still waiting for their backoff when the dispatcher stops are dead-lettered as well.
+ */
+@Component
+public class EmailDispatcher implements MetricsSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final String QUEUE_FULL_REASON = "Email queue is full";
+    private static final String STOPPED_REASON = "Email dispatcher stopped before the retry";
+    private static final String WORKER_THREAD_NAME = "email-dispatcher-";
+
+    private final EmailSender sender;
+    private final BlockingQueue<PendingEmail> queue;
+    private final int batchSize;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int deadLetterCapacity;
+
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<Long, PendingEmail> scheduledRetries = new ConcurrentHashMap<>();
+    private final AtomicLong nextRetryId = new AtomicLong();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, WORKER_THREAD_NAME + "retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sendBatches = new LongAdder();
+    private final LongAdder totalSendLatencyNanos = new LongAdder();
+    private final AtomicLong maxSendLatencyNanos = new AtomicLong();
+
+    @Autowired
+    public EmailDispatcher(EmailSender sender,
+                           @Value("${booking.email.queue-capacity:10000}") int queueCapacity,
+                           @Value("${booking.email.batch-size:100}") int batchSize,
+                           @Value("${booking.email.workers:2}") int workerCount,
+                           @Value("${booking.email.max-attempts:5}") int maxAttempts,
+                           @Value("${booking.email.initial-backoff-ms:100}") long initialBackoffMillis,
+                           @Value("${booking.email.max-backoff-ms:30000}") long maxBackoffMillis,
+                           @Value("${booking.email.dead-letter-capacity:1000}") int deadLetterCapacity) {
+        this.sender = sender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.deadLetterCapacity = deadLetterCapacity;
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, WORKER_THREAD_NAME + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Dead-letters the retries still waiting for their backoff and lets the workers drain the emails
+     * that are already queued.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        for (Long retryId : scheduledRetries.keySet()) {
+            PendingEmail email = scheduledRetries.remove(retryId);
+            if (email != null) {
+                deadLetter(email, STOPPED_REASON);
+            }
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /**
+     * Queues the confirmation email for the given booking.
+     *
+     * @param booking the booking to confirm; must not be {@code null}
+     * @return {@code true} if the email was queued, {@code false} if it was dead-lettered because the queue was full
+     */
+    public boolean submit(Booking booking) {
+        PendingEmail email = new PendingEmail(EmailMessage.confirmationFor(booking), 0);
+        if (queue.offer(email)) {
+            return true;
+        }
+        rejected.increment();
+        deadLetter(email, QUEUE_FULL_REASON);
+        return false;
+    }
+
+    /**
+     * Returns a copy of the dead-lettered emails, oldest first.
+     *
+     * @return the dead letters currently retained
+     */
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    public EmailMetrics getMetrics() {
+        return new EmailMetrics(queue.size(), sent.sum(), failedBatches.sum(), retried.sum(), deadLettered.sum(),
+                rejected.sum(), sendBatches.sum(), totalSendLatencyNanos.sum(), maxSendLatencyNanos.get());
+    }
+
+    @Override
+    public void writeMetrics(PrometheusWriter writer) {
+        EmailMetrics metrics = getMetrics();
+        writer.gauge("booking_email_queue_depth", "Emails waiting to be sent.", metrics.getQueueDepth())
+                .counter("booking_email_sent_total", "Emails sent.", metrics.getSent())
+                .counter("booking_email_failed_batches_total", "Email batches whose delivery failed.", metrics.getFailedBatches())
+                .counter("booking_email_retried_total", "Email batches retried.", metrics.getRetried())
+                .counter("booking_email_dead_lettered_total", "Emails given up on.", metrics.getDeadLettered())
+                .counter("booking_email_rejected_total", "Emails dead-lettered because the queue was full.", metrics.getRejected())
+                .counter("booking_email_send_batches_total", "Email batches handed to the sender.", metrics.getSendBatches())
+                .counter("booking_email_send_seconds_total", "Time spent sending email batches.", metrics.getTotalSendLatencyNanos() / 1e9)
+                .gauge("booking_email_send_max_seconds", "Longest time spent sending one email batch.", metrics.getMaxSendLatencyNanos() / 1e9);
+    }
+
+    private void runWorker() {
+        List<PendingEmail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEmail first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<PendingEmail> batch) {
+        List<EmailMessage> messages = new ArrayList<>(batch.size());
+        for (PendingEmail email : batch) {
+            messages.add(email.message());
+        }
+        long start = System.nanoTime();
+        try {
+            sender.send(messages);
+            sent.add(messages.size());
+        } catch (Exception e) {
+            failedBatches.increment();
+            logger.warn("Failed to send a batch of {} emails: {}", messages.size(), e.getMessage());
+            for (PendingEmail email : batch) {
+                retryOrDeadLetter(email.nextAttempt(), e.getMessage());
+            }
+        } finally {
+            long latency = System.nanoTime() - start;
+            sendBatches.increment();
+            totalSendLatencyNanos.add(latency);
+            maxSendLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    private void retryOrDeadLetter(PendingEmail email, String reason) {
+        if (email.attempts() >= maxAttempts || !running) {
+            deadLetter(email, reason);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(email.attempts() - 1, 30));
+        retried.increment();
+        // Whoever removes the retry from the map owns it: the scheduled task, stop() or a failed schedule
+        long retryId = nextRetryId.incrementAndGet();
+        scheduledRetries.put(retryId, email);
+        try {
+            retryScheduler.schedule(() -> {
+                PendingEmail scheduled = scheduledRetries.remove(retryId);
+                if (scheduled != null) {
+                    requeue(scheduled);
+                }
+            }, backoff, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            if (scheduledRetries.remove(retryId) != null) {
+                deadLetter(email, reason);
+            }
+        }
+    }
+
+    private void requeue(PendingEmail email) {
+        if (!queue.offer(email)) {
+            rejected.increment();
+            deadLetter(email, QUEUE_FULL_REASON);
+        }
+    }
+
+    private void deadLetter(PendingEmail email, String reason) {
+        deadLettered.increment();
+        synchronized (deadLetters) {
+            if (deadLetterCapacity <= 0) {
+                return;
+            }
+            if (deadLetters.size() == deadLetterCapacity) {
+                deadLetters.removeFirst();
+            }
+            deadLetters.addLast(new DeadLetter(email.message(), email.attempts(), reason, Instant.now()));
+        }
+    }
+
+    private record PendingEmail(EmailMessage message, int attempts) {
+
+        PendingEmail nextAttempt() {
+            return new PendingEmail(message, attempts + 1);
+        }
+    }
+}
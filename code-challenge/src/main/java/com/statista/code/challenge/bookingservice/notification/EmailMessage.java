@@ -0,0 +1,30 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import lombok.Value;
+
+/**
+ * A confirmation email waiting to be delivered by an {@link EmailSender}.
+ */
+@Value
+public class EmailMessage {
+
+    private static final String SUBJECT_PREFIX = "Booking confirmation: ";
+    private static final String BODY_PREFIX = "Your booking has been received: ";
+
+    String bookingId;
+    String recipient;
+    String subject;
+    String body;
+
+    /**
+     * Builds the confirmation email for the given booking.
+     *
+     * @param booking the booking to confirm; must not be {@code null}
+     * @return the confirmation email addressed to the booking's email address
+     */
+    public static EmailMessage confirmationFor(Booking booking) {
+        return new EmailMessage(booking.getBookingId(), booking.getEmail(),
+                SUBJECT_PREFIX + booking.getBookingId(), BODY_PREFIX + booking);
+    }
+}
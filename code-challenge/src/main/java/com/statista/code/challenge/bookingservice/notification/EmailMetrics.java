@@ -0,0 +1,20 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import lombok.Value;
+
+/**
+ * Point-in-time counters of the {@link EmailDispatcher}.
+ */
+@Value
+public class EmailMetrics {
+
+    int queueDepth;
+    long sent;
+    long failedBatches;
+    long retried;
+    long deadLettered;
+    long rejected;
+    long sendBatches;
+    long totalSendLatencyNanos;
+    long maxSendLatencyNanos;
+}
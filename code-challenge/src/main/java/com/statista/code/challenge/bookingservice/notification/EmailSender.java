@@ -0,0 +1,18 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import java.util.List;
+
+/**
+ * Delivers emails on behalf of the {@link EmailDispatcher}. Implementations may block; they are
+ * only ever called from the dispatcher's worker threads, never from a request thread.
+ */
+public interface EmailSender {
+
+    /**
+     * Delivers a batch of emails.
+     *
+     * @param messages the emails to deliver; never {@code null} or empty
+     * @throws Exception if the batch could not be delivered; the dispatcher retries every message of a failed batch
+     */
+    void send(List<EmailMessage> messages) throws Exception;
+}
@@ -0,0 +1,48 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory {@link EmailSender} stand-in for tests. It records every delivered email and can be
+ * told to fail a number of upcoming batches to exercise the dispatcher's retry handling.
+ */
+public class InMemoryEmailSender implements EmailSender {
+
+    private static final String SIMULATED_FAILURE_MESSAGE = "Simulated delivery failure";
+
+    private final List<EmailMessage> sentMessages = new ArrayList<>();
+    private final AtomicInteger failuresRemaining = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    @Override
+    public void send(List<EmailMessage> messages) {
+        batches.incrementAndGet();
+        if (failuresRemaining.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+            throw new IllegalStateException(SIMULATED_FAILURE_MESSAGE);
+        }
+        synchronized (sentMessages) {
+            sentMessages.addAll(messages);
+        }
+    }
+
+    /**
+     * Makes the next {@code count} calls to {@link #send(List)} fail.
+     *
+     * @param count the number of batches to fail; {@link Integer#MAX_VALUE} fails every batch
+     */
+    public void failNextBatches(int count) {
+        failuresRemaining.set(count);
+    }
+
+    public List<EmailMessage> getSentMessages() {
+        synchronized (sentMessages) {
+            return new ArrayList<>(sentMessages);
+        }
+    }
+
+    public int getBatchCount() {
+        return batches.get();
+    }
+}
@@ -0,0 +1,23 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Placeholder {@link EmailSender} that logs each email instead of sending it.
+ */
+@Component
+public class LoggingEmailSender implements EmailSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingEmailSender.class);
+
+    @Override
+    public void send(List<EmailMessage> messages) {
+        for (EmailMessage message : messages) {
+            logger.info("Sending email for booking {} to {}", message.getBookingId(), message.getRecipient());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Durable record of the writes applied to a {@link BookingRepository}, used to rebuild the
+ * repository after a restart.
+ * <p>
+ * The repository appends every insert and update while it holds the lock stripe of the booking,
+ * so the journal order of the writes to one booking matches the order in which they were applied.
+ * It waits for the write to become durable only after releasing the lock, which lets concurrent
+ * writers share a single sync.
+ * <p>
+ * Journals that support checkpoints bound their replay time by periodically writing a snapshot of
+ * the repository and discarding the writes the snapshot covers; see {@link #beginCheckpoint()}.
+ */
+public interface BookingJournal extends Closeable {
+
+    /**
+     * Returned by {@link #beginCheckpoint()} when the journal does not support checkpoints.
+     */
+    long NO_CHECKPOINT = -1L;
+
+    /**
+     * Journal that records nothing, for a purely in-memory repository.
+     */
+    BookingJournal NONE = new BookingJournal() {
+        @Override
+        public long append(long sequence, String bookingId, Booking booking) {
+            return 0L;
+        }
+
+        @Override
+        public void awaitDurable(long position) {
+        }
+
+        @Override
+        public long replay(EntryConsumer consumer) {
+            return 0L;
+        }
+    };
+
+    /**
+     * Appends a write to the journal.
+     *
+     * @param sequence  the insertion sequence number of the booking
+     * @param bookingId the ID the booking is stored under
+     * @param booking   the booking as written
+     * @return the journal position after the write, to be passed to {@link #awaitDurable(long)}
+     */
+    long append(long sequence, String bookingId, Booking booking);
+
+    /**
+     * Blocks until every write up to the given position is durable, as far as the journal's
+     * durability policy requires.
+     *
+     * @param position a position returned by {@link #append(long, String, Booking)}
+     */
+    void awaitDurable(long position);
+
+    /**
+     * Replays the journaled writes in the order they were appended, starting with the contents of
+     * the latest completed checkpoint if there is one.
+     *
+     * @param consumer receives each write
+     * @return the number of writes replayed
+     * @throws IOException if the journal cannot be read
+     */
+    long replay(EntryConsumer consumer) throws IOException;
+
+    /**
+     * Starts a checkpoint. Writes appended after this call are kept in the journal after the
+     * checkpoint completes; writes appended before it may be discarded once the snapshot passed to
+     * {@link #completeCheckpoint(long, SnapshotSource)} covers them.
+     *
+     * @return an identifier of the checkpoint, or {@link #NO_CHECKPOINT} if checkpoints are not supported
+     */
+    default long beginCheckpoint() {
+        return NO_CHECKPOINT;
+    }
+
+    /**
+     * Writes the snapshot of a checkpoint started by {@link #beginCheckpoint()} and discards the
+     * journaled writes it covers.
+     * <p>
+     * The snapshot does not have to be a point-in-time image: it must contain every write applied
+     * before the checkpoint began, and may additionally contain any later writes. Because replay
+     * re-applies the later writes on top of the snapshot in journal order, the restored state is
+     * the same either way.
+     *
+     * @param checkpoint the identifier returned by {@link #beginCheckpoint()}
+     * @param source     the bookings to snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    default void completeCheckpoint(long checkpoint, SnapshotSource source) throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Receives the writes read back from a journal.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+
+        void accept(long sequence, String bookingId, Booking booking);
+    }
+
+    /**
+     * Supplies the bookings to include in a checkpoint snapshot.
+     */
+    @FunctionalInterface
+    interface SnapshotSource {
+
+        void forEach(EntryConsumer consumer);
+    }
+}
@@ -1,22 +1,193 @@
 package com.statista.code.challenge.bookingservice.repository;
 
+import com.statista.code.challenge.bookingservice.metrics.MetricsSource;
+import com.statista.code.challenge.bookingservice.metrics.OperationMetrics;
+import com.statista.code.challenge.bookingservice.metrics.PrometheusWriter;
 import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.model.RollupDimension;
+import com.statista.code.challenge.bookingservice.model.RollupRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Repository class for managing bookings. This class provides methods to add, retrieve,
  * update, and query bookings within an in-memory data structure.
  * <p>
- * The repository uses a {@link LinkedHashMap} to store bookings, ensuring that the
- * insertion order is maintained. This implementation is suitable for applications where
- * data persistence is not a requirement, such as in-memory testing or simple use cases.
+ * Bookings are kept in a {@link BookingStore} whose reads never block; the {@link StorageMode}
+ * selects whether they are held as objects, decomposed into compact columns or serialized off-heap. Writes are
+ * serialized per booking ID through a fixed set of striped locks, which lets writes to
+ * different bookings proceed in parallel while keeping every write to the same booking
+ * atomic. Each booking is assigned a sequence number on first insertion; the sequence is
+ * used to preserve insertion order when listing bookings.
+ * <p>
+ * In {@link WriteMode#SINGLE_WRITER} writers do not apply their writes themselves: they enqueue them on a
+ * {@link WriteRing} and one writer thread applies them in batches, waiting for the journal once per
+ * batch. Reads are unaffected; they see each write once the writer has published it to the store and
+ * indexes. The {@code *Async} methods return a future instead of waiting for the write.
+ * <p>
+ * Every write is numbered. A booking records the number of its last write as its version, and the
+ * repository version counts completed writes, advancing only once a write is visible to every
+ * query, so a result computed after reading the version is never older than that version. Versions restart when the repository is recreated;
+ * {@link #getVersionEpoch()} tells the instances apart. {@link #createBooking(Booking)} and
+ * {@link #updateBooking(String, Booking, long)} only write if the booking's version is the expected one;
+ * a stale version is detected without taking the lock stripe.
+ * <p>
+ * Every write, including those replayed from the journal, is published to a {@link ChangeLog} as a
+ * {@link BookingChange} numbered by the write, with the booking before and after it.
+ * <p>
+ * Every write is appended to a {@link BookingJournal} before it is applied, and the repository
+ * replays the journal when it is created. With {@link BookingJournal#NONE} the repository is
+ * purely in-memory.
+ * <p>
+ * The latency of every query and write is recorded per operation and reported, together with the
+ * sizes of the store and its indexes, through {@link #writeMetrics(PrometheusWriter)}.
  */
 @Repository
-public class BookingRepository {
+public class BookingRepository implements MetricsSource, AutoCloseable {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int DEFAULT_CHANGE_CAPACITY = 65_536;
+    private static final int DEFAULT_WRITE_RING_SIZE = 8_192;
+
+    private enum Operation {
+        ADD_BOOKING, ADD_BOOKINGS, CREATE_BOOKING, CREATE_BOOKINGS, PUT_BOOKING, GET_BOOKING, GET_ALL_BOOKINGS, UPDATE_BOOKING, UPDATE_BOOKING_IF_VERSION,
+        GET_BOOKINGS_BY_DEPARTMENT, GET_DEPARTMENT_PAGE, GET_ALL_CURRENCIES, GET_SUM_BY_CURRENCY,
+        GET_PRICE_SUMMARY_BY_CURRENCY, GET_BOOKINGS_BY_DATE_RANGE, COUNT_BOOKINGS_BY_DATE_RANGE,
+        GET_PRICE_SUMMARIES_BY_DATE_RANGE, GET_ROLLUP, CHECKPOINT
+    }
+
+    // Point operations cheap enough that timing every call would cost a noticeable share of their latency
+    private static final Set<Operation> SAMPLED_OPERATIONS = EnumSet.of(
+            Operation.ADD_BOOKING, Operation.CREATE_BOOKING, Operation.PUT_BOOKING, Operation.GET_BOOKING,
+            Operation.UPDATE_BOOKING, Operation.UPDATE_BOOKING_IF_VERSION, Operation.GET_ALL_CURRENCIES,
+            Operation.GET_SUM_BY_CURRENCY, Operation.GET_PRICE_SUMMARY_BY_CURRENCY);
+
+    private final BookingStore bookings;
+    private final NavigableMap<Long, String> insertionOrder = new ConcurrentSkipListMap<>();
+    private final DepartmentIndex departmentIndex = new DepartmentIndex();
+    private final DateIndex dateIndex = new DateIndex();
+    private final CurrencyTotals currencyTotals = new CurrencyTotals();
+    private final CurrencyRegistry currencyRegistry = new CurrencyRegistry();
+    private final RollupCube rollupCube = new RollupCube();
+    private final AtomicLong sequence = new AtomicLong();
+    private final SequenceWatermark watermark = new SequenceWatermark(sequence, LOCK_STRIPES);
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private final long versionEpoch = new SecureRandom().nextLong() & Long.MAX_VALUE;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    private final BookingJournal journal;
+    private final OperationMetrics<Operation> metrics;
+    private final ChangeLog changeLog;
+    private final WriteRing writeRing;
+    // Highest journal position written by the writer thread of the write ring; only used on that thread
+    private long queuedJournalPosition;
+
+    /**
+     * Creates a purely in-memory repository.
+     */
+    public BookingRepository() {
+        this(BookingJournal.NONE);
+    }
+
+    /**
+     * Creates a repository that journals its writes and restores the bookings recorded in the journal.
+     *
+     * @param journal the journal to replay and append to
+     */
+    public BookingRepository(BookingJournal journal) {
+        this(journal, StorageMode.HEAP);
+    }
 
-    private final Map<String, Booking> bookings = new LinkedHashMap<>();
+    /**
+     * Creates a repository with the given storage layout that journals its writes and restores the
+     * bookings recorded in the journal.
+     *
+     * @param journal     the journal to replay and append to
+     * @param storageMode how the bookings are held in memory
+     */
+    public BookingRepository(BookingJournal journal, StorageMode storageMode) {
+        this(journal, storageMode, true);
+    }
+
+    /**
+     * Creates a repository with the given storage layout that journals its writes and restores the
+     * bookings recorded in the journal.
+     *
+     * @param journal        the journal to replay and append to
+     * @param storageMode    how the bookings are held in memory
+     * @param metricsEnabled whether to record operation latencies
+     */
+    public BookingRepository(BookingJournal journal, StorageMode storageMode, boolean metricsEnabled) {
+        this(journal, storageMode, metricsEnabled, DEFAULT_CHANGE_CAPACITY);
+    }
+
+    /**
+     * Creates a repository with the given storage layout that journals its writes and restores the
+     * bookings recorded in the journal.
+     *
+     * @param journal        the journal to replay and append to
+     * @param storageMode    how the bookings are held in memory
+     * @param metricsEnabled whether to record operation latencies
+     * @param changeCapacity the number of recent changes retained for change stream subscribers
+     */
+    public BookingRepository(BookingJournal journal, StorageMode storageMode, boolean metricsEnabled, int changeCapacity) {
+        this(journal, storageMode, metricsEnabled, changeCapacity, WriteMode.LOCKED, DEFAULT_WRITE_RING_SIZE);
+    }
+
+    /**
+     * Creates a repository with the given storage layout and write path that journals its writes and
+     * restores the bookings recorded in the journal.
+     *
+     * @param journal        the journal to replay and append to
+     * @param storageMode    how the bookings are held in memory
+     * @param metricsEnabled whether to record operation latencies
+     * @param changeCapacity the number of recent changes retained for change stream subscribers
+     * @param writeMode      how writes are applied
+     * @param writeRingSize  the number of writes that can be queued in {@link WriteMode#SINGLE_WRITER}; a power of two
+     */
+    @Autowired
+    public BookingRepository(BookingJournal journal,
+                             @Value("${booking.storage.mode:HEAP}") StorageMode storageMode,
+                             @Value("${booking.metrics.enabled:true}") boolean metricsEnabled,
+                             @Value("${booking.changes.capacity:65536}") int changeCapacity,
+                             @Value("${booking.write.mode:LOCKED}") WriteMode writeMode,
+                             @Value("${booking.write.ring-size:8192}") int writeRingSize) {
+        this.journal = journal;
+        this.metrics = new OperationMetrics<>(Operation.class, metricsEnabled, SAMPLED_OPERATIONS);
+        this.changeLog = new ChangeLog(changeCapacity);
+        this.bookings = switch (storageMode) {
+            case HEAP -> new HeapBookingStore();
+            case COLUMNAR -> new ColumnarBookingStore();
+            case OFF_HEAP -> new OffHeapBookingStore();
+        };
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        try {
+            journal.replay(this::restore);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the booking journal", e);
+        }
+        this.writeRing = writeMode == WriteMode.SINGLE_WRITER
+                ? new WriteRing(writeRingSize, this::applyQueued, this::awaitQueuedDurable) : null;
+    }
 
     /**
      * Adds a new booking to the repository.
@@ -24,7 +195,72 @@ public class BookingRepository {
      * @param booking the booking to be added; must not be {@code null}
      */
     public void addBooking(Booking booking) {
-        bookings.put(booking.getBookingId(), booking);
+        metrics.run(Operation.ADD_BOOKING, () -> store(booking.getBookingId(), booking, 0L));
+    }
+
+    /**
+     * Inserts or replaces the booking stored under the given ID, numbering a new booking with a sequence
+     * number chosen by the caller. This serves repositories that hold one partition of a larger store
+     * whose insertion order is numbered across all partitions. A booking that already exists keeps its
+     * sequence number, as with {@link #updateBooking(String, Booking)}.
+     *
+     * @param bookingId       the ID to store the booking under; must not be {@code null}
+     * @param booking         the booking details; must not be {@code null}
+     * @param bookingSequence the sequence number for a new booking; must be positive and not taken by another booking
+     */
+    public void putBooking(String bookingId, Booking booking, long bookingSequence) {
+        metrics.run(Operation.PUT_BOOKING, () -> store(bookingId, booking, bookingSequence));
+    }
+
+    /**
+     * Adds a new booking unless a booking with the same ID already exists.
+     *
+     * @param booking the booking to be added; must not be {@code null}
+     * @return the version of the new booking, or {@code 0} if a booking with its ID already exists
+     */
+    public long createBooking(Booking booking) {
+        return metrics.call(Operation.CREATE_BOOKING, () -> compareAndStore(booking.getBookingId(), booking, 0L));
+    }
+
+    /**
+     * Adds a batch of bookings to the repository.
+     * <p>
+     * Sequence numbers for the whole batch are reserved up front, so the bookings keep the
+     * order of the batch in listings. The bookings are then grouped by lock stripe and each
+     * stripe is locked once for all of its bookings rather than once per booking. The batch waits
+     * for the journal once, after all bookings have been written. Bookings whose ID already exists,
+     * including repeated IDs within the batch, replace the stored booking as
+     * {@link #addBooking(Booking)} does.
+     *
+     * @param batch the bookings to be added; must not be {@code null} or contain {@code null} elements
+     */
+    public void addBookings(List<Booking> batch) {
+        metrics.run(Operation.ADD_BOOKINGS, () -> storeBatch(batch));
+    }
+
+    /**
+     * Adds the bookings of a batch whose IDs do not exist yet, as {@link #createBooking(Booking)} does
+     * for a single booking, and leaves existing bookings untouched. Where an ID is repeated within the
+     * batch, only its first booking is added. Otherwise the batch is written as by
+     * {@link #addBookings(List)}; the sequence numbers reserved for bookings that are not added stay
+     * unused.
+     *
+     * @param batch the bookings to be added; must not be {@code null} or contain {@code null} elements
+     * @return for each booking of the batch, whether it was added
+     */
+    public boolean[] createBookings(List<Booking> batch) {
+        return metrics.call(Operation.CREATE_BOOKINGS, () -> {
+            boolean[] created = new boolean[batch.size()];
+            if (batch.isEmpty()) {
+                return created;
+            }
+            if (writeRing != null) {
+                await(writeRing.submit(WriteRing.Kind.CREATE_BATCH, null, null, batch, created, 0L));
+            } else {
+                journal.awaitDurable(applyBatch(batch, created));
+            }
+            return created;
+        });
     }
 
     /**
@@ -34,16 +270,65 @@ public class BookingRepository {
      * @return the booking with the specified ID, or {@code null} if no booking with the given ID exists
      */
     public Booking getBooking(String bookingId) {
-        return bookings.get(bookingId);
+        return metrics.call(Operation.GET_BOOKING, () -> find(bookingId));
     }
 
     /**
-     * Retrieves all bookings in the repository.
+     * Retrieves the version of a booking, which increases with every write to it.
      *
-     * @return a collection of all bookings
+     * @param bookingId the ID of the booking; must not be {@code null}
+     * @return the version of the booking, or {@code 0} if no booking with the given ID exists
+     */
+    public long getBookingVersion(String bookingId) {
+        StoredBooking stored = bookings.get(bookingId);
+        return stored != null ? stored.version() : 0L;
+    }
+
+    /**
+     * Retrieves the version of the repository, which increases with every write. Once a version has
+     * been read, every query reflects at least the writes counted by it.
+     *
+     * @return the number of writes completed by this repository instance
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Identifies this repository instance. Versions restart from zero when the repository is
+     * recreated, so they are only comparable between readings with the same epoch.
+     *
+     * @return a random non-negative number chosen when the repository was created
+     */
+    public long getVersionEpoch() {
+        return versionEpoch;
+    }
+
+    /**
+     * Retrieves the log of recent changes, to follow the writes to the repository as they happen.
+     *
+     * @return the change log of this repository instance; its sequences restart with {@link #getVersionEpoch()}
+     */
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Retrieves all bookings in the repository, in insertion order.
+     *
+     * @return a snapshot of all bookings
      */
     public Collection<Booking> getAllBookings() {
-        return bookings.values();
+        return metrics.call(Operation.GET_ALL_BOOKINGS, () -> {
+            List<Booking> result = new ArrayList<>(bookings.size());
+            for (String bookingId : insertionOrder.values()) {
+                Booking booking = find(bookingId);
+                if (booking != null) {
+                    result.add(booking);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        });
     }
 
     /**
@@ -54,51 +339,602 @@ public class BookingRepository {
      * @param booking the updated booking details; must not be {@code null}
      */
     public void updateBooking(String bookingId, Booking booking) {
-        bookings.put(bookingId, booking);
+        metrics.run(Operation.UPDATE_BOOKING, () -> store(bookingId, booking, 0L));
+    }
+
+    /**
+     * Replaces a booking only if it is still at the expected version, so that concurrent writers
+     * cannot overwrite each other's changes unseen.
+     *
+     * @param bookingId       the ID of the booking to update; must not be {@code null}
+     * @param booking         the updated booking details; must not be {@code null}
+     * @param expectedVersion the version the booking must have, as returned by {@link #getBookingVersion(String)}; must be positive
+     * @return the new version of the booking, or {@code 0} if the booking does not exist or has another version
+     */
+    public long updateBooking(String bookingId, Booking booking, long expectedVersion) {
+        return metrics.call(Operation.UPDATE_BOOKING_IF_VERSION,
+                () -> expectedVersion > 0L ? compareAndStore(bookingId, booking, expectedVersion) : 0L);
+    }
+
+    /**
+     * Adds a new booking unless a booking with the same ID already exists, without waiting for the write.
+     * In {@link WriteMode#LOCKED} the booking is written on the calling thread and the future is already complete.
+     *
+     * @param booking the booking to be added; must not be {@code null}
+     * @return a future of the version of the new booking, or of {@code 0} if a booking with its ID already exists
+     */
+    public CompletableFuture<Long> createBookingAsync(Booking booking) {
+        return storeAsync(Operation.CREATE_BOOKING, booking.getBookingId(), booking, true, 0L);
+    }
+
+    /**
+     * Updates an existing booking with new details, or adds it, without waiting for the write.
+     * In {@link WriteMode#LOCKED} the booking is written on the calling thread and the future is already complete.
+     *
+     * @param bookingId the ID of the booking to update; must not be {@code null}
+     * @param booking   the updated booking details; must not be {@code null}
+     * @return a future completed once the booking has been written
+     */
+    public CompletableFuture<Void> updateBookingAsync(String bookingId, Booking booking) {
+        return storeAsync(Operation.UPDATE_BOOKING, bookingId, booking, false, 0L).thenApply(version -> null);
+    }
+
+    /**
+     * Replaces a booking only if it is still at the expected version, without waiting for the write.
+     * In {@link WriteMode#LOCKED} the booking is written on the calling thread and the future is already complete.
+     *
+     * @param bookingId       the ID of the booking to update; must not be {@code null}
+     * @param booking         the updated booking details; must not be {@code null}
+     * @param expectedVersion the version the booking must have, as returned by {@link #getBookingVersion(String)}; must be positive
+     * @return a future of the new version of the booking, or of {@code 0} if the booking does not exist or has another version
+     */
+    public CompletableFuture<Long> updateBookingAsync(String bookingId, Booking booking, long expectedVersion) {
+        return expectedVersion > 0L
+                ? storeAsync(Operation.UPDATE_BOOKING_IF_VERSION, bookingId, booking, true, expectedVersion)
+                : CompletableFuture.completedFuture(0L);
     }
 
     /**
      * Retrieves a list of booking IDs associated with a specific department.
+     * The department name is matched case-insensitively and the IDs are returned in insertion order.
      *
      * @param department the name of the department to filter bookings by; must not be {@code null}
      * @return a list of booking IDs for the specified department
      */
     public List<String> getBookingsByDepartment(String department) {
-        List<String> result = new ArrayList<>();
-        for (Booking booking : bookings.values()) {
-            if (booking.getDepartment().equalsIgnoreCase(department)) {
-                result.add(booking.getBookingId());
-            }
-        }
-        return result;
+        return metrics.call(Operation.GET_BOOKINGS_BY_DEPARTMENT, () -> departmentIndex.bookingIds(department));
+    }
+
+    /**
+     * Retrieves one page of the booking IDs of a department, in insertion order. Pages are addressed
+     * by sequence number rather than offset, so bookings inserted while a client pages through the
+     * department are appended at the end and never shift or repeat the pages already read. A page
+     * ends before the first sequence number whose insertion is still in progress, so a booking that
+     * appears later is never numbered below a page already returned. A booking moved to another
+     * department keeps its sequence number, so it may be missed by a reader who is already past it.
+     *
+     * @param department    the name of the department; matched case-insensitively; must not be {@code null}
+     * @param afterSequence only bookings with a greater sequence number are returned; {@code 0} for the first page
+     * @param limit         the maximum number of booking IDs to return
+     * @return the booking IDs of the page keyed and ordered by their sequence number
+     */
+    public NavigableMap<Long, String> getBookingsByDepartment(String department, long afterSequence, int limit) {
+        return metrics.call(Operation.GET_DEPARTMENT_PAGE, () -> departmentIndex.page(department, afterSequence, watermark.get(), limit));
+    }
+
+    /**
+     * Iterates over the booking IDs of a department in insertion order without copying them.
+     * The iterator is weakly consistent: it may or may not reflect bookings written after it was created.
+     *
+     * @param department the name of the department; matched case-insensitively; must not be {@code null}
+     * @return an iterator over the booking IDs of the department
+     */
+    public Iterator<String> iterateBookingsByDepartment(String department) {
+        return departmentIndex.iterator(department);
     }
 
     /**
      * Retrieves a set of all unique currencies used in the bookings.
      *
-     * @return a set of unique currency codes
+     * @return an immutable set of unique currency codes
      */
     public Set<String> getAllCurrencies() {
-        Set<String> currencies = new HashSet<>();
-        for (Booking booking : bookings.values()) {
-            currencies.add(booking.getCurrency());
-        }
-        return currencies;
+        return metrics.call(Operation.GET_ALL_CURRENCIES, () -> currencyRegistry.currencies());
     }
 
     /**
      * Calculates the total sum of prices for bookings in a specific currency.
+     * The currency code is matched case-insensitively.
      *
      * @param currency the currency code to sum prices for; must not be {@code null}
      * @return the total sum of prices for the specified currency
      */
     public double getSumByCurrency(String currency) {
-        double sum = 0.0;
-        for (Booking booking : bookings.values()) {
-            if (booking.getCurrency().equalsIgnoreCase(currency)) {
-                sum += booking.getPrice();
+        return metrics.call(Operation.GET_SUM_BY_CURRENCY, () -> currencyTotals.summary(currency).getSum().doubleValue());
+    }
+
+    /**
+     * Retrieves the count, exact sum, minimum and maximum price of the bookings in a specific currency.
+     * The currency code is matched case-insensitively.
+     *
+     * @param currency the currency code to summarize; must not be {@code null}
+     * @return the price summary for the specified currency, or {@link PriceSummary#EMPTY} if there are no bookings in it
+     */
+    public PriceSummary getPriceSummaryByCurrency(String currency) {
+        return metrics.call(Operation.GET_PRICE_SUMMARY_BY_CURRENCY, () -> currencyTotals.summary(currency));
+    }
+
+    /**
+     * Retrieves the bookings whose subscription starts between two dates, both inclusive, ordered by
+     * start date and then by insertion. The bookings are looked up through a sorted date index, so
+     * the cost depends on the number of bookings in the range rather than on the size of the repository.
+     *
+     * @param from       the first start date of the range; must not be {@code null}
+     * @param to         the last start date of the range; must not be {@code null}
+     * @param department restricts the bookings to a department, matched case-insensitively; {@code null} for all departments
+     * @return the bookings in the range
+     */
+    public List<Booking> getBookingsByDateRange(LocalDate from, LocalDate to, String department) {
+        return metrics.call(Operation.GET_BOOKINGS_BY_DATE_RANGE, () -> {
+            List<Booking> result = new ArrayList<>();
+            forEachInDateRange(from, to, department, result::add);
+            return result;
+        });
+    }
+
+    /**
+     * Counts the bookings whose subscription starts between two dates, both inclusive.
+     *
+     * @param from       the first start date of the range; must not be {@code null}
+     * @param to         the last start date of the range; must not be {@code null}
+     * @param department restricts the bookings to a department, matched case-insensitively; {@code null} for all departments
+     * @return the number of bookings in the range
+     */
+    public long countBookingsByDateRange(LocalDate from, LocalDate to, String department) {
+        return metrics.call(Operation.COUNT_BOOKINGS_BY_DATE_RANGE, () -> {
+            long[] count = new long[1];
+            forEachInDateRange(from, to, department, booking -> count[0]++);
+            return count[0];
+        });
+    }
+
+    /**
+     * Summarizes the prices of the bookings whose subscription starts between two dates, both
+     * inclusive, per currency.
+     *
+     * @param from       the first start date of the range; must not be {@code null}
+     * @param to         the last start date of the range; must not be {@code null}
+     * @param department restricts the bookings to a department, matched case-insensitively; {@code null} for all departments
+     * @return the price summaries keyed by upper-cased currency code, in ascending order
+     */
+    public SortedMap<String, PriceSummary> getPriceSummariesByDateRange(LocalDate from, LocalDate to, String department) {
+        return metrics.call(Operation.GET_PRICE_SUMMARIES_BY_DATE_RANGE, () -> {
+            Map<String, PriceAccumulator> accumulators = new HashMap<>();
+            forEachInDateRange(from, to, department, booking -> accumulators
+                    .computeIfAbsent(CurrencyTotals.key(booking.getCurrency()), k -> new PriceAccumulator())
+                    .add(booking.getPrice()));
+            SortedMap<String, PriceSummary> summaries = new TreeMap<>();
+            accumulators.forEach((currency, accumulator) -> summaries.put(currency, accumulator.summary()));
+            return summaries;
+        });
+    }
+
+    /**
+     * Summarizes the prices of the bookings grouped by any subset of department, currency and month
+     * of the subscription start date. The summaries come from aggregates maintained on every write,
+     * so the cost of a query does not depend on the number of bookings.
+     *
+     * @param groupBy    the dimensions to group by; rows are always grouped by currency as well, since prices in
+     *                   different currencies cannot be added up, so an empty set yields one total row per currency
+     * @param department restricts the bookings to a department, matched case-insensitively; {@code null} for all departments
+     * @param currency   restricts the bookings to a currency, matched case-insensitively; {@code null} for all currencies
+     * @param fromMonth  the first start month to include; {@code null} for no lower bound
+     * @param toMonth    the last start month to include; {@code null} for no upper bound
+     * @return one row per non-empty group, ordered by department, currency and month
+     */
+    public List<RollupRow> getRollup(Set<RollupDimension> groupBy, String department, String currency,
+                                     YearMonth fromMonth, YearMonth toMonth) {
+        return metrics.call(Operation.GET_ROLLUP, () -> rollupCube.query(groupBy, department, currency, fromMonth, toMonth));
+    }
+
+    /**
+     * Writes a checkpoint of the repository to its journal so that a restart only needs to replay
+     * the writes made since. Writers are not blocked while the snapshot is written; the snapshot is
+     * taken from the live maps after every write journaled before the checkpoint has been applied.
+     */
+    public synchronized void checkpoint() {
+        metrics.run(Operation.CHECKPOINT, () -> writeCheckpoint());
+    }
+
+    /**
+     * Stops the writer thread of {@link WriteMode#SINGLE_WRITER} once the writes already queued have been
+     * applied; later writes fail with an {@link IllegalStateException}. Does nothing in {@link WriteMode#LOCKED}.
+     */
+    @Override
+    public void close() {
+        if (writeRing != null) {
+            writeRing.close();
+        }
+    }
+
+    /**
+     * Reports the latency of every operation and the sizes of the store and its indexes.
+     */
+    @Override
+    public void writeMetrics(PrometheusWriter writer) {
+        writer.gauge("booking_repository_bookings", "Number of stored bookings.", bookings.size());
+        writer.gauge("booking_repository_version", "Number of writes completed since the repository was created.", version.get());
+        writer.gauge("booking_repository_departments", "Number of departments in the department index.", departmentIndex.size());
+        writer.gauge("booking_repository_start_dates", "Number of distinct start dates in the date index.", dateIndex.days());
+        writer.gauge("booking_repository_currencies", "Number of currencies with at least one booking.", currencyRegistry.currencies().size());
+        writer.gauge("booking_repository_latest_change", "Sequence of the latest published change.", changeLog.getLatestSequence());
+        writer.gauge("booking_repository_rollup_cells", "Number of department, currency and month cells in the rollup cube.", rollupCube.size());
+        Map<String, Long> departmentBookings = new TreeMap<>();
+        for (RollupRow row : rollupCube.query(EnumSet.of(RollupDimension.DEPARTMENT), null, null, null, null)) {
+            departmentBookings.merge(row.getDepartment(), row.getSummary().getCount(), Long::sum);
+        }
+        departmentBookings.forEach((department, count) -> writer.gauge("booking_repository_department_bookings",
+                "Number of bookings per department.", count, "department", department));
+        metrics.write(writer, "booking_repository_operation_seconds", "Latency of repository operations.");
+    }
+
+    private void writeCheckpoint() {
+        long checkpoint = journal.beginCheckpoint();
+        if (checkpoint == BookingJournal.NO_CHECKPOINT) {
+            return;
+        }
+        // Writes are journaled before they are applied under their lock stripe; passing through
+        // every stripe once waits for the writes journaled before the checkpoint to be applied.
+        for (Lock lock : locks) {
+            lock.lock();
+            lock.unlock();
+        }
+        try {
+            journal.completeCheckpoint(checkpoint, this::forEachStored);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write a checkpoint of the bookings", e);
+        }
+    }
+
+    /**
+     * Hands every stored booking to the consumer in insertion order.
+     */
+    private void forEachStored(BookingJournal.EntryConsumer consumer) {
+        for (Map.Entry<Long, String> entry : insertionOrder.entrySet()) {
+            StoredBooking stored = bookings.get(entry.getValue());
+            if (stored != null) {
+                consumer.accept(stored.sequence(), entry.getValue(), stored.booking());
+            }
+        }
+    }
+
+    /**
+     * Hands the bookings found in the date index for the range to the consumer. A booking that was
+     * rewritten after the index was read is checked again, so it is only passed on if its current
+     * start date and department still match.
+     */
+    private void forEachInDateRange(LocalDate from, LocalDate to, String department, Consumer<Booking> consumer) {
+        String departmentKey = department != null ? DepartmentIndex.key(department) : null;
+        dateIndex.forEach(from, to, department, bookingId -> {
+            Booking booking = find(bookingId);
+            if (booking != null
+                    && booking.getSubscriptionStartDate() != null
+                    && !booking.getSubscriptionStartDate().isBefore(from)
+                    && !booking.getSubscriptionStartDate().isAfter(to)
+                    && (departmentKey == null || departmentKey.equals(DepartmentIndex.key(booking.getDepartment())))) {
+                consumer.accept(booking);
+            }
+        });
+    }
+
+    private Booking find(String bookingId) {
+        StoredBooking stored = bookings.get(bookingId);
+        return stored != null ? stored.booking() : null;
+    }
+
+    /**
+     * Writes a batch as described in {@link #addBookings(List)}.
+     */
+    private void storeBatch(List<Booking> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (writeRing != null) {
+            await(writeRing.submit(WriteRing.Kind.BATCH, null, null, batch, 0L));
+            return;
+        }
+        journal.awaitDurable(applyBatch(batch, null));
+    }
+
+    /**
+     * Writes a batch, locking each stripe once for all of its bookings. With {@code created} given, a
+     * booking is only written if its ID is absent, which is checked under the stripe lock, and marked
+     * there if it was.
+     *
+     * @return the highest journal position of the writes
+     */
+    private long applyBatch(List<Booking> batch, boolean[] created) {
+        Long mark = watermark.beginBatch();
+        try {
+            return applyBatch(batch, created, sequence.getAndAdd(batch.size()) + 1);
+        } finally {
+            watermark.endBatch(mark);
+        }
+    }
+
+    private long applyBatch(List<Booking> batch, boolean[] created, long firstSequence) {
+        int size = batch.size();
+
+        // Stable counting sort of the batch positions by stripe
+        int[] stripes = new int[size];
+        int[] stripeStart = new int[LOCK_STRIPES + 1];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = stripeOf(batch.get(i).getBookingId());
+            stripeStart[stripes[i] + 1]++;
+        }
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            stripeStart[stripe + 1] += stripeStart[stripe];
+        }
+        int[] positions = new int[size];
+        int[] next = Arrays.copyOf(stripeStart, LOCK_STRIPES);
+        for (int i = 0; i < size; i++) {
+            positions[next[stripes[i]]++] = i;
+        }
+
+        long journalPosition = 0L;
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            int from = stripeStart[stripe];
+            int to = stripeStart[stripe + 1];
+            if (from == to) {
+                continue;
+            }
+            Lock lock = locks[stripe];
+            lock.lock();
+            try {
+                for (int p = from; p < to; p++) {
+                    Booking booking = batch.get(positions[p]);
+                    if (created != null) {
+                        if (bookings.get(booking.getBookingId()) != null) {
+                            continue;
+                        }
+                        created[positions[p]] = true;
+                    }
+                    journalPosition = Math.max(journalPosition,
+                            write(booking.getBookingId(), booking, firstSequence + positions[p], true));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return journalPosition;
+    }
+
+    /**
+     * Inserts or replaces the booking stored under the given ID and waits for the write to become durable.
+     */
+    private void store(String bookingId, Booking booking, long reservedSequence) {
+        if (writeRing != null) {
+            await(writeRing.submit(WriteRing.Kind.STORE, bookingId, booking, null, reservedSequence));
+            return;
+        }
+        journal.awaitDurable(applyStore(bookingId, booking, reservedSequence));
+    }
+
+    /**
+     * Inserts or replaces the booking stored under the given ID while holding the lock stripe that owns
+     * the ID. A reserved sequence number also moves the sequence counter past it, so later insertions
+     * are never numbered below it.
+     *
+     * @return the journal position of the write
+     */
+    private long applyStore(String bookingId, Booking booking, long reservedSequence) {
+        int stripe = stripeOf(bookingId);
+        Lock lock = locks[stripe];
+        lock.lock();
+        try {
+            if (reservedSequence <= 0) {
+                return write(bookingId, booking, 0L, true);
+            }
+            watermark.beginStripe(stripe, reservedSequence);
+            try {
+                sequence.accumulateAndGet(reservedSequence, Math::max);
+                return write(bookingId, booking, reservedSequence, true);
+            } finally {
+                watermark.endStripe(stripe);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces the booking stored under the given ID if its current version, {@code 0} for
+     * an absent booking, equals the expected one. A mismatch read without the lock is a correct answer
+     * at the moment it was read, so a conflicting write is refused without locking; a match is confirmed
+     * under the lock stripe, or by the writer thread, before writing.
+     *
+     * @return the new version of the booking, or {@code 0} if the version did not match
+     */
+    private long compareAndStore(String bookingId, Booking booking, long expectedVersion) {
+        if (getBookingVersion(bookingId) != expectedVersion) {
+            return 0L;
+        }
+        if (writeRing != null) {
+            return await(writeRing.submit(WriteRing.Kind.COMPARE_AND_STORE, bookingId, booking, null, expectedVersion));
+        }
+        long journalPosition;
+        long newVersion;
+        Lock lock = locks[stripeOf(bookingId)];
+        lock.lock();
+        try {
+            if (getBookingVersion(bookingId) != expectedVersion) {
+                return 0L;
+            }
+            journalPosition = write(bookingId, booking, 0L, true);
+            newVersion = bookings.get(bookingId).version();
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitDurable(journalPosition);
+        return newVersion;
+    }
+
+    /**
+     * Runs a write in {@link WriteMode#LOCKED} or enqueues it in {@link WriteMode#SINGLE_WRITER}, recording
+     * its latency once the write has completed.
+     */
+    private CompletableFuture<Long> storeAsync(Operation operation, String bookingId, Booking booking,
+                                               boolean conditional, long expectedVersion) {
+        long start = metrics.start(operation);
+        CompletableFuture<Long> future;
+        try {
+            if (conditional && getBookingVersion(bookingId) != expectedVersion) {
+                future = CompletableFuture.completedFuture(0L);
+            } else if (writeRing != null) {
+                future = writeRing.submit(conditional ? WriteRing.Kind.COMPARE_AND_STORE : WriteRing.Kind.STORE,
+                        bookingId, booking, null, conditional ? expectedVersion : 0L);
+            } else if (conditional) {
+                future = CompletableFuture.completedFuture(compareAndStore(bookingId, booking, expectedVersion));
+            } else {
+                store(bookingId, booking, 0L);
+                future = CompletableFuture.completedFuture(0L);
+            }
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        if (metrics.isEnabled()) {
+            future.whenComplete((result, failure) -> metrics.record(operation, start));
+        }
+        return future;
+    }
+
+    /**
+     * Applies a write taken from the write ring; runs on its writer thread, which is the only thread
+     * writing, so a version check needs no lock to stay valid until the write.
+     *
+     * @return the new version of the booking for a conditional write, {@code 0} otherwise or if the version did not match
+     */
+    private long applyQueued(WriteRing.Slot slot) {
+        return switch (slot.kind) {
+            case STORE -> {
+                queuedJournalPosition = Math.max(queuedJournalPosition, applyStore(slot.bookingId, slot.booking, slot.argument));
+                yield 0L;
             }
+            case COMPARE_AND_STORE -> {
+                if (getBookingVersion(slot.bookingId) != slot.argument) {
+                    yield 0L;
+                }
+                queuedJournalPosition = Math.max(queuedJournalPosition, applyStore(slot.bookingId, slot.booking, 0L));
+                yield bookings.get(slot.bookingId).version();
+            }
+            case BATCH -> {
+                queuedJournalPosition = Math.max(queuedJournalPosition, applyBatch(slot.batch, null));
+                yield 0L;
+            }
+            case CREATE_BATCH -> {
+                queuedJournalPosition = Math.max(queuedJournalPosition, applyBatch(slot.batch, slot.created));
+                yield 0L;
+            }
+        };
+    }
+
+    /**
+     * Waits once per batch of the write ring for its writes to become durable.
+     */
+    private void awaitQueuedDurable() {
+        journal.awaitDurable(queuedJournalPosition);
+    }
+
+    /**
+     * Waits for a write enqueued on the write ring and rethrows its failure as thrown by the writer.
+     */
+    private static long await(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
         }
-        return sum;
+    }
+
+    /**
+     * Applies a write read back from the journal.
+     */
+    private void restore(long bookingSequence, String bookingId, Booking booking) {
+        Lock lock = locks[stripeOf(bookingId)];
+        lock.lock();
+        try {
+            write(bookingId, booking, bookingSequence, false);
+            sequence.accumulateAndGet(bookingSequence, Math::max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces a booking; the caller must hold the lock stripe that owns the ID.
+     * A booking keeps the sequence number of its first insertion. New bookings take the
+     * reserved sequence number if one is given (greater than zero), or the next free one
+     * otherwise. The write is journaled first if requested, and the secondary indexes are
+     * updated and the change published under the same lock before the repository version is advanced.
+     *
+     * @return the journal position of the write, or {@code 0} if it was not journaled
+     */
+    private long write(String bookingId, Booking booking, long reservedSequence, boolean journaled) {
+        StoredBooking previous = bookings.get(bookingId);
+        if (previous != null) {
+            return write(bookingId, booking, previous, previous.sequence(), journaled);
+        }
+        if (reservedSequence > 0) {
+            return write(bookingId, booking, null, reservedSequence, journaled);
+        }
+        int stripe = stripeOf(bookingId);
+        watermark.beginStripe(stripe);
+        try {
+            return write(bookingId, booking, null, sequence.incrementAndGet(), journaled);
+        } finally {
+            watermark.endStripe(stripe);
+        }
+    }
+
+    private long write(String bookingId, Booking booking, StoredBooking previous, long bookingSequence, boolean journaled) {
+        long journalPosition = journaled ? journal.append(bookingSequence, bookingId, booking) : 0L;
+        StoredBooking current = new StoredBooking(bookingSequence, writes.incrementAndGet(), booking);
+        bookings.put(bookingId, current);
+        updateIndexes(bookingId, previous, current);
+        changeLog.publish(BookingChange.of(current.version(), bookingId, previous != null ? previous.booking() : null, booking));
+        // Published only after the write is visible everywhere, so a version never runs ahead of the data
+        version.incrementAndGet();
+        return journalPosition;
+    }
+
+    private void updateIndexes(String bookingId, StoredBooking previous, StoredBooking current) {
+        Booking booking = current.booking();
+        if (previous == null) {
+            insertionOrder.put(current.sequence(), bookingId);
+            departmentIndex.add(booking.getDepartment(), current.sequence(), bookingId);
+            dateIndex.add(booking.getSubscriptionStartDate(), booking.getDepartment(), current.sequence(), bookingId);
+            currencyTotals.add(booking.getCurrency(), booking.getPrice());
+            currencyRegistry.acquire(booking.getCurrency());
+            rollupCube.add(booking);
+        } else {
+            Booking old = previous.booking();
+            departmentIndex.move(old.getDepartment(), booking.getDepartment(), current.sequence(), bookingId);
+            dateIndex.move(old.getSubscriptionStartDate(), old.getDepartment(),
+                    booking.getSubscriptionStartDate(), booking.getDepartment(), current.sequence(), bookingId);
+            currencyTotals.replace(old.getCurrency(), old.getPrice(), booking.getCurrency(), booking.getPrice());
+            currencyRegistry.replace(old.getCurrency(), booking.getCurrency());
+            rollupCube.replace(old, booking);
+        }
+    }
+
+    private static int stripeOf(String bookingId) {
+        int hash = bookingId.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
     }
 }
@@ -0,0 +1,67 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One partition of a {@link ShardedBookingRepository}. A shard owns the bookings whose IDs hash to it
+ * together with their indexes, and answers for those bookings only.
+ * <p>
+ * Every operation is asynchronous and exchanges plain values, so a shard may run in the same JVM, as
+ * {@link LocalBookingShard} does, or on another node behind a remote call. Sequence numbers are chosen
+ * by the sharded repository, which numbers the insertion order across all shards; a shard keeps them
+ * as given so that the results of several shards can be merged in that order.
+ */
+public interface BookingShard {
+
+    /**
+     * @return the name of the shard; stable across restarts, as it determines which bookings the shard owns
+     */
+    String getName();
+
+    /**
+     * Inserts or replaces the booking stored under the given ID. A booking that already exists keeps
+     * its sequence number.
+     *
+     * @param bookingId the ID to store the booking under; must not be {@code null}
+     * @param booking   the booking details; must not be {@code null}
+     * @param sequence  the sequence number for a new booking; must be positive
+     * @return a future completed once the booking is visible to every query of the shard
+     */
+    CompletableFuture<Void> put(String bookingId, Booking booking, long sequence);
+
+    /**
+     * Inserts or replaces several bookings, each stored under its own ID, in the order of their sequence numbers.
+     *
+     * @param bookings the bookings keyed by the sequence number for a new booking; must not be {@code null}
+     * @return a future completed once all bookings are visible to every query of the shard
+     */
+    CompletableFuture<Void> putAll(NavigableMap<Long, Booking> bookings);
+
+    /**
+     * @param bookingId the ID of the booking; must not be {@code null}
+     * @return a future of the booking, or of {@code null} if the shard holds no booking with the ID
+     */
+    CompletableFuture<Booking> get(String bookingId);
+
+    /**
+     * @param department the name of the department; matched case-insensitively; must not be {@code null}
+     * @return a future of the IDs of the department's bookings in this shard, keyed and ordered by sequence number
+     */
+    CompletableFuture<NavigableMap<Long, String>> bookingsByDepartment(String department);
+
+    /**
+     * @return a future of the currency codes used by the bookings in this shard
+     */
+    CompletableFuture<Set<String>> currencies();
+
+    /**
+     * @param currency the currency code; matched case-insensitively; must not be {@code null}
+     * @return a future of the price summary of the bookings in this shard in the currency
+     */
+    CompletableFuture<PriceSummary> priceSummary(String currency);
+}
@@ -0,0 +1,23 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+/**
+ * Primary storage of the bookings held by {@link BookingRepository}, keyed by booking ID.
+ * <p>
+ * Reads may run concurrently with writes and must never block. Writes to one booking ID are
+ * serialized by the repository's lock stripes, but writes to different IDs may run in parallel.
+ */
+interface BookingStore {
+
+    /**
+     * @return the booking stored under the given ID, or {@code null} if there is none
+     */
+    StoredBooking get(String bookingId);
+
+    /**
+     * Inserts or replaces the booking stored under the given ID. The caller holds the lock stripe
+     * that owns the ID.
+     */
+    void put(String bookingId, StoredBooking stored);
+
+    int size();
+}
@@ -0,0 +1,148 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-size ring of the most recent booking changes. A change with sequence {@code s} is stored in
+ * slot {@code s mod capacity}, so writers publish without coordinating with each other or with
+ * readers: publishing is a slot write, a maximum update and unparking the readers waiting for a
+ * change, if there are any. Writers may publish out of order; each reader follows its own
+ * {@link Cursor} through the sequence numbers and recognizes an overwritten slot by its newer sequence.
+ */
+public final class ChangeLog {
+
+    /**
+     * How long a cursor waits for a sequence that has been skipped by later changes before it treats
+     * the sequence as abandoned by a failed write. Writes publish within microseconds of each other.
+     */
+    private static final long ABANDONED_AFTER_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final int capacity;
+    private final AtomicReferenceArray<BookingChange> slots;
+    private final AtomicLong latest = new AtomicLong();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param capacity the number of changes retained, rounded up to a power of two
+     */
+    ChangeLog(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    void publish(BookingChange change) {
+        slots.set(index(change.getSequence()), change);
+        latest.accumulateAndGet(change.getSequence(), Math::max);
+        if (!waiters.isEmpty()) {
+            for (Thread waiter : waiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    /**
+     * @return the highest sequence published so far, or {@code 0} if there are none
+     */
+    public long getLatestSequence() {
+        return latest.get();
+    }
+
+    /**
+     * Opens a cursor positioned after the given sequence. If changes after it are no longer retained,
+     * the cursor starts with a gap.
+     *
+     * @param afterSequence the last sequence the reader has seen; {@code 0} to start with the first change
+     * @return a cursor returning the changes after {@code afterSequence}
+     */
+    public Cursor cursor(long afterSequence) {
+        return new Cursor(Math.max(afterSequence, 0L) + 1);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & (capacity - 1));
+    }
+
+    /**
+     * Reads the changes in sequence order. A cursor is used by one thread at a time.
+     */
+    public final class Cursor {
+
+        private long next;
+        private long stalledSince;
+
+        private Cursor(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Returns the next change, waiting for it to be published if necessary. If the changes the
+         * cursor is positioned at were already overwritten, a {@link BookingChange.Type#GAP} entry
+         * counting them is returned and the cursor moves to the oldest retained change.
+         *
+         * @param timeout the maximum time to wait
+         * @param unit    the unit of the timeout
+         * @return the next change or gap, or {@code null} if none was published in time
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        public BookingChange poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (true) {
+                BookingChange change = slots.get(index(next));
+                if (change != null && change.getSequence() == next) {
+                    next++;
+                    stalledSince = 0L;
+                    return change;
+                }
+                if (change != null && change.getSequence() > next) {
+                    return skipTo(Math.max(next + 1, latest.get() - capacity + 1));
+                }
+                long now = System.nanoTime();
+                if (latest.get() > next) {
+                    // A later change is out but this one is not; give up on it if its write never completes
+                    if (stalledSince == 0L) {
+                        stalledSince = now;
+                    } else if (now - stalledSince > ABANDONED_AFTER_NANOS) {
+                        return skipTo(next + 1);
+                    }
+                }
+                if (now - deadline >= 0) {
+                    return null;
+                }
+                Thread thread = Thread.currentThread();
+                waiters.add(thread);
+                try {
+                    // Publishers write the slot before looking for waiters, so a change published after the read above is seen here
+                    if (slots.get(index(next)) == change) {
+                        LockSupport.parkNanos(this, deadline - now);
+                    }
+                } finally {
+                    waiters.remove(thread);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        /**
+         * @return the sequence of the change the next {@link #poll} returns
+         */
+        public long nextSequence() {
+            return next;
+        }
+
+        private BookingChange skipTo(long sequence) {
+            BookingChange gap = BookingChange.gap(sequence - 1, sequence - next);
+            next = sequence;
+            stalledSince = 0L;
+            return gap;
+        }
+    }
+}
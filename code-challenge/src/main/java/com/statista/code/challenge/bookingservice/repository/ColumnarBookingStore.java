@@ -0,0 +1,170 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link BookingStore} that decomposes bookings into columns of primitives (struct of arrays).
+ * <p>
+ * Every booking ID is assigned a slot on first insertion. Slots live in fixed-size pages, and each
+ * page holds one array per field: the sequence number, version and price as {@code long} and {@code double},
+ * the subscription start date as an {@code int} epoch day, and the currency and department as
+ * {@code int} codes into shared {@link StringDictionary dictionaries}. The description and the email
+ * are kept as bare UTF-8 byte arrays without a {@link String} wrapper, and the booking ID column
+ * reuses the key string when the booking carries the same ID it is stored under. A {@link Booking}
+ * is materialized on every read.
+ * <p>
+ * Pages are never moved, so growing the store only allocates a new page and copies the small page
+ * directory. Updates overwrite a slot in place, guarded by a per-slot sequence lock: the writer
+ * makes the slot version odd while it writes, and a reader retries if the version was odd or
+ * changed while it read the slot.
+ */
+class ColumnarBookingStore implements BookingStore {
+
+    private static final int PAGE_SHIFT = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final VarHandle VERSIONS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final StringDictionary currencies = new StringDictionary();
+    private final StringDictionary departments = new StringDictionary();
+    private volatile Page[] pages = new Page[16];
+
+    @Override
+    public StoredBooking get(String bookingId) {
+        Integer slot = slots.get(bookingId);
+        if (slot == null) {
+            return null;
+        }
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & PAGE_MASK;
+        while (true) {
+            int version = (int) VERSIONS.getAcquire(page.versions, i);
+            if ((version & 1) == 0) {
+                long sequence = page.sequences[i];
+                long bookingVersion = page.bookingVersions[i];
+                String id = page.bookingIds[i];
+                byte[] description = page.descriptions[i];
+                double price = page.prices[i];
+                int currency = page.currencies[i];
+                int date = page.dates[i];
+                byte[] email = page.emails[i];
+                int department = page.departments[i];
+                VarHandle.acquireFence();
+                if ((int) VERSIONS.getVolatile(page.versions, i) == version) {
+                    Booking booking = new Booking(id, decode(description), price, currencies.value(currency),
+                            date == NULL_DATE ? null : LocalDate.ofEpochDay(date), decode(email),
+                            departments.value(department));
+                    return new StoredBooking(sequence, bookingVersion, booking);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the subscription start date does not fit into an {@code int} epoch day
+     */
+    @Override
+    public void put(String bookingId, StoredBooking stored) {
+        Booking booking = stored.booking();
+        int date = epochDay(booking.getSubscriptionStartDate());
+        int currency = currencies.code(booking.getCurrency());
+        int department = departments.code(booking.getDepartment());
+        byte[] description = encode(booking.getDescription());
+        byte[] email = encode(booking.getEmail());
+        String id = bookingId.equals(booking.getBookingId()) ? bookingId : booking.getBookingId();
+
+        Integer existing = slots.get(bookingId);
+        int slot = existing != null ? existing : allocateSlot();
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & PAGE_MASK;
+        int version = page.versions[i];
+        VERSIONS.setOpaque(page.versions, i, version + 1);
+        VarHandle.storeStoreFence();
+        page.sequences[i] = stored.sequence();
+        page.bookingVersions[i] = stored.version();
+        page.bookingIds[i] = id;
+        page.descriptions[i] = description;
+        page.prices[i] = booking.getPrice();
+        page.currencies[i] = currency;
+        page.dates[i] = date;
+        page.emails[i] = email;
+        page.departments[i] = department;
+        VERSIONS.setRelease(page.versions, i, version + 2);
+        if (existing == null) {
+            slots.put(bookingId, slot);
+        }
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    private int allocateSlot() {
+        int slot = nextSlot.getAndIncrement();
+        int pageIndex = slot >>> PAGE_SHIFT;
+        Page[] current = pages;
+        if (pageIndex >= current.length || current[pageIndex] == null) {
+            addPage(pageIndex);
+        }
+        return slot;
+    }
+
+    private synchronized void addPage(int pageIndex) {
+        Page[] current = pages;
+        if (pageIndex < current.length && current[pageIndex] != null) {
+            return;
+        }
+        Page[] grown = pageIndex < current.length ? current.clone() : Arrays.copyOf(current, Math.max(current.length * 2, pageIndex + 1));
+        grown[pageIndex] = new Page();
+        pages = grown;
+    }
+
+    private static int epochDay(LocalDate date) {
+        if (date == null) {
+            return NULL_DATE;
+        }
+        long epochDay = date.toEpochDay();
+        if (epochDay <= NULL_DATE || epochDay > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Subscription start date " + date + " is out of range");
+        }
+        return (int) epochDay;
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String decode(byte[] value) {
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    private static final class Page {
+
+        final int[] versions = new int[PAGE_SIZE];
+        final long[] sequences = new long[PAGE_SIZE];
+        final long[] bookingVersions = new long[PAGE_SIZE];
+        final String[] bookingIds = new String[PAGE_SIZE];
+        final byte[][] descriptions = new byte[PAGE_SIZE][];
+        final double[] prices = new double[PAGE_SIZE];
+        final int[] currencies = new int[PAGE_SIZE];
+        final int[] dates = new int[PAGE_SIZE];
+        final byte[][] emails = new byte[PAGE_SIZE][];
+        final int[] departments = new int[PAGE_SIZE];
+    }
+}
@@ -0,0 +1,91 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Consistent hash ring that assigns keys to nodes. Each node is placed on the ring at a number of
+ * virtual points derived from its name, and a key belongs to the node of the first point at or after
+ * the hash of the key, wrapping around. The points depend only on the names, so the same keys map to
+ * the same nodes across restarts, and adding or removing a node only moves the keys of the arcs it
+ * gains or loses, about {@code 1/n} of them.
+ * <p>
+ * The ring is immutable; a lookup is a binary search over a sorted array of points.
+ */
+class ConsistentHashRing<T> {
+
+    static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] points;
+    private final List<T> owners;
+
+    /**
+     * @param nodes        the nodes of the ring; must not be empty and their names must be distinct
+     * @param nameOf       returns the name of a node, which determines its points
+     * @param virtualNodes the number of points per node
+     */
+    ConsistentHashRing(List<T> nodes, Function<T, String> nameOf, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A ring needs at least one node and one point per node");
+        }
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        int[] nodeOf = new int[size];
+        for (int n = 0; n < nodes.size(); n++) {
+            String name = nameOf.apply(nodes.get(n));
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[n * virtualNodes + v] = hash(name + '#' + v);
+                nodeOf[n * virtualNodes + v] = n;
+            }
+        }
+
+        // Sort the points, carrying their nodes along; ties are broken by node order to stay deterministic
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> hashes[a] != hashes[b] ? Long.compare(hashes[a], hashes[b]) : Integer.compare(nodeOf[a], nodeOf[b]));
+        this.points = new long[size];
+        this.owners = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners.add(nodes.get(nodeOf[order[i]]));
+        }
+    }
+
+    /**
+     * @param key the key to look up; must not be {@code null}
+     * @return the node that owns the key
+     */
+    T nodeFor(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners.get(index < points.length ? index : 0);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, followed by the MurmurHash3 finalizer so that similar keys,
+     * such as consecutive IDs, spread over the whole ring.
+     */
+    static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
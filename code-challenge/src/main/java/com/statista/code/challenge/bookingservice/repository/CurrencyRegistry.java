@@ -0,0 +1,58 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference-counted set of the currency codes in use. {@link BookingRepository} increments a
+ * currency when a booking starts using it and decrements it when the booking is moved to a
+ * different currency.
+ * <p>
+ * Readers get an immutable snapshot that is only rebuilt when a currency appears or disappears,
+ * so listing the currencies does not allocate in the steady state.
+ */
+class CurrencyRegistry {
+
+    private final Map<String, Long> references = new ConcurrentHashMap<>();
+    private volatile Set<String> snapshot = Set.of();
+
+    void acquire(String currency) {
+        if (references.merge(currency, 1L, Long::sum) == 1L) {
+            rebuildSnapshot();
+        }
+    }
+
+    void release(String currency) {
+        boolean[] removed = new boolean[1];
+        references.computeIfPresent(currency, (key, count) -> {
+            if (count == 1L) {
+                removed[0] = true;
+                return null;
+            }
+            return count - 1;
+        });
+        if (removed[0]) {
+            rebuildSnapshot();
+        }
+    }
+
+    void replace(String oldCurrency, String newCurrency) {
+        if (!oldCurrency.equals(newCurrency)) {
+            acquire(newCurrency);
+            release(oldCurrency);
+        }
+    }
+
+    Set<String> currencies() {
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the snapshot from the current reference counts. Rebuilds are serialized so that
+     * the snapshot written last always reflects every change that triggered a rebuild.
+     */
+    private synchronized void rebuildSnapshot() {
+        snapshot = Set.copyOf(references.keySet());
+    }
+}
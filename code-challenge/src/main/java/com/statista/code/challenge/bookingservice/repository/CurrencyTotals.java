@@ -0,0 +1,50 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-currency price aggregates, keyed by the upper-cased currency code. The aggregates are
+ * maintained incrementally by {@link BookingRepository} on every write, so totals are read
+ * from a few counters instead of summing over all bookings.
+ */
+class CurrencyTotals {
+
+    private final Map<String, PriceAggregate> totals = new ConcurrentHashMap<>();
+
+    static String key(String currency) {
+        return currency.toUpperCase(Locale.ROOT);
+    }
+
+    void add(String currency, double price) {
+        totals.computeIfAbsent(key(currency), k -> new PriceAggregate()).add(BigDecimal.valueOf(price));
+    }
+
+    void remove(String currency, double price) {
+        PriceAggregate aggregate = totals.get(key(currency));
+        if (aggregate != null) {
+            aggregate.remove(BigDecimal.valueOf(price));
+        }
+    }
+
+    /**
+     * Moves a price from one currency aggregate to another, skipping the work when neither the
+     * currency nor the price changed.
+     */
+    void replace(String oldCurrency, double oldPrice, String newCurrency, double newPrice) {
+        if (oldPrice == newPrice && key(oldCurrency).equals(key(newCurrency))) {
+            return;
+        }
+        remove(oldCurrency, oldPrice);
+        add(newCurrency, newPrice);
+    }
+
+    PriceSummary summary(String currency) {
+        PriceAggregate aggregate = totals.get(key(currency));
+        return aggregate != null ? aggregate.summary() : PriceSummary.EMPTY;
+    }
+}
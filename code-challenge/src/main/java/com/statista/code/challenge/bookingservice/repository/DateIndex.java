@@ -0,0 +1,92 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Secondary index from subscription start date to the IDs of the bookings starting on that date,
+ * both over all bookings and per case-normalized department. Dates are keyed by epoch day and each
+ * day holds its bookings ordered by insertion sequence, so a range query seeks to the first day in
+ * O(log n) and then only visits the bookings in the range.
+ * <p>
+ * Like {@link DepartmentIndex}, the index is updated by {@link BookingRepository} while it holds
+ * the lock stripe of the affected booking. Bookings without a start date are not indexed. Days are
+ * kept once created, even when their last booking moves away; there is at most one entry per
+ * distinct date.
+ */
+class DateIndex {
+
+    private final NavigableMap<Long, NavigableMap<Long, String>> all = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<Long, NavigableMap<Long, String>>> departments = new ConcurrentHashMap<>();
+
+    void add(LocalDate date, String department, long sequence, String bookingId) {
+        if (date == null) {
+            return;
+        }
+        add(all, date, sequence, bookingId);
+        add(departments.computeIfAbsent(DepartmentIndex.key(department), k -> new ConcurrentSkipListMap<>()),
+                date, sequence, bookingId);
+    }
+
+    void remove(LocalDate date, String department, long sequence) {
+        if (date == null) {
+            return;
+        }
+        remove(all, date, sequence);
+        NavigableMap<Long, NavigableMap<Long, String>> days = departments.get(DepartmentIndex.key(department));
+        if (days != null) {
+            remove(days, date, sequence);
+        }
+    }
+
+    /**
+     * Moves a booking to a new date and department if either differs.
+     */
+    void move(LocalDate fromDate, String fromDepartment, LocalDate toDate, String toDepartment,
+              long sequence, String bookingId) {
+        boolean sameDate = fromDate == null ? toDate == null : fromDate.equals(toDate);
+        if (!sameDate || !DepartmentIndex.key(fromDepartment).equals(DepartmentIndex.key(toDepartment))) {
+            remove(fromDate, fromDepartment, sequence);
+            add(toDate, toDepartment, sequence, bookingId);
+        }
+    }
+
+    /**
+     * Hands the IDs of the bookings starting between {@code from} and {@code to}, both inclusive, to
+     * the consumer, ordered by date and then by insertion. The traversal is weakly consistent.
+     *
+     * @param department restricts the bookings to a department if not {@code null}
+     */
+    void forEach(LocalDate from, LocalDate to, String department, Consumer<String> consumer) {
+        NavigableMap<Long, NavigableMap<Long, String>> days = department == null
+                ? all : departments.get(DepartmentIndex.key(department));
+        if (days == null) {
+            return;
+        }
+        for (NavigableMap<Long, String> day : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            day.values().forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns the number of distinct start dates that have been indexed.
+     */
+    int days() {
+        return all.size();
+    }
+
+    private static void add(NavigableMap<Long, NavigableMap<Long, String>> days, LocalDate date, long sequence, String bookingId) {
+        days.computeIfAbsent(date.toEpochDay(), k -> new ConcurrentSkipListMap<>()).put(sequence, bookingId);
+    }
+
+    private static void remove(NavigableMap<Long, NavigableMap<Long, String>> days, LocalDate date, long sequence) {
+        NavigableMap<Long, String> day = days.get(date.toEpochDay());
+        if (day != null) {
+            day.remove(sequence);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary index from a case-normalized department name to the IDs of the bookings in that
+ * department. Within a department, IDs are ordered by their insertion sequence, so a lookup
+ * returns bookings in the same order as the repository listing and costs O(result size).
+ * <p>
+ * The index is updated by {@link BookingRepository} while it holds the lock stripe of the
+ * affected booking, so a single booking is never indexed under two departments at once.
+ */
+class DepartmentIndex {
+
+    private final Map<String, NavigableMap<Long, String>> departments = new ConcurrentHashMap<>();
+
+    /**
+     * Normalizes a department name to the key used by this index.
+     */
+    static String key(String department) {
+        return department.toLowerCase(Locale.ROOT);
+    }
+
+    void add(String department, long sequence, String bookingId) {
+        departments.computeIfAbsent(key(department), k -> new ConcurrentSkipListMap<>()).put(sequence, bookingId);
+    }
+
+    void remove(String department, long sequence) {
+        NavigableMap<Long, String> bookingIds = departments.get(key(department));
+        if (bookingIds != null) {
+            bookingIds.remove(sequence);
+        }
+    }
+
+    /**
+     * Moves a booking from one department to another if the normalized names differ.
+     */
+    void move(String fromDepartment, String toDepartment, long sequence, String bookingId) {
+        if (!key(fromDepartment).equals(key(toDepartment))) {
+            remove(fromDepartment, sequence);
+            add(toDepartment, sequence, bookingId);
+        }
+    }
+
+    /**
+     * Returns the number of departments that have been indexed, including departments whose bookings have all moved away.
+     */
+    int size() {
+        return departments.size();
+    }
+
+    List<String> bookingIds(String department) {
+        NavigableMap<Long, String> bookingIds = departments.get(key(department));
+        return bookingIds != null ? new ArrayList<>(bookingIds.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Returns up to {@code limit} bookings of the department with a sequence number greater than
+     * {@code afterSequence} and at most {@code upToSequence}, keyed and ordered by sequence number.
+     */
+    NavigableMap<Long, String> page(String department, long afterSequence, long upToSequence, int limit) {
+        NavigableMap<Long, String> page = new TreeMap<>();
+        NavigableMap<Long, String> bookingIds = departments.get(key(department));
+        if (bookingIds != null && upToSequence > afterSequence) {
+            Iterator<Map.Entry<Long, String>> entries =
+                    bookingIds.subMap(afterSequence, false, upToSequence, true).entrySet().iterator();
+            while (page.size() < limit && entries.hasNext()) {
+                Map.Entry<Long, String> entry = entries.next();
+                page.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the department's booking IDs in insertion order.
+     * It reflects the bookings at some point at or after its creation and never fails on
+     * concurrent writes.
+     */
+    Iterator<String> iterator(String department) {
+        NavigableMap<Long, String> bookingIds = departments.get(key(department));
+        return bookingIds != null ? bookingIds.values().iterator() : Collections.emptyIterator();
+    }
+}
@@ -0,0 +1,27 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link BookingStore} that keeps every booking as the object it was written with.
+ */
+class HeapBookingStore implements BookingStore {
+
+    private final Map<String, StoredBooking> bookings = new ConcurrentHashMap<>();
+
+    @Override
+    public StoredBooking get(String bookingId) {
+        return bookings.get(bookingId);
+    }
+
+    @Override
+    public void put(String bookingId, StoredBooking stored) {
+        bookings.put(bookingId, stored);
+    }
+
+    @Override
+    public int size() {
+        return bookings.size();
+    }
+}
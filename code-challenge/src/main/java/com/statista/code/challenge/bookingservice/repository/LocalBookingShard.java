@@ -0,0 +1,106 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A {@link BookingShard} held in this JVM by its own {@link BookingRepository}, with its own store and indexes.
+ * <p>
+ * All writes of the shard are applied in order by a single writer thread, so the repository's lock
+ * stripes are never contended and a caller never waits for another caller's write. Point reads are
+ * answered on the calling thread, since the repository's reads never block; queries that scan an index
+ * run on the read executor, so the shards of a scatter-gather query work on them in parallel.
+ */
+public class LocalBookingShard implements BookingShard, AutoCloseable {
+
+    private static final String WRITER_THREAD_PREFIX = "booking-shard-";
+
+    private final String name;
+    private final BookingRepository repository;
+    private final ExecutorService writer;
+    private final Executor readExecutor;
+
+    /**
+     * Creates an empty in-memory shard whose queries run on the common fork-join pool.
+     *
+     * @param name the name of the shard
+     */
+    public LocalBookingShard(String name) {
+        this(name, StorageMode.HEAP, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an empty in-memory shard.
+     *
+     * @param name         the name of the shard
+     * @param storageMode  how the bookings of the shard are held in memory
+     * @param readExecutor the executor that runs the queries scanning an index
+     */
+    public LocalBookingShard(String name, StorageMode storageMode, Executor readExecutor) {
+        this.name = name;
+        this.repository = new BookingRepository(BookingJournal.NONE, storageMode, false);
+        this.readExecutor = readExecutor;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, WRITER_THREAD_PREFIX + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String bookingId, Booking booking, long sequence) {
+        return CompletableFuture.runAsync(() -> repository.putBooking(bookingId, booking, sequence), writer);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(NavigableMap<Long, Booking> bookings) {
+        return CompletableFuture.runAsync(() -> {
+            for (Map.Entry<Long, Booking> entry : bookings.entrySet()) {
+                repository.putBooking(entry.getValue().getBookingId(), entry.getValue(), entry.getKey());
+            }
+        }, writer);
+    }
+
+    @Override
+    public CompletableFuture<Booking> get(String bookingId) {
+        return CompletableFuture.completedFuture(repository.getBooking(bookingId));
+    }
+
+    @Override
+    public CompletableFuture<NavigableMap<Long, String>> bookingsByDepartment(String department) {
+        return CompletableFuture.supplyAsync(
+                () -> repository.getBookingsByDepartment(department, 0L, Integer.MAX_VALUE), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> currencies() {
+        return CompletableFuture.completedFuture(repository.getAllCurrencies());
+    }
+
+    @Override
+    public CompletableFuture<PriceSummary> priceSummary(String currency) {
+        return CompletableFuture.completedFuture(repository.getPriceSummaryByCurrency(currency));
+    }
+
+    /**
+     * Stops the writer thread once the writes already submitted have been applied.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,410 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * {@link BookingStore} that keeps serialized bookings outside the Java heap, so that the number of
+ * stored bookings does not add to the work of the garbage collector.
+ * <p>
+ * Records are appended to an arena of direct byte buffers (chunks) and located through an
+ * open-addressing hash table, itself a direct buffer, keyed by booking ID. Each table slot holds
+ * the record address and the hash of its key; the key is compared against the record on a hash
+ * match. An update appends a new record and swaps the slot's address, so a record is never changed
+ * once written. Readers do not lock: a writer publishes a slot address with release semantics
+ * only after the record and the hash are written.
+ * <p>
+ * Writes are serialized by the store, but a record is encoded before the lock is taken, so the lock
+ * only covers the table probe and the copy into the arena. Superseded records are reclaimed
+ * incrementally: once the dead bytes outweigh the live ones, a write moves the live records of the
+ * chunk with the most dead bytes to the end of the arena and frees that chunk. A write therefore
+ * pauses for at most one chunk's live records, and compaction needs at most one spare chunk of
+ * direct memory rather than a second arena. Growing the table and reusing a freed chunk's index both
+ * publish a new {@link State}. A reader that finds the state replaced, or the chunk of an address
+ * freed, while it looks a booking up starts over; buffers it already holds stay valid until the
+ * garbage collector frees them.
+ * <p>
+ * Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size.
+ * A freed chunk's memory is returned once the garbage collector has reclaimed its buffer.
+ */
+class OffHeapBookingStore implements BookingStore {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final int MAX_CHUNKS = 4096;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final int SLOT_SIZE = 16;
+    private static final int HASH_OFFSET = 8;
+    private static final int MAX_LOAD_PERCENT = 60;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES + Long.BYTES + Double.BYTES + Long.BYTES;
+    private static final int SAME_AS_KEY = -2;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final VarHandle ADDRESSES = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final StoredBooking RETRY = new StoredBooking(0L, null);
+
+    private final int chunkSize;
+    private volatile State state;
+    private volatile int size;
+
+    // Written only while holding the store's monitor
+    private final int[] chunkEnd = new int[MAX_CHUNKS];
+    private final int[] chunkLiveBytes = new int[MAX_CHUNKS];
+    private final Deque<Integer> freeChunks = new ArrayDeque<>();
+    private int chunkCount;
+    private int tail = -1;
+    private long liveBytes;
+    private long deadBytes;
+
+    OffHeapBookingStore() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    OffHeapBookingStore(int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.state = new State(allocate(INITIAL_CAPACITY * SLOT_SIZE), INITIAL_CAPACITY - 1, new ByteBuffer[MAX_CHUNKS]);
+    }
+
+    @Override
+    public StoredBooking get(String bookingId) {
+        byte[] key = bookingId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bookingId);
+        StoredBooking found;
+        do {
+            found = find(state, bookingId, key, hash);
+        } while (found == RETRY);
+        return found;
+    }
+
+    /**
+     * Looks a booking up in the given state.
+     *
+     * @return the booking, {@code null} if there is none, or {@link #RETRY} if the state was replaced or
+     * the chunk of the booking's address freed during the lookup
+     */
+    private StoredBooking find(State current, String bookingId, byte[] key, int hash) {
+        for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+            long address = (long) ADDRESSES.getAcquire(current.table, slot * SLOT_SIZE);
+            if (address == 0L) {
+                return null;
+            }
+            if (current.table.getInt(slot * SLOT_SIZE + HASH_OFFSET) == hash) {
+                // A chunk index is only reused in a new state, so while the state is unchanged the
+                // chunk found under an address is the one the address was written into
+                ByteBuffer chunk = chunk(current, address);
+                if (chunk == null || state != current) {
+                    return RETRY;
+                }
+                if (keyMatches(chunk, address, key)) {
+                    return read(chunk, address, bookingId);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the serialized booking does not fit into an arena chunk
+     */
+    @Override
+    public void put(String bookingId, StoredBooking stored) {
+        byte[] record = encode(bookingId, stored);
+        if (record.length > chunkSize) {
+            throw new IllegalArgumentException("Booking " + bookingId + " is too large for the off-heap store");
+        }
+        byte[] key = bookingId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bookingId);
+        synchronized (this) {
+            put(record, key, hash);
+        }
+    }
+
+    private void put(byte[] record, byte[] key, int hash) {
+        State current = state;
+        int slot = hash & current.mask;
+        long address;
+        while ((address = current.table.getLong(slot * SLOT_SIZE)) != 0L) {
+            if (current.table.getInt(slot * SLOT_SIZE + HASH_OFFSET) == hash && keyMatches(chunk(current, address), address, key)) {
+                int previousLength = chunk(current, address).getInt(offset(address));
+                ADDRESSES.setRelease(current.table, slot * SLOT_SIZE, append(record));
+                chunkLiveBytes[chunkIndex(address)] -= previousLength;
+                liveBytes += record.length - previousLength;
+                deadBytes += previousLength;
+                if (deadBytes > liveBytes && deadBytes > chunkSize) {
+                    compactOneChunk();
+                }
+                return;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        if ((long) (size + 1) * 100 > (long) MAX_CAPACITY * MAX_LOAD_PERCENT) {
+            throw new IllegalStateException("Off-heap booking store is full");
+        }
+        long recordAddress = append(record);
+        current.table.putInt(slot * SLOT_SIZE + HASH_OFFSET, hash);
+        ADDRESSES.setRelease(current.table, slot * SLOT_SIZE, recordAddress);
+        liveBytes += record.length;
+        size++;
+        if ((long) size * 100 > (long) (current.mask + 1) * MAX_LOAD_PERCENT && current.mask + 1 < MAX_CAPACITY) {
+            State latest = state;
+            state = new State(rehash(latest, (latest.mask + 1) * 2), (latest.mask + 1) * 2 - 1, latest.chunks);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the record into the arena, starting a new chunk if the current one is full.
+     *
+     * @return the address of the record
+     */
+    private long append(byte[] record) {
+        if (tail < 0 || chunkEnd[tail] + record.length > chunkSize) {
+            tail = newChunk();
+        }
+        int offset = chunkEnd[tail];
+        state.chunks[tail].put(offset, record);
+        chunkEnd[tail] = offset + record.length;
+        chunkLiveBytes[tail] += record.length;
+        return address(tail, offset);
+    }
+
+    /**
+     * Allocates a chunk under a freed index if there is one, publishing a new state so that readers of
+     * the old one cannot mistake the new chunk for the freed one, and under the next unused index otherwise.
+     *
+     * @return the index of the chunk
+     */
+    private int newChunk() {
+        ByteBuffer chunk = allocate(chunkSize);
+        Integer free = freeChunks.poll();
+        if (free != null) {
+            State current = state;
+            ByteBuffer[] chunks = current.chunks.clone();
+            chunks[free] = chunk;
+            state = new State(current.table, current.mask, chunks);
+            return free;
+        }
+        if (chunkCount == MAX_CHUNKS) {
+            throw new IllegalStateException("Off-heap booking store is full");
+        }
+        state.chunks[chunkCount] = chunk;
+        return chunkCount++;
+    }
+
+    private ByteBuffer rehash(State current, int capacity) {
+        ByteBuffer table = allocate(capacity * SLOT_SIZE);
+        int mask = capacity - 1;
+        for (int slot = 0; slot <= current.mask; slot++) {
+            long address = current.table.getLong(slot * SLOT_SIZE);
+            if (address != 0L) {
+                int hash = current.table.getInt(slot * SLOT_SIZE + HASH_OFFSET);
+                int target = hash & mask;
+                while (table.getLong(target * SLOT_SIZE) != 0L) {
+                    target = (target + 1) & mask;
+                }
+                table.putLong(target * SLOT_SIZE, address);
+                table.putInt(target * SLOT_SIZE + HASH_OFFSET, hash);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Moves the live records of the chunk with the most dead bytes, other than the one being appended
+     * to, to the end of the arena and frees the chunk. A record is live if the table still points to
+     * it; it is found by probing from the hash of its key.
+     */
+    private void compactOneChunk() {
+        int victim = -1;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (chunk != tail && state.chunks[chunk] != null
+                    && (victim < 0 || chunkEnd[chunk] - chunkLiveBytes[chunk] > chunkEnd[victim] - chunkLiveBytes[victim])) {
+                victim = chunk;
+            }
+        }
+        if (victim < 0) {
+            return;
+        }
+        ByteBuffer chunk = state.chunks[victim];
+        for (int offset = 0; offset < chunkEnd[victim]; ) {
+            int length = chunk.getInt(offset);
+            long address = address(victim, offset);
+            int slot = slotOf(state, address, hash(getString(chunk, offset + RECORD_HEADER_SIZE)));
+            if (slot >= 0) {
+                byte[] record = new byte[length];
+                chunk.get(offset, record);
+                ADDRESSES.setRelease(state.table, slot * SLOT_SIZE, append(record));
+            }
+            offset += length;
+        }
+        deadBytes -= chunkEnd[victim] - chunkLiveBytes[victim];
+        state.chunks[victim] = null;
+        chunkEnd[victim] = 0;
+        chunkLiveBytes[victim] = 0;
+        freeChunks.push(victim);
+    }
+
+    /**
+     * @return the slot pointing to the given address, or {@code -1} if the record there is superseded
+     */
+    private static int slotOf(State current, long address, int hash) {
+        for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+            long slotAddress = current.table.getLong(slot * SLOT_SIZE);
+            if (slotAddress == 0L) {
+                return -1;
+            }
+            if (slotAddress == address) {
+                return slot;
+            }
+        }
+    }
+
+    private static byte[] encode(String bookingId, StoredBooking stored) {
+        Booking booking = stored.booking();
+        byte[] key = bookingId.getBytes(StandardCharsets.UTF_8);
+        byte[] id = bookingId.equals(booking.getBookingId()) ? null : utf8(booking.getBookingId());
+        byte[] description = utf8(booking.getDescription());
+        byte[] currency = utf8(booking.getCurrency());
+        byte[] email = utf8(booking.getEmail());
+        byte[] department = utf8(booking.getDepartment());
+        int length = RECORD_HEADER_SIZE + 6 * Integer.BYTES + key.length + lengthOf(id) + lengthOf(description)
+                + lengthOf(currency) + lengthOf(email) + lengthOf(department);
+
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.nativeOrder());
+        buffer.putInt(length);
+        buffer.putLong(stored.sequence());
+        buffer.putLong(stored.version());
+        buffer.putDouble(booking.getPrice());
+        LocalDate date = booking.getSubscriptionStartDate();
+        buffer.putLong(date == null ? NULL_DATE : date.toEpochDay());
+        putBytes(buffer, key);
+        if (id == null && booking.getBookingId() != null) {
+            buffer.putInt(SAME_AS_KEY);
+        } else {
+            putBytes(buffer, id);
+        }
+        putBytes(buffer, description);
+        putBytes(buffer, currency);
+        putBytes(buffer, email);
+        putBytes(buffer, department);
+        return buffer.array();
+    }
+
+    private static StoredBooking read(ByteBuffer chunk, long address, String bookingId) {
+        int offset = offset(address) + Integer.BYTES;
+        long sequence = chunk.getLong(offset);
+        long version = chunk.getLong(offset + Long.BYTES);
+        double price = chunk.getDouble(offset + 2 * Long.BYTES);
+        long epochDay = chunk.getLong(offset + 2 * Long.BYTES + Double.BYTES);
+        int position = offset - Integer.BYTES + RECORD_HEADER_SIZE;
+        position += Integer.BYTES + chunk.getInt(position);
+
+        String id;
+        int idLength = chunk.getInt(position);
+        if (idLength == SAME_AS_KEY) {
+            id = bookingId;
+            position += Integer.BYTES;
+        } else {
+            id = getString(chunk, position);
+            position += Integer.BYTES + Math.max(idLength, 0);
+        }
+        String[] fields = new String[4];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = getString(chunk, position);
+            position += Integer.BYTES + Math.max(chunk.getInt(position), 0);
+        }
+        Booking booking = new Booking(id, fields[0], price, fields[1],
+                epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay), fields[2], fields[3]);
+        return new StoredBooking(sequence, version, booking);
+    }
+
+    private static boolean keyMatches(ByteBuffer chunk, long address, byte[] key) {
+        int position = offset(address) + RECORD_HEADER_SIZE;
+        if (chunk.getInt(position) != key.length) {
+            return false;
+        }
+        position += Integer.BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(position + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getString(ByteBuffer chunk, int position) {
+        int length = chunk.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        chunk.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static int hash(String bookingId) {
+        int hash = bookingId.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Addresses are offset by one chunk so that zero can mark an empty slot.
+     */
+    private static long address(int chunk, int offset) {
+        return ((long) (chunk + 1) << 32) | offset;
+    }
+
+    private static ByteBuffer chunk(State current, long address) {
+        return current.chunks[chunkIndex(address)];
+    }
+
+    private static int chunkIndex(long address) {
+        return (int) (address >>> 32) - 1;
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * A hash table together with the arena its addresses point into. Chunks are added to the arena
+     * under a new index, and freed, in place; a new chunk is stored before any address pointing into
+     * it is published. An index is only ever reused in the chunks of a new state.
+     */
+    private record State(ByteBuffer table, int mask, ByteBuffer[] chunks) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+
+import java.math.BigDecimal;
+
+/**
+ * Single-use price statistics for a group of bookings collected by one query. Unlike
+ * {@link PriceAggregate}, prices can only be added, so min and max are tracked directly and
+ * nothing is published until {@link #summary()} is called.
+ */
+class PriceAccumulator {
+
+    private BigDecimal sum = BigDecimal.ZERO;
+    private BigDecimal min;
+    private BigDecimal max;
+    private long count;
+
+    void add(double price) {
+        BigDecimal value = BigDecimal.valueOf(price);
+        sum = sum.add(value);
+        if (min == null || value.compareTo(min) < 0) {
+            min = value;
+        }
+        if (max == null || value.compareTo(max) > 0) {
+            max = value;
+        }
+        count++;
+    }
+
+    PriceSummary summary() {
+        return count == 0 ? PriceSummary.EMPTY : new PriceSummary(count, sum, min, max);
+    }
+}
@@ -0,0 +1,94 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Running price statistics (count, sum, min and max) for a group of bookings.
+ * <p>
+ * Prices are added when a booking enters the group and removed when it leaves it or its price
+ * changes. Count and sum are kept in striped cells, like a {@link java.util.concurrent.atomic.LongAdder}:
+ * each writer updates the cell chosen by its thread, so concurrent writers rarely share a lock, and a
+ * read adds the cells up. Cells are created on first use, up to one per processor. The sum is kept as
+ * a {@link BigDecimal} so totals do not drift.
+ * <p>
+ * Min and max must stay correct after removals, so the prices are also held in a counted
+ * {@link ConcurrentSkipListMap}, read only when a summary is taken. This costs O(log d) per write,
+ * where d is the number of distinct prices in the group, and one map entry per distinct price.
+ * <p>
+ * A summary taken while writes are in progress may include some of them in one statistic but not yet
+ * in another; once the writes complete, it is exact.
+ */
+class PriceAggregate {
+
+    private static final int MAX_STRIPES = 64;
+    private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicReferenceArray<Stripe> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final ConcurrentNavigableMap<BigDecimal, Long> prices = new ConcurrentSkipListMap<>();
+
+    void add(BigDecimal price) {
+        prices.merge(price, 1L, Long::sum);
+        stripe().add(price, 1);
+    }
+
+    void remove(BigDecimal price) {
+        if (!prices.containsKey(price)) {
+            return;
+        }
+        prices.computeIfPresent(price, (p, occurrences) -> occurrences == 1 ? null : occurrences - 1);
+        stripe().add(price.negate(), -1);
+    }
+
+    PriceSummary summary() {
+        long count = 0;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe stripe = stripes.get(i);
+            if (stripe != null) {
+                synchronized (stripe) {
+                    count += stripe.count;
+                    sum = sum.add(stripe.sum);
+                }
+            }
+        }
+        Map.Entry<BigDecimal, Long> min = prices.firstEntry();
+        Map.Entry<BigDecimal, Long> max = prices.lastEntry();
+        return count <= 0 || min == null || max == null
+                ? PriceSummary.EMPTY
+                : new PriceSummary(count, sum, min.getKey(), max.getKey());
+    }
+
+    private Stripe stripe() {
+        int index = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        Stripe stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new Stripe());
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    /**
+     * @return the smallest power of two of at least the given number of processors, at most {@value #MAX_STRIPES}
+     */
+    static int stripeCount(int processors) {
+        return processors <= 1 ? 1 : Math.min(MAX_STRIPES, Integer.highestOneBit(processors - 1) << 1);
+    }
+
+    private static final class Stripe {
+
+        private BigDecimal sum = BigDecimal.ZERO;
+        private long count;
+
+        synchronized void add(BigDecimal price, int occurrences) {
+            sum = sum.add(price);
+            count += occurrences;
+        }
+    }
+}
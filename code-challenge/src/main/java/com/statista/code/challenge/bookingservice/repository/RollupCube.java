@@ -0,0 +1,120 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.model.RollupDimension;
+import com.statista.code.challenge.bookingservice.model.RollupRow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price aggregates per department, currency and month of the subscription start date, maintained
+ * incrementally by {@link BookingRepository} on every write.
+ * <p>
+ * Each cell holds a {@link PriceAggregate}, whose striped counters let writers to the same cell
+ * proceed without sharing one lock, so a query only merges the summaries of the cells and its cost
+ * depends on the number of distinct department, currency and month combinations rather than on the
+ * number of bookings. Prices in different currencies cannot be added up, so rows are always grouped
+ * by currency, whether or not it was asked for. Departments and currencies are normalized
+ * like {@link DepartmentIndex} and {@link CurrencyTotals}; bookings without a start date fall into
+ * a cell whose month is {@code null}.
+ */
+class RollupCube {
+
+    private static final Comparator<Cell> CELL_ORDER = Comparator
+            .comparing(Cell::department, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Cell::currency, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Cell::month, Comparator.nullsFirst(Comparator.<YearMonth>naturalOrder()));
+
+    private record Cell(String department, String currency, YearMonth month) {
+    }
+
+    private final Map<Cell, PriceAggregate> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the number of cells, one per department, currency and month seen so far.
+     */
+    int size() {
+        return cells.size();
+    }
+
+    void add(Booking booking) {
+        cells.computeIfAbsent(cellOf(booking), k -> new PriceAggregate()).add(BigDecimal.valueOf(booking.getPrice()));
+    }
+
+    void remove(Booking booking) {
+        PriceAggregate aggregate = cells.get(cellOf(booking));
+        if (aggregate != null) {
+            aggregate.remove(BigDecimal.valueOf(booking.getPrice()));
+        }
+    }
+
+    /**
+     * Moves a booking's price between cells, skipping the work when neither its cell nor its price changed.
+     */
+    void replace(Booking oldBooking, Booking newBooking) {
+        if (oldBooking.getPrice() == newBooking.getPrice() && cellOf(oldBooking).equals(cellOf(newBooking))) {
+            return;
+        }
+        remove(oldBooking);
+        add(newBooking);
+    }
+
+    /**
+     * Merges the non-empty cells that match the filters into one row per combination of the
+     * grouping dimensions and the currency, ordered by department, currency and month.
+     *
+     * @param groupBy    the dimensions to group by in addition to the currency; an empty set yields
+     *                   one total row per currency
+     * @param department restricts the cells to a department if not {@code null}
+     * @param currency   restricts the cells to a currency if not {@code null}
+     * @param fromMonth  restricts the cells to months at or after this month if not {@code null}
+     * @param toMonth    restricts the cells to months at or before this month if not {@code null}
+     */
+    List<RollupRow> query(Set<RollupDimension> groupBy, String department, String currency,
+                          YearMonth fromMonth, YearMonth toMonth) {
+        String departmentKey = department != null ? DepartmentIndex.key(department) : null;
+        String currencyKey = currency != null ? CurrencyTotals.key(currency) : null;
+        boolean monthFiltered = fromMonth != null || toMonth != null;
+
+        Map<Cell, PriceSummary> groups = new TreeMap<>(CELL_ORDER);
+        for (Map.Entry<Cell, PriceAggregate> entry : cells.entrySet()) {
+            Cell cell = entry.getKey();
+            PriceSummary summary = entry.getValue().summary();
+            if (summary.getCount() == 0
+                    || (departmentKey != null && !departmentKey.equals(cell.department()))
+                    || (currencyKey != null && !currencyKey.equals(cell.currency()))
+                    || (monthFiltered && cell.month() == null)
+                    || (fromMonth != null && cell.month() != null && cell.month().isBefore(fromMonth))
+                    || (toMonth != null && cell.month() != null && cell.month().isAfter(toMonth))) {
+                continue;
+            }
+            Cell group = new Cell(
+                    groupBy.contains(RollupDimension.DEPARTMENT) ? cell.department() : null,
+                    cell.currency(),
+                    groupBy.contains(RollupDimension.MONTH) ? cell.month() : null);
+            groups.merge(group, summary, PriceSummary::merge);
+        }
+
+        List<RollupRow> rows = new ArrayList<>(groups.size());
+        groups.forEach((group, summary) -> rows.add(
+                new RollupRow(group.department(), group.currency(), group.month(), summary)));
+        return rows;
+    }
+
+    private static Cell cellOf(Booking booking) {
+        LocalDate startDate = booking.getSubscriptionStartDate();
+        return new Cell(DepartmentIndex.key(booking.getDepartment()), CurrencyTotals.key(booking.getCurrency()),
+                startDate != null ? YearMonth.from(startDate) : null);
+    }
+
+}
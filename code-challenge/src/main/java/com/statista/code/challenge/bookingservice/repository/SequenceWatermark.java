@@ -0,0 +1,84 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks the highest insertion sequence number below which no insertion is still in progress.
+ * Sequence numbers are taken from a shared counter before the booking is indexed, and a batch takes
+ * its whole range up front, so a reader may see a booking before an earlier-numbered one appears.
+ * A reader that only serves bookings up to the watermark never skips one that appears later.
+ * <p>
+ * An insertion marks itself in progress before it takes its sequence number, with a lower bound of
+ * the number it is about to take, and clears the mark once the booking is indexed. A single insertion
+ * marks the lock stripe it holds, so it allocates nothing; a batch, which spans stripes, adds a mark
+ * of its own. The watermark reads the counter first and then lowers it below every mark, so an
+ * insertion that took a number the reader has seen is always found in progress or already indexed.
+ */
+final class SequenceWatermark {
+
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final AtomicLong sequence;
+    private final AtomicLongArray stripes;
+    private final Queue<Long> batches = new ConcurrentLinkedQueue<>();
+
+    SequenceWatermark(AtomicLong sequence, int stripeCount) {
+        this.sequence = sequence;
+        this.stripes = new AtomicLongArray(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i, NONE);
+        }
+    }
+
+    /**
+     * Marks an insertion in progress under the given lock stripe, which the caller holds, before it takes
+     * its sequence number from the counter.
+     */
+    void beginStripe(int stripe) {
+        stripes.set(stripe, sequence.get() + 1);
+    }
+
+    /**
+     * Marks an insertion in progress under the given lock stripe whose sequence number was chosen by the
+     * caller, before it is applied to the counter.
+     */
+    void beginStripe(int stripe, long reservedSequence) {
+        stripes.set(stripe, Math.min(reservedSequence, sequence.get() + 1));
+    }
+
+    void endStripe(int stripe) {
+        stripes.set(stripe, NONE);
+    }
+
+    /**
+     * Marks a batch in progress before it takes its range of sequence numbers from the counter.
+     *
+     * @return the mark to pass to {@link #endBatch(Long)}
+     */
+    Long beginBatch() {
+        Long mark = sequence.get() + 1;
+        batches.add(mark);
+        return mark;
+    }
+
+    void endBatch(Long mark) {
+        batches.remove(mark);
+    }
+
+    /**
+     * @return a sequence number such that every booking numbered up to it is indexed, or will never be
+     */
+    long get() {
+        long watermark = sequence.get();
+        for (int i = 0; i < stripes.length(); i++) {
+            watermark = Math.min(watermark, stripes.get(i) - 1);
+        }
+        for (Long mark : batches) {
+            watermark = Math.min(watermark, mark - 1);
+        }
+        return watermark;
+    }
+}
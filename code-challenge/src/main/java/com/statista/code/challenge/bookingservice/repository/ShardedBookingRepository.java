@@ -0,0 +1,202 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Booking store partitioned over several {@link BookingShard}s, each owning its own bookings and indexes.
+ * <p>
+ * A booking belongs to the shard chosen by a {@link ConsistentHashRing} over its ID, so the assignment
+ * survives restarts and adding a shard moves only a fair share of the bookings. Writes and lookups of a
+ * single booking go to its shard alone. Queries over all bookings are sent to every shard at once and
+ * their partial results merged: department listings by sequence number, currencies by union and price
+ * summaries by {@link PriceSummary#merge(PriceSummary)}.
+ * <p>
+ * Sequence numbers are assigned here rather than by the shards, so listings keep the insertion order of
+ * the whole store. Versions, the change log and the rollup queries of {@link BookingRepository} have no
+ * counterpart across shards yet.
+ * <p>
+ * This store is a building block and not a mode of the service: the application context never creates
+ * it, and {@code BookingService} stays on a single {@link BookingRepository}, since its conditional
+ * writes, version tags, change stream and date and rollup queries need the features missing here. It
+ * is exercised by its tests and by {@code ShardedRepositoryBenchmark}.
+ */
+public class ShardedBookingRepository {
+
+    private final List<BookingShard> shards;
+    private final ConsistentHashRing<BookingShard> ring;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates a repository over the given shards.
+     *
+     * @param shards the shards; must not be empty and their names must be distinct
+     */
+    public ShardedBookingRepository(List<? extends BookingShard> shards) {
+        this(shards, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Creates a repository over the given shards.
+     *
+     * @param shards       the shards; must not be empty and their names must be distinct
+     * @param virtualNodes the number of points of each shard on the hash ring; more points spread the bookings more evenly
+     */
+    public ShardedBookingRepository(List<? extends BookingShard> shards, int virtualNodes) {
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing<>(this.shards, BookingShard::getName, virtualNodes);
+    }
+
+    /**
+     * Adds a new booking to the shard that owns its ID.
+     *
+     * @param booking the booking to be added; must not be {@code null}
+     */
+    public void addBooking(Booking booking) {
+        updateBooking(booking.getBookingId(), booking);
+    }
+
+    /**
+     * Adds a batch of bookings. Sequence numbers for the whole batch are reserved up front, so the
+     * bookings keep the order of the batch in listings, and each shard receives its part of the batch in
+     * a single call. Bookings whose ID already exists replace the stored booking.
+     *
+     * @param batch the bookings to be added; must not be {@code null} or contain {@code null} elements
+     */
+    public void addBookings(List<Booking> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long firstSequence = sequence.getAndAdd(batch.size()) + 1;
+        Map<BookingShard, NavigableMap<Long, Booking>> parts = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Booking booking = batch.get(i);
+            parts.computeIfAbsent(shardFor(booking.getBookingId()), shard -> new TreeMap<>())
+                    .put(firstSequence + i, booking);
+        }
+        List<CompletableFuture<Void>> writes = new ArrayList<>(parts.size());
+        parts.forEach((shard, part) -> writes.add(shard.putAll(part)));
+        await(CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)));
+    }
+
+    /**
+     * Retrieves a booking by its ID from the shard that owns it.
+     *
+     * @param bookingId the ID of the booking to retrieve; must not be {@code null}
+     * @return the booking with the specified ID, or {@code null} if no booking with the given ID exists
+     */
+    public Booking getBooking(String bookingId) {
+        return await(shardFor(bookingId).get(bookingId));
+    }
+
+    /**
+     * Updates an existing booking with new details, or adds it if the booking ID does not exist.
+     *
+     * @param bookingId the ID of the booking to update; must not be {@code null}
+     * @param booking   the updated booking details; must not be {@code null}
+     */
+    public void updateBooking(String bookingId, Booking booking) {
+        await(shardFor(bookingId).put(bookingId, booking, sequence.incrementAndGet()));
+    }
+
+    /**
+     * Retrieves the booking IDs of a department from all shards, in insertion order.
+     *
+     * @param department the name of the department; matched case-insensitively; must not be {@code null}
+     * @return a list of booking IDs for the specified department
+     */
+    public List<String> getBookingsByDepartment(String department) {
+        NavigableMap<Long, String> merged = new TreeMap<>();
+        for (NavigableMap<Long, String> part : scatter(shard -> shard.bookingsByDepartment(department))) {
+            merged.putAll(part);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Retrieves the currencies used by the bookings of all shards.
+     *
+     * @return an immutable set of unique currency codes
+     */
+    public Set<String> getAllCurrencies() {
+        Set<String> currencies = new HashSet<>();
+        for (Set<String> part : scatter(BookingShard::currencies)) {
+            currencies.addAll(part);
+        }
+        return Collections.unmodifiableSet(currencies);
+    }
+
+    /**
+     * Calculates the total sum of prices for bookings in a specific currency across all shards.
+     *
+     * @param currency the currency code to sum prices for; matched case-insensitively; must not be {@code null}
+     * @return the total sum of prices for the specified currency
+     */
+    public double getSumByCurrency(String currency) {
+        return getPriceSummaryByCurrency(currency).getSum().doubleValue();
+    }
+
+    /**
+     * Retrieves the count, exact sum, minimum and maximum price of the bookings in a specific currency
+     * across all shards.
+     *
+     * @param currency the currency code to summarize; matched case-insensitively; must not be {@code null}
+     * @return the price summary for the specified currency, or {@link PriceSummary#EMPTY} if there are no bookings in it
+     */
+    public PriceSummary getPriceSummaryByCurrency(String currency) {
+        PriceSummary merged = PriceSummary.EMPTY;
+        for (PriceSummary part : scatter(shard -> shard.priceSummary(currency))) {
+            merged = merged.merge(part);
+        }
+        return merged;
+    }
+
+    /**
+     * @return the shards of this repository
+     */
+    public List<BookingShard> getShards() {
+        return shards;
+    }
+
+    BookingShard shardFor(String bookingId) {
+        return ring.nodeFor(bookingId);
+    }
+
+    /**
+     * Sends a query to every shard before waiting for any of them, then collects the answers.
+     */
+    private <R> List<R> scatter(Function<BookingShard, CompletableFuture<R>> query) {
+        List<CompletableFuture<R>> pending = new ArrayList<>(shards.size());
+        for (BookingShard shard : shards) {
+            pending.add(query.apply(shard));
+        }
+        List<R> results = new ArrayList<>(pending.size());
+        for (CompletableFuture<R> future : pending) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Waits for a shard and rethrows its failure as thrown by the shard.
+     */
+    private static <R> R await(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checkpoints the {@link BookingRepository} so that the journal it replays on startup
+ * stays short. A final checkpoint is taken on shutdown, after a scheduled checkpoint still in
+ * progress has finished; it is only interrupted if it takes longer than
+ * {@code booking.snapshot.stop-timeout-ms}. Checkpoints are skipped by journals that do not support
+ * them, and the schedule is disabled when {@code booking.snapshot.interval-ms} is not positive.
+ */
+@Component
+public class Snapshotter {
+
+    private static final Logger logger = LoggerFactory.getLogger(Snapshotter.class);
+
+    private static final String THREAD_NAME = "booking-snapshotter";
+
+    private final BookingRepository bookingRepository;
+    private final long intervalMillis;
+    private final long stopTimeoutMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public Snapshotter(BookingRepository bookingRepository,
+                       @Value("${booking.snapshot.interval-ms:300000}") long intervalMillis,
+                       @Value("${booking.snapshot.stop-timeout-ms:60000}") long stopTimeoutMillis) {
+        this.bookingRepository = bookingRepository;
+        this.intervalMillis = intervalMillis;
+        this.stopTimeoutMillis = stopTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (intervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::checkpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(stopTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Scheduled checkpoint did not finish within {} ms; interrupting it", stopTimeoutMillis);
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+
+    private void checkpoint() {
+        try {
+            bookingRepository.checkpoint();
+        } catch (RuntimeException e) {
+            logger.error("Failed to checkpoint the booking repository", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+/**
+ * How {@link BookingRepository} lays out the bookings it holds.
+ */
+public enum StorageMode {
+
+    /**
+     * Each booking is kept as the {@code Booking} object it was written with.
+     */
+    HEAP,
+
+    /**
+     * Bookings are decomposed into primitive columns, with currencies and departments interned to
+     * integer codes, and {@code Booking} objects are created only when a booking is read. This
+     * uses considerably less memory per booking at the cost of an allocation per read.
+     */
+    COLUMNAR,
+
+    /**
+     * Bookings are serialized into direct (off-heap) memory and located through an off-heap hash
+     * table, so the garbage collector does not have to trace them. {@code Booking} objects are
+     * created only when a booking is read.
+     * <p>
+     * Reads do not lock. Writes to the store are serialized by one lock held for the table probe and
+     * the copy into the arena. Updates leave the superseded record behind; once dead records
+     * outweigh live ones, a write also moves the live records of one 64 MB chunk and frees it, so
+     * that write pauses for up to a chunk copy. Plan direct memory
+     * ({@code -XX:MaxDirectMemorySize}) for the live records plus an equal amount of dead ones and
+     * one spare chunk.
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,18 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+/**
+ * A booking as held by the {@link BookingRepository}, together with the sequence number
+ * assigned when the booking ID was first inserted and the version of its last write.
+ *
+ * @param sequence the insertion sequence number of the booking ID
+ * @param version  the repository-wide write number of the last write to the booking; {@code 0} if unversioned
+ * @param booking  the current booking details
+ */
+record StoredBooking(long sequence, long version, Booking booking) {
+
+    StoredBooking(long sequence, Booking booking) {
+        this(sequence, 0L, booking);
+    }
+}
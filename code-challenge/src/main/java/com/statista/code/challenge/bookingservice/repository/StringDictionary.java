@@ -0,0 +1,48 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only mapping between strings and dense integer codes, used to store repeated values
+ * such as currencies and departments once. {@code null} maps to {@link #NULL_CODE}.
+ * <p>
+ * Looking up a code or a value does not lock; only assigning a code to a new value does.
+ */
+class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    int code(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : assign(value);
+    }
+
+    String value(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    private synchronized int assign(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        // Publish the value before its code so that a reader holding the code can resolve it
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+}
@@ -0,0 +1,20 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+/**
+ * How {@link BookingRepository} applies writes.
+ */
+public enum WriteMode {
+
+    /**
+     * Each writer applies its own write while holding the lock stripe of the booking ID, so writes
+     * to different bookings proceed in parallel on the calling threads.
+     */
+    LOCKED,
+
+    /**
+     * Writers enqueue their writes on a pre-allocated ring buffer and a single writer thread applies
+     * them in batches, waiting for the journal once per batch. Writers never contend for locks with
+     * each other, at the cost of a hand-off to the writer thread for every write.
+     */
+    SINGLE_WRITER
+}
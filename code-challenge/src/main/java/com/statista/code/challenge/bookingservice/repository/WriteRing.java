@@ -0,0 +1,246 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hands the writes of many threads to a single writer thread through a pre-allocated ring of slots, in
+ * the manner of the LMAX Disruptor. Used by {@link BookingRepository} in {@link WriteMode#SINGLE_WRITER}.
+ * <p>
+ * A producer claims the next sequence number with one atomic increment, waits until the writer has
+ * freed the slot of that sequence, fills the slot and publishes the sequence in it. The writer takes
+ * every contiguously published slot as one batch, applies the writes in sequence order, runs the
+ * end-of-batch action once (such as waiting for the journal) and then completes the futures of the
+ * batch. A slot is reused only after its future has been completed, so producers block when the
+ * writer falls a full ring behind.
+ * <p>
+ * The writer spins briefly when the ring is empty and then parks until a producer publishes.
+ */
+final class WriteRing implements AutoCloseable {
+
+    enum Kind {
+        /** Inserts or replaces a booking; the argument is the reserved sequence number, or {@code 0}. */
+        STORE,
+        /** Inserts or replaces a booking if its version equals the argument, {@code 0} for an absent booking. */
+        COMPARE_AND_STORE,
+        /** Inserts or replaces a batch of bookings. */
+        BATCH,
+        /** Inserts the bookings of a batch whose IDs are absent, marking in {@code created} which were inserted. */
+        CREATE_BATCH
+    }
+
+    /**
+     * An entry of the ring. A producer fills it before publishing its sequence and the writer reads it
+     * after seeing the sequence published, so the fields need no synchronization of their own.
+     */
+    static final class Slot {
+        Kind kind;
+        String bookingId;
+        Booking booking;
+        List<Booking> batch;
+        boolean[] created;
+        long argument;
+        private CompletableFuture<Long> future;
+        private long result;
+        private Throwable failure;
+
+        private void clear() {
+            bookingId = null;
+            booking = null;
+            batch = null;
+            created = null;
+            future = null;
+            failure = null;
+        }
+    }
+
+    private static final String THREAD_NAME = "booking-writer";
+    private static final long CLOSED = Long.MIN_VALUE / 2;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long PARK_NANOS = 1_000L;
+
+    private final Slot[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final ToLongFunction<Slot> handler;
+    private final Runnable endOfBatch;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread writer;
+    private volatile long consumed;
+    private volatile long end = Long.MAX_VALUE;
+    private volatile boolean writerParked;
+
+    /**
+     * Creates the ring and starts its writer thread.
+     *
+     * @param capacity   the number of slots; must be a power of two
+     * @param handler    applies the write in a slot and returns the result for its future; runs on the writer thread
+     * @param endOfBatch runs on the writer thread after the writes of a batch and before their futures are
+     *                   completed; if it fails, every future of the batch fails with it
+     */
+    WriteRing(int capacity, ToLongFunction<Slot> handler, Runnable endOfBatch) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity of the write ring must be a power of two: " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.handler = handler;
+        this.endOfBatch = endOfBatch;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1L);
+        }
+        this.writer = new Thread(this::run, THREAD_NAME);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Enqueues a write, blocking while the ring is full.
+     *
+     * @return a future completed with the result of the write once its batch has been applied
+     * @throws IllegalStateException if the ring has been closed
+     */
+    CompletableFuture<Long> submit(Kind kind, String bookingId, Booking booking, List<Booking> batch, long argument) {
+        return submit(kind, bookingId, booking, batch, null, argument);
+    }
+
+    /**
+     * Enqueues a write of a batch that reports which of its bookings were inserted, blocking while the
+     * ring is full.
+     *
+     * @return a future completed with the result of the write once its batch has been applied
+     * @throws IllegalStateException if the ring has been closed
+     */
+    CompletableFuture<Long> submit(Kind kind, String bookingId, Booking booking, List<Booking> batch, boolean[] created,
+                                   long argument) {
+        long sequence = claimed.getAndIncrement();
+        if (sequence < 0) {
+            throw new IllegalStateException("The write ring is closed");
+        }
+        awaitCapacity(sequence);
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        slot.kind = kind;
+        slot.bookingId = bookingId;
+        slot.booking = booking;
+        slot.batch = batch;
+        slot.created = created;
+        slot.argument = argument;
+        slot.future = future;
+        published.set(index, sequence);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting writes and waits until the writer thread has applied every write enqueued before.
+     */
+    @Override
+    public void close() {
+        long last = claimed.getAndSet(CLOSED);
+        if (last < 0) {
+            return;
+        }
+        end = last;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the writer to free the slot of the sequence. A full ring means the writer is the
+     * bottleneck, so waiting producers park rather than spin and take processor time from it.
+     */
+    private void awaitCapacity(long sequence) {
+        while (sequence - consumed >= slots.length) {
+            LockSupport.parkNanos(this, PARK_NANOS);
+        }
+    }
+
+    private void run() {
+        long next = 0L;
+        while (next < end) {
+            // A slot a full ring ahead still holds an older sequence, so the scan stops within one ring
+            long available = next;
+            while (published.get((int) available & mask) == available) {
+                available++;
+            }
+            if (available == next) {
+                idle(next);
+                continue;
+            }
+            process(next, available);
+            next = available;
+            consumed = next;
+        }
+    }
+
+    private void process(long from, long to) {
+        for (long sequence = from; sequence < to; sequence++) {
+            Slot slot = slots[(int) sequence & mask];
+            try {
+                slot.result = handler.applyAsLong(slot);
+            } catch (Throwable e) {
+                slot.failure = e;
+            }
+        }
+        Throwable batchFailure = null;
+        try {
+            endOfBatch.run();
+        } catch (Throwable e) {
+            batchFailure = e;
+        }
+        for (long sequence = from; sequence < to; sequence++) {
+            Slot slot = slots[(int) sequence & mask];
+            CompletableFuture<Long> future = slot.future;
+            Throwable failure = slot.failure != null ? slot.failure : batchFailure;
+            long result = slot.result;
+            slot.clear();
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    /**
+     * Waits for the next sequence to be published or the ring to be closed: spinning first, as writes
+     * tend to arrive in bursts, then yielding to the producers, then parking. The flag is raised before
+     * the final check and producers read it after publishing, so either the writer sees the write or the
+     * producer sees the flag.
+     */
+    private void idle(long next) {
+        int index = (int) next & mask;
+        for (int i = 0; i < SPINS + YIELDS; i++) {
+            if (published.get(index) == next || end <= next) {
+                return;
+            }
+            if (i < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        writerParked = true;
+        if (published.get(index) != next && end > next) {
+            LockSupport.park(this);
+        }
+        writerParked = false;
+    }
+}
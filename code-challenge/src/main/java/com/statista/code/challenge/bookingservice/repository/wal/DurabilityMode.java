@@ -0,0 +1,19 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+/**
+ * When the {@link WriteAheadLog} forces appended writes to disk.
+ */
+public enum DurabilityMode {
+
+    /**
+     * Writers wait until their write has been forced to disk. Writers that arrive while a force is
+     * in progress are committed together by the next force (group commit).
+     */
+    BATCH,
+
+    /**
+     * A background thread forces the log at a fixed interval and writers do not wait; a crash may
+     * lose the writes of the last interval.
+     */
+    INTERVAL
+}
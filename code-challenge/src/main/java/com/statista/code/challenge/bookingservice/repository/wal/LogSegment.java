@@ -0,0 +1,130 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-size, memory-mapped write-ahead log segment file. The file is preallocated and
+ * zero-filled, so a zero frame length marks the end of the written frames.
+ */
+final class LogSegment {
+
+    private static final int END = -1;
+    private static final int TORN = -2;
+
+    private final long index;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private LogSegment(long index, FileChannel channel, MappedByteBuffer buffer) {
+        this.index = index;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static LogSegment create(Path path, long index, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogSegment(index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    long index() {
+        return index;
+    }
+
+    boolean hasRoom(int frameLength) {
+        return position + frameLength <= buffer.capacity();
+    }
+
+    void write(byte[] frame) {
+        buffer.put(position, frame);
+        position += frame.length;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Reads the intact frames of a segment file in order.
+     *
+     * @return {@code true} if the segment was read to its end, {@code false} if a torn or corrupt frame ended it early
+     */
+    static boolean read(Path path, BookingJournal.EntryConsumer consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int offset = 0;
+        while (true) {
+            int next = nextFrame(buffer, offset);
+            if (next == END) {
+                return true;
+            }
+            if (next == TORN) {
+                return false;
+            }
+            WalRecordCodec.decode(buffer, offset + WalRecordCodec.FRAME_HEADER_BYTES, consumer);
+            offset = next;
+        }
+    }
+
+    /**
+     * Ends a segment file left by an earlier process at its first torn or corrupt frame by overwriting
+     * the frame's length with zero, so that the frames of later segments are replayed after it. Writes
+     * after a torn frame were never acknowledged, as forcing the log covers every frame before them.
+     *
+     * @return the offset the segment was sealed at, or {@code -1} if all of its frames are intact
+     */
+    static long seal(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int offset = 0;
+            while (true) {
+                int next = nextFrame(buffer, offset);
+                if (next == END) {
+                    return -1L;
+                }
+                if (next == TORN) {
+                    buffer.putInt(offset, 0);
+                    buffer.force();
+                    return offset;
+                }
+                offset = next;
+            }
+        }
+    }
+
+    /**
+     * Checks the frame at an offset.
+     *
+     * @return the offset of the following frame, {@link #END} if there is no frame at the offset, or
+     *         {@link #TORN} if the frame is torn or corrupt
+     */
+    private static int nextFrame(MappedByteBuffer buffer, int offset) {
+        if (offset + WalRecordCodec.FRAME_HEADER_BYTES > buffer.capacity()) {
+            return END;
+        }
+        int payloadLength = buffer.getInt(offset);
+        if (payloadLength == 0) {
+            return END;
+        }
+        int payloadOffset = offset + WalRecordCodec.FRAME_HEADER_BYTES;
+        if (payloadLength < 0 || payloadLength > buffer.capacity() - payloadOffset
+                || !WalRecordCodec.isIntact(buffer, payloadOffset, payloadLength, buffer.getInt(offset + Integer.BYTES))) {
+            return TORN;
+        }
+        return payloadOffset + payloadLength;
+    }
+}
@@ -0,0 +1,174 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes compacted snapshot files of the booking repository.
+ * <p>
+ * A snapshot holds one record per booking, in insertion order, followed by a record count and a
+ * CRC32C trailer. Currencies and departments repeat across many bookings, so they are written
+ * through an inline dictionary: the first occurrence of a value is written in full and assigned the
+ * next code, later occurrences only write the code. Secondary indexes are not stored; they are
+ * rebuilt as the records are loaded.
+ * <p>
+ * A snapshot is written to a temporary file, forced and then atomically renamed into place, so a
+ * snapshot file that exists under its final name is always complete.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x424B534E;
+    private static final int VERSION = 1;
+    private static final byte RECORD = 1;
+    private static final byte END = 0;
+    private static final int NULL_CODE = -1;
+    private static final int NEW_CODE = -2;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot of the given bookings.
+     *
+     * @param path       the final path of the snapshot file
+     * @param checkpoint the index of the first log segment not covered by the snapshot
+     * @param source     the bookings to write
+     * @return the number of bookings written
+     */
+    static long write(Path path, long checkpoint, BookingJournal.SnapshotSource source) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        long count;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SnapshotOutput output = new SnapshotOutput(channel);
+            output.putInt(MAGIC);
+            output.putInt(VERSION);
+            output.putLong(checkpoint);
+            count = writeRecords(output, source);
+            output.putByte(END);
+            output.putLong(count);
+            output.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    /**
+     * Reads a snapshot file. The checksum of the whole file is verified before the first record is
+     * handed to the consumer.
+     *
+     * @return the checkpoint index stored in the snapshot
+     * @throws IOException if the file cannot be read or is not an intact snapshot
+     */
+    static long read(Path path, BookingJournal.EntryConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SnapshotInput input = new SnapshotInput(channel);
+            if (input.getInt() != MAGIC || input.getInt() != VERSION) {
+                throw new IOException("Not a booking snapshot: " + path);
+            }
+            long checkpoint = input.getLong();
+            List<String> currencies = new ArrayList<>();
+            List<String> departments = new ArrayList<>();
+            long count = 0;
+            byte marker;
+            while ((marker = input.getByte()) == RECORD) {
+                long sequence = input.getLong();
+                String key = input.getString();
+                Booking booking = new Booking();
+                booking.setBookingId(input.getString());
+                booking.setDescription(input.getString());
+                booking.setPrice(input.getDouble());
+                booking.setCurrency(getCoded(input, currencies));
+                long epochDay = input.getLong();
+                booking.setSubscriptionStartDate(epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay));
+                booking.setEmail(input.getString());
+                booking.setDepartment(getCoded(input, departments));
+                consumer.accept(sequence, key, booking);
+                count++;
+            }
+            if (marker != END || input.getLong() != count) {
+                throw new IOException("Snapshot file is corrupt: " + path);
+            }
+            input.verifyEnd();
+            return checkpoint;
+        }
+    }
+
+    private static long writeRecords(SnapshotOutput output, BookingJournal.SnapshotSource source) throws IOException {
+        Map<String, Integer> currencies = new HashMap<>();
+        Map<String, Integer> departments = new HashMap<>();
+        long[] count = new long[1];
+        try {
+            source.forEach((sequence, bookingId, booking) -> {
+                try {
+                    output.putByte(RECORD);
+                    output.putLong(sequence);
+                    output.putString(bookingId);
+                    output.putString(booking.getBookingId());
+                    output.putString(booking.getDescription());
+                    output.putDouble(booking.getPrice());
+                    putCoded(output, currencies, booking.getCurrency());
+                    LocalDate date = booking.getSubscriptionStartDate();
+                    output.putLong(date == null ? NULL_DATE : date.toEpochDay());
+                    output.putString(booking.getEmail());
+                    putCoded(output, departments, booking.getDepartment());
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    private static void putCoded(SnapshotOutput output, Map<String, Integer> dictionary, String value) throws IOException {
+        if (value == null) {
+            output.putInt(NULL_CODE);
+            return;
+        }
+        Integer code = dictionary.get(value);
+        if (code != null) {
+            output.putInt(code);
+        } else {
+            dictionary.put(value, dictionary.size());
+            output.putInt(NEW_CODE);
+            output.putString(value);
+        }
+    }
+
+    private static String getCoded(SnapshotInput input, List<String> dictionary) throws IOException {
+        int code = input.getInt();
+        if (code == NULL_CODE) {
+            return null;
+        }
+        if (code == NEW_CODE) {
+            String value = input.getString();
+            dictionary.add(value);
+            return value;
+        }
+        if (code < 0 || code >= dictionary.size()) {
+            throw new IOException("Snapshot file refers to an unknown dictionary entry");
+        }
+        return dictionary.get(code);
+    }
+}
@@ -0,0 +1,129 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Buffered binary reader for snapshot files written by {@link SnapshotOutput}. The CRC32C trailer
+ * is checked when the reader is opened, before any data is handed out, so a corrupt snapshot is
+ * rejected without partially loading it.
+ */
+final class SnapshotInput {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final long dataLength;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+    private long read;
+
+    SnapshotInput(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.dataLength = channel.size() - Integer.BYTES;
+        if (dataLength < 0) {
+            throw new IOException("Snapshot file is truncated");
+        }
+        verifyChecksum();
+    }
+
+    byte getByte() throws IOException {
+        ensure(Byte.BYTES);
+        return buffer.get();
+    }
+
+    int getInt() throws IOException {
+        ensure(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    long getLong() throws IOException {
+        ensure(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    double getDouble() throws IOException {
+        ensure(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    String getString() throws IOException {
+        int length = getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length <= BUFFER_SIZE) {
+            ensure(length);
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            ensure(1);
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks that all data before the trailer has been consumed.
+     */
+    void verifyEnd() throws IOException {
+        if (buffer.hasRemaining() || read != dataLength) {
+            throw new IOException("Snapshot file has trailing data");
+        }
+    }
+
+    private void verifyChecksum() throws IOException {
+        CRC32C crc = new CRC32C();
+        long position = 0;
+        while (position < dataLength) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), dataLength - position));
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new IOException("Snapshot file is truncated");
+            }
+            crc.update(buffer.array(), 0, count);
+            position += count;
+        }
+        buffer.clear().limit(Integer.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, dataLength + buffer.position()) < 0) {
+                throw new IOException("Snapshot file is truncated");
+            }
+        }
+        if (buffer.getInt(0) != (int) crc.getValue()) {
+            throw new IOException("Snapshot file checksum mismatch");
+        }
+        buffer.clear().limit(0);
+    }
+
+    /**
+     * Makes at least {@code bytes} bytes available in the buffer, refilling it from the file.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            int limit = (int) Math.min(buffer.capacity(), buffer.position() + (dataLength - read));
+            if (limit == buffer.position()) {
+                throw new IOException("Snapshot file is truncated");
+            }
+            buffer.limit(limit);
+            int count = channel.read(buffer, read);
+            if (count < 0) {
+                throw new IOException("Snapshot file is truncated");
+            }
+            read += count;
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,120 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of the write-ahead log frames.
+ * <p>
+ * A frame is {@code [int payloadLength][int crc32c(payload)][payload]}, where the payload is the
+ * record type followed by the insertion sequence, the ID the booking is stored under and the
+ * booking fields. Strings are written as a length-prefixed UTF-8 byte sequence, with length
+ * {@code -1} for {@code null}; dates are written as epoch days.
+ */
+final class WalRecordCodec {
+
+    static final int FRAME_HEADER_BYTES = 8;
+    static final byte PUT = 1;
+
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private WalRecordCodec() {
+    }
+
+    static byte[] encodePut(long sequence, String bookingId, Booking booking) {
+        byte[] key = bytes(bookingId);
+        byte[] id = bytes(booking.getBookingId());
+        byte[] description = bytes(booking.getDescription());
+        byte[] currency = bytes(booking.getCurrency());
+        byte[] email = bytes(booking.getEmail());
+        byte[] department = bytes(booking.getDepartment());
+        int payloadLength = Byte.BYTES + Long.BYTES + Double.BYTES + Long.BYTES
+                + size(key) + size(id) + size(description) + size(currency) + size(email) + size(department);
+
+        byte[] frame = new byte[FRAME_HEADER_BYTES + payloadLength];
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.position(FRAME_HEADER_BYTES);
+        buffer.put(PUT);
+        buffer.putLong(sequence);
+        putString(buffer, key);
+        putString(buffer, id);
+        putString(buffer, description);
+        buffer.putDouble(booking.getPrice());
+        putString(buffer, currency);
+        LocalDate startDate = booking.getSubscriptionStartDate();
+        buffer.putLong(startDate != null ? startDate.toEpochDay() : NULL_DATE);
+        putString(buffer, email);
+        putString(buffer, department);
+
+        CRC32C crc = new CRC32C();
+        crc.update(frame, FRAME_HEADER_BYTES, payloadLength);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return frame;
+    }
+
+    /**
+     * Checks the payload at the buffer's position against the CRC from its frame header.
+     */
+    static boolean isIntact(ByteBuffer buffer, int payloadOffset, int payloadLength, int expectedCrc) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(payloadOffset, payloadLength));
+        return (int) crc.getValue() == expectedCrc;
+    }
+
+    /**
+     * Decodes the payload at the given offset and hands the write to the consumer.
+     */
+    static void decode(ByteBuffer buffer, int payloadOffset, BookingJournal.EntryConsumer consumer) {
+        ByteBuffer payload = buffer.duplicate().position(payloadOffset);
+        byte type = payload.get();
+        if (type != PUT) {
+            throw new IllegalStateException("Unknown write-ahead log record type: " + type);
+        }
+        long sequence = payload.getLong();
+        String bookingId = getString(payload);
+        Booking booking = new Booking();
+        booking.setBookingId(getString(payload));
+        booking.setDescription(getString(payload));
+        booking.setPrice(payload.getDouble());
+        booking.setCurrency(getString(payload));
+        long epochDay = payload.getLong();
+        booking.setSubscriptionStartDate(epochDay != NULL_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+        booking.setEmail(getString(payload));
+        booking.setDepartment(getString(payload));
+        consumer.accept(sequence, bookingId, booking);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int size(byte[] value) {
+        return Integer.BYTES + (value != null ? value.length : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,325 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.repository.BookingJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead log of booking writes, stored in fixed-size memory-mapped segment files.
+ * <p>
+ * Appending copies an encoded frame into the mapped segment under a short lock; when a segment is
+ * full it is forced to disk and a new one is started. Forcing the log is decoupled from appending:
+ * in {@link DurabilityMode#BATCH} mode a writer waiting in {@link #awaitDurable(long)} either
+ * becomes the leader that forces everything appended so far or waits for the leader's force to
+ * cover its write, so concurrent writers share one force (group commit). In
+ * {@link DurabilityMode#INTERVAL} mode a background thread forces the log periodically and
+ * writers never wait.
+ * <p>
+ * Every process start writes to a new segment. Before that, each segment left by earlier runs is
+ * sealed at its first torn or corrupt frame, which is where a crash interrupted the run that wrote it,
+ * so {@link #replay(EntryConsumer)} reads every segment up to its seal and continues with the next one.
+ * <p>
+ * A checkpoint rolls the log to a new segment and writes a compacted snapshot of the repository
+ * named after that segment. Once the snapshot is in place, the segments before it and any older
+ * snapshots are deleted, so replay loads the latest snapshot and only reads the segments written
+ * since its checkpoint began.
+ */
+public class WriteAheadLog implements BookingJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".wal";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String FLUSHER_THREAD_NAME = "wal-flusher";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final DurabilityMode durability;
+    private final ScheduledExecutorService flusher;
+
+    private final Object appendLock = new Object();
+    private LogSegment current;
+    private long appendedPosition;
+    private long checkpointedPosition = -1L;
+    private boolean closed;
+
+    private final Object syncMonitor = new Object();
+    private long durablePosition;
+    private boolean syncInProgress;
+
+    /**
+     * Opens the log in the given directory, sealing the existing segments at their first torn or corrupt
+     * frame and starting a new segment after them.
+     *
+     * @param directory          the directory holding the segment files; created if missing
+     * @param segmentSize        the size of each segment file in bytes
+     * @param durability         when appended writes are forced to disk
+     * @param syncIntervalMillis the force interval in {@link DurabilityMode#INTERVAL} mode
+     * @throws IOException if the directory or the first segment cannot be created
+     */
+    public WriteAheadLog(Path directory, int segmentSize, DurabilityMode durability, long syncIntervalMillis)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.durability = durability;
+        Files.createDirectories(directory);
+        List<Long> existing = segmentIndexes();
+        for (long index : existing) {
+            long sealedAt = LogSegment.seal(segmentPath(index));
+            if (sealedAt >= 0) {
+                logger.warn("Write-ahead log segment {} ends with a torn or corrupt frame at offset {}; sealed it there",
+                        index, sealedAt);
+            }
+        }
+        List<Long> snapshots = snapshotIndexes();
+        long nextIndex = Math.max(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1,
+                snapshots.isEmpty() ? 1 : snapshots.get(snapshots.size() - 1));
+        this.current = LogSegment.create(segmentPath(nextIndex), nextIndex, segmentSize);
+
+        if (durability == DurabilityMode.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, FLUSHER_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncAll, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public long append(long sequence, String bookingId, Booking booking) {
+        byte[] frame = WalRecordCodec.encodePut(sequence, bookingId, booking);
+        if (frame.length > segmentSize) {
+            throw new IllegalArgumentException("Booking " + bookingId + " does not fit into a write-ahead log segment");
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            if (!current.hasRoom(frame.length)) {
+                roll();
+            }
+            current.write(frame);
+            appendedPosition += frame.length;
+            return appendedPosition;
+        }
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        if (durability == DurabilityMode.BATCH) {
+            syncUpTo(position);
+        }
+    }
+
+    @Override
+    public long replay(EntryConsumer consumer) throws IOException {
+        long[] count = new long[1];
+        EntryConsumer counting = (sequence, bookingId, booking) -> {
+            consumer.accept(sequence, bookingId, booking);
+            count[0]++;
+        };
+        long currentIndex;
+        synchronized (appendLock) {
+            currentIndex = current.index();
+        }
+        long firstIndex = loadLatestSnapshot(counting);
+        for (long index : segmentIndexes()) {
+            if (index < firstIndex) {
+                continue;
+            }
+            if (index >= currentIndex) {
+                break;
+            }
+            if (!LogSegment.read(segmentPath(index), counting)) {
+                logger.warn("Write-ahead log segment {} ends with a torn or corrupt frame; ignoring the rest of the segment", index);
+            }
+        }
+        return count[0];
+    }
+
+    /**
+     * Rolls the log to a new segment; the writes in earlier segments are covered by the checkpoint.
+     * Nothing is done if nothing was appended since the previous checkpoint of this process.
+     *
+     * @return the index of the new segment, which identifies the checkpoint
+     */
+    @Override
+    public long beginCheckpoint() {
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            if (appendedPosition == checkpointedPosition) {
+                return NO_CHECKPOINT;
+            }
+            checkpointedPosition = appendedPosition;
+            roll();
+            return current.index();
+        }
+    }
+
+    @Override
+    public void completeCheckpoint(long checkpoint, SnapshotSource source) throws IOException {
+        long start = System.nanoTime();
+        long count = SnapshotFile.write(snapshotPath(checkpoint), checkpoint, source);
+        logger.info("Wrote snapshot {} with {} bookings in {} ms", checkpoint, count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        for (long index : segmentIndexes()) {
+            if (index < checkpoint) {
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+        for (long index : snapshotIndexes()) {
+            if (index < checkpoint) {
+                Files.deleteIfExists(snapshotPath(index));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (appendLock) {
+            if (!closed) {
+                closed = true;
+                current.close();
+            }
+        }
+    }
+
+    /**
+     * Forces everything appended up to now, e.g. before taking a consistent copy of the files.
+     */
+    public void syncAll() {
+        long position;
+        synchronized (appendLock) {
+            position = appendedPosition;
+        }
+        syncUpTo(position);
+    }
+
+    private void syncUpTo(long position) {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (syncInProgress && durablePosition < position) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for the write-ahead log to sync", e);
+                    }
+                }
+                if (durablePosition >= position) {
+                    return;
+                }
+                syncInProgress = true;
+            }
+
+            LogSegment segment;
+            long target;
+            synchronized (appendLock) {
+                segment = current;
+                target = appendedPosition;
+            }
+            boolean forced = false;
+            try {
+                segment.force();
+                forced = true;
+            } finally {
+                synchronized (syncMonitor) {
+                    if (forced) {
+                        durablePosition = Math.max(durablePosition, target);
+                    }
+                    syncInProgress = false;
+                    syncMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces and closes the current segment and starts the next one. Called with the append lock held.
+     */
+    private void roll() {
+        try {
+            current.close();
+            long nextIndex = current.index() + 1;
+            current = LogSegment.create(segmentPath(nextIndex), nextIndex, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll the write-ahead log", e);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot. Its checkpoint deleted the segments it covers, so an older snapshot
+     * cannot stand in for it, and a snapshot that cannot be read fails the replay rather than silently
+     * losing the bookings written between the two checkpoints.
+     *
+     * @return the index of the first segment to replay after the snapshot
+     * @throws IOException if the latest snapshot cannot be read
+     */
+    private long loadLatestSnapshot(EntryConsumer consumer) throws IOException {
+        List<Long> snapshots = snapshotIndexes();
+        if (snapshots.isEmpty()) {
+            return 0L;
+        }
+        long index = snapshots.get(snapshots.size() - 1);
+        long start = System.nanoTime();
+        long checkpoint;
+        try {
+            checkpoint = SnapshotFile.read(snapshotPath(index), consumer);
+        } catch (IOException e) {
+            throw new IOException("Snapshot " + snapshotPath(index) + " cannot be read, and the log segments it"
+                    + " covers have been deleted; restore it from a backup before starting", e);
+        }
+        logger.info("Loaded snapshot {} in {} ms", index, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return checkpoint;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, index, SNAPSHOT_SUFFIX));
+    }
+
+    private List<Long> segmentIndexes() throws IOException {
+        return indexes(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    private List<Long> snapshotIndexes() throws IOException {
+        return indexes(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    private List<Long> indexes(String prefix, String suffix) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> indexes.add(Long.parseLong(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+}
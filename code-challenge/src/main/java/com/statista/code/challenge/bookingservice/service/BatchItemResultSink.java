@@ -0,0 +1,28 @@
+package com.statista.code.challenge.bookingservice.service;
+
+import com.statista.code.challenge.bookingservice.model.BatchItemResult;
+
+import java.io.IOException;
+
+/**
+ * Receives the outcomes of a bulk creation request as the bookings are created.
+ */
+public interface BatchItemResultSink {
+
+    /**
+     * Receives the outcome of one booking, in the order the bookings were supplied. Called on the thread
+     * that submitted the request.
+     *
+     * @param result the outcome; never {@code null}
+     * @throws IOException if the outcome cannot be written; the remaining bookings are not read
+     */
+    void accept(BatchItemResult result) throws IOException;
+
+    /**
+     * Called after the outcomes of a chunk of bookings, before the next chunk is read.
+     *
+     * @throws IOException if buffered outcomes cannot be written; the remaining bookings are not read
+     */
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,33 @@
+package com.statista.code.challenge.bookingservice.service;
+
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+
+import java.io.IOException;
+
+/**
+ * Receives the booking changes of a change stream subscription.
+ */
+public interface BookingChangeSink {
+
+    /**
+     * Receives the next change or gap. Called on the subscribing thread.
+     *
+     * @param change the change; never {@code null}
+     * @throws IOException if the change cannot be written; the subscription ends
+     */
+    void accept(BookingChange change) throws IOException;
+
+    /**
+     * Called when the subscription has caught up, before waiting for the next change.
+     *
+     * @throws IOException if buffered changes cannot be written; the subscription ends
+     */
+    void flush() throws IOException;
+
+    /**
+     * Called when no change has been published for a while, to show the client that the subscription is alive.
+     *
+     * @throws IOException if the sink cannot be written; the subscription ends
+     */
+    void heartbeat() throws IOException;
+}
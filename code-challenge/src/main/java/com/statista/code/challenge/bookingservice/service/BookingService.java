@@ -1,51 +1,242 @@
 package com.statista.code.challenge.bookingservice.service;
 
+import com.statista.code.challenge.bookingservice.config.DepartmentProperties;
+import com.statista.code.challenge.bookingservice.config.ExecutionConfig;
+import com.statista.code.challenge.bookingservice.exception.BookingConflictException;
 import com.statista.code.challenge.bookingservice.exception.BookingNotFoundException;
 import com.statista.code.challenge.bookingservice.exception.DepartmentNotFoundException;
+import com.statista.code.challenge.bookingservice.exception.DepartmentRejectedException;
+import com.statista.code.challenge.bookingservice.exception.InvalidCursorException;
+import com.statista.code.challenge.bookingservice.exception.InvalidDateRangeException;
+import com.statista.code.challenge.bookingservice.exception.MalformedBookingException;
+import com.statista.code.challenge.bookingservice.exception.PreconditionFailedException;
+import com.statista.code.challenge.bookingservice.metrics.LatencyHistogram;
+import com.statista.code.challenge.bookingservice.metrics.MetricsSource;
+import com.statista.code.challenge.bookingservice.metrics.OperationMetrics;
+import com.statista.code.challenge.bookingservice.metrics.PrometheusWriter;
+import com.statista.code.challenge.bookingservice.model.BatchItemResult;
 import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+import com.statista.code.challenge.bookingservice.model.BookingIdPage;
+import com.statista.code.challenge.bookingservice.model.BusinessResult;
+import com.statista.code.challenge.bookingservice.model.ChangeOverrunPolicy;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.model.RollupDimension;
+import com.statista.code.challenge.bookingservice.model.RollupRow;
+import com.statista.code.challenge.bookingservice.notification.EmailDispatcher;
 import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import com.statista.code.challenge.bookingservice.repository.ChangeLog;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Service class responsible for managing bookings and delegating business logic to the appropriate department.
  * This service interacts with the booking repository to perform CRUD operations and handles business processes
  * specific to each department.
+ * <p>
+ * The latency of every operation, and of the business logic per department, is recorded and
+ * reported through {@link #writeMetrics(PrometheusWriter)}.
  */
 @Service
-public class BookingService {
+public class BookingService implements MetricsSource {
+
+    private enum Operation {
+        CREATE_BOOKING, CREATE_BOOKINGS, GET_BOOKING, GET_BOOKING_VERSION_TAG, GET_VERSION_TAG,
+        UPDATE_BOOKING, UPDATE_BOOKING_IF_MATCH,
+        DO_BUSINESS, DO_BUSINESS_BULK,
+        GET_BOOKINGS_BY_DEPARTMENT, GET_DEPARTMENT_PAGE, GET_ALL_CURRENCIES, GET_SUM_BY_CURRENCY,
+        GET_PRICE_SUMMARY_BY_CURRENCY, GET_BOOKINGS_BY_DATE_RANGE, COUNT_BOOKINGS_BY_DATE_RANGE,
+        GET_PRICE_SUMMARIES_BY_DATE_RANGE, GET_ROLLUP
+    }
+
+    // Point operations cheap enough that timing every call would cost a noticeable share of their latency
+    private static final Set<Operation> SAMPLED_OPERATIONS = EnumSet.of(
+            Operation.CREATE_BOOKING, Operation.GET_BOOKING, Operation.GET_BOOKING_VERSION_TAG, Operation.GET_VERSION_TAG,
+            Operation.UPDATE_BOOKING, Operation.UPDATE_BOOKING_IF_MATCH, Operation.GET_ALL_CURRENCIES, Operation.GET_SUM_BY_CURRENCY,
+            Operation.GET_PRICE_SUMMARY_BY_CURRENCY);
+
+    private static final int BATCH_CHUNK_SIZE = 10_000;
+    private static final int BULK_BOOKINGS_PER_LANE = 64;
+    private static final String NULL_BOOKING_FIELD = "booking";
+    private static final String NULL_BOOKING_MESSAGE = "Booking cannot be null";
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+    private static final long CHANGE_HEARTBEAT_MILLIS = 15_000;
 
     private final BookingRepository bookingRepository;
+    private final Validator validator;
+    private final EmailDispatcher emailDispatcher;
+    private final Executor departmentExecutor;
+    private final Executor bulkExecutor;
+    private final DepartmentProperties departmentProperties;
     private final Map<String, DepartmentService> departmentServices = new HashMap<>();
+    private final Map<String, DepartmentGuard> departmentGuards = new HashMap<>();
+    private final OperationMetrics<Operation> metrics;
+    private final Map<String, LatencyHistogram> departmentLatencies = new HashMap<>();
+    private final Map<String, LongAdder> departmentFailures = new HashMap<>();
+
+    /**
+     * Constructs a new BookingService instance with the provided BookingRepository and a list of DepartmentService
+     * implementations. Bulk processing runs on the common fork-join pool with the default department limits.
+     *
+     * @param bookingRepository the repository used for managing bookings
+     * @param departmentServiceList a list of department services responsible for handling department-specific business logic
+     * @param validator the bean validator used to validate bookings submitted in batches
+     * @param emailDispatcher the dispatcher that delivers confirmation emails asynchronously
+     * @param departmentExecutor the executor that runs department business logic
+     */
+    public BookingService(BookingRepository bookingRepository,
+                          List<DepartmentService> departmentServiceList,
+                          Validator validator,
+                          EmailDispatcher emailDispatcher,
+                          Executor departmentExecutor) {
+        this(bookingRepository, departmentServiceList, validator, emailDispatcher, departmentExecutor,
+                ForkJoinPool.commonPool(), new DepartmentProperties());
+    }
 
     /**
      * Constructs a new BookingService instance with the provided BookingRepository and a list of DepartmentService implementations.
      *
      * @param bookingRepository the repository used for managing bookings
      * @param departmentServiceList a list of department services responsible for handling department-specific business logic
+     * @param validator the bean validator used to validate bookings submitted in batches
+     * @param emailDispatcher the dispatcher that delivers confirmation emails asynchronously
+     * @param departmentExecutor the executor that runs department business logic
+     * @param bulkExecutor the work-stealing executor that runs bulk department processing
+     * @param departmentProperties the per-department dispatch limits
+     */
+    public BookingService(BookingRepository bookingRepository,
+                          List<DepartmentService> departmentServiceList,
+                          Validator validator,
+                          EmailDispatcher emailDispatcher,
+                          Executor departmentExecutor,
+                          Executor bulkExecutor,
+                          DepartmentProperties departmentProperties) {
+        this(bookingRepository, departmentServiceList, validator, emailDispatcher, departmentExecutor,
+                bulkExecutor, departmentProperties, true);
+    }
+
+    /**
+     * Constructs a new BookingService instance with the provided BookingRepository and a list of DepartmentService implementations.
+     *
+     * @param bookingRepository the repository used for managing bookings
+     * @param departmentServiceList a list of department services responsible for handling department-specific business logic
+     * @param validator the bean validator used to validate bookings submitted in batches
+     * @param emailDispatcher the dispatcher that delivers confirmation emails asynchronously
+     * @param departmentExecutor the executor that runs department business logic
+     * @param bulkExecutor the work-stealing executor that runs bulk department processing
+     * @param departmentProperties the per-department dispatch limits
+     * @param metricsEnabled whether to record operation latencies
      */
     @Autowired
     public BookingService(BookingRepository bookingRepository,
-                          List<DepartmentService> departmentServiceList) {
+                          List<DepartmentService> departmentServiceList,
+                          Validator validator,
+                          EmailDispatcher emailDispatcher,
+                          @Qualifier(ExecutionConfig.DEPARTMENT_EXECUTOR) Executor departmentExecutor,
+                          @Qualifier(ExecutionConfig.BULK_EXECUTOR) Executor bulkExecutor,
+                          DepartmentProperties departmentProperties,
+                          @Value("${booking.metrics.enabled:true}") boolean metricsEnabled) {
         this.bookingRepository = bookingRepository;
+        this.validator = validator;
+        this.emailDispatcher = emailDispatcher;
+        this.departmentExecutor = departmentExecutor;
+        this.bulkExecutor = bulkExecutor;
+        this.departmentProperties = departmentProperties;
         for (DepartmentService service : departmentServiceList) {
             departmentServices.put(service.getDepartmentName().toLowerCase(), service);
+            departmentGuards.put(service.getDepartmentName().toLowerCase(),
+                    new DepartmentGuard(service.getDepartmentName(), departmentProperties));
+            departmentLatencies.put(service.getDepartmentName().toLowerCase(), new LatencyHistogram());
+            departmentFailures.put(service.getDepartmentName().toLowerCase(), new LongAdder());
         }
+        this.metrics = new OperationMetrics<>(Operation.class, metricsEnabled, SAMPLED_OPERATIONS);
     }
 
     /**
-     * Creates a new booking and sends a confirmation email.
+     * Creates a new booking and sends a confirmation email. An existing booking is never overwritten.
      *
      * @param booking the booking to be created; must not be {@code null}
+     * @return the version tag of the new booking
+     * @throws BookingConflictException if a booking with the same ID already exists
      */
-    public void createBooking(Booking booking) {
-        bookingRepository.addBooking(booking);
-        sendEmailForBooking(booking);
+    public String createBooking(Booking booking) {
+        return metrics.call(Operation.CREATE_BOOKING, () -> {
+            long version = bookingRepository.createBooking(booking);
+            if (version == 0L) {
+                throw new BookingConflictException("Booking already exists for ID: " + booking.getBookingId());
+            }
+            sendEmailForBooking(booking);
+            return versionTag(version);
+        });
+    }
+
+    /**
+     * Creates a sequence of bookings in bulk and sends a confirmation email for each created booking.
+     * <p>
+     * The bookings are consumed in chunks, so the sequence may be streamed without holding all
+     * bookings in memory. Each chunk is validated in parallel and its valid bookings are inserted
+     * with a single batch write; invalid bookings are skipped and reported in the results, as are
+     * bookings whose ID already exists or repeats an earlier one, which leave the stored booking as
+     * it is and get no email. The
+     * outcomes of a chunk are handed to the sink once it has been written, so the bookings of earlier
+     * chunks are created even if a later element cannot be read. Such an element is reported as
+     * malformed, and reading stops there unless the sequence can continue after it.
+     *
+     * @param bookings the bookings to create; elements may be {@code null}, which are reported as invalid,
+     *                 and reading an element may throw a {@link MalformedBookingException}
+     * @param sink receives the outcome of each booking, in the order the bookings were supplied
+     * @throws IOException if the sink fails; the remaining bookings are then not read
+     */
+    public void createBookings(Iterator<Booking> bookings, BatchItemResultSink sink) throws IOException {
+        metrics.run(Operation.CREATE_BOOKINGS, () -> {
+            List<Booking> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+            BatchItemResult[] chunkResults = new BatchItemResult[BATCH_CHUNK_SIZE];
+            int offset = 0;
+            boolean more = true;
+            while (more) {
+                more = readChunk(bookings, offset, chunk, chunkResults);
+                createChunk(offset, chunk, chunkResults, sink);
+                offset += chunk.size();
+                chunk.clear();
+                Arrays.fill(chunkResults, null);
+            }
+        });
     }
 
     /**
@@ -56,11 +247,35 @@ public class BookingService {
      * @throws BookingNotFoundException if no booking with the given ID is found
      */
     public Booking getBooking(String bookingId) {
-        Booking booking = bookingRepository.getBooking(bookingId);
-        if (booking == null) {
-            throw new BookingNotFoundException("Booking not found for ID: " + bookingId);
-        }
-        return booking;
+        return metrics.call(Operation.GET_BOOKING, () -> findBooking(bookingId));
+    }
+
+    /**
+     * Retrieves a tag identifying the current version of a booking. The tag changes with every
+     * write to the booking and after a restart.
+     *
+     * @param bookingId the ID of the booking; must not be {@code null}
+     * @return the version tag of the booking
+     * @throws BookingNotFoundException if no booking with the given ID is found
+     */
+    public String getBookingVersionTag(String bookingId) {
+        return metrics.call(Operation.GET_BOOKING_VERSION_TAG, () -> {
+            long version = bookingRepository.getBookingVersion(bookingId);
+            if (version == 0L) {
+                throw new BookingNotFoundException("Booking not found for ID: " + bookingId);
+            }
+            return versionTag(version);
+        });
+    }
+
+    /**
+     * Retrieves a tag identifying the current version of all bookings. The tag changes with every
+     * write and after a restart.
+     *
+     * @return the version tag of the repository
+     */
+    public String getVersionTag() {
+        return metrics.call(Operation.GET_VERSION_TAG, () -> versionTag(bookingRepository.getVersion()));
     }
 
     /**
@@ -70,24 +285,126 @@ public class BookingService {
      * @param booking the updated booking details; must not be {@code null}
      */
     public void updateBooking(String bookingId, Booking booking) {
-        bookingRepository.updateBooking(bookingId, booking);
+        metrics.run(Operation.UPDATE_BOOKING, () -> bookingRepository.updateBooking(bookingId, booking));
+    }
+
+    /**
+     * Updates a booking only if its current version tag satisfies a precondition, typically that it is
+     * the tag the client read before making its change. The check and the write are atomic: if
+     * another write gets in between, the precondition is evaluated again against the new version.
+     *
+     * @param bookingId the ID of the booking to update; must not be {@code null}
+     * @param booking the updated booking details; must not be {@code null}
+     * @param precondition tests the booking's current version tag
+     * @return the version tag of the updated booking
+     * @throws PreconditionFailedException if the booking does not exist or its version tag fails the precondition
+     */
+    public String updateBooking(String bookingId, Booking booking, Predicate<String> precondition) {
+        return metrics.call(Operation.UPDATE_BOOKING_IF_MATCH, () -> {
+            while (true) {
+                long version = bookingRepository.getBookingVersion(bookingId);
+                if (version == 0L || !precondition.test(versionTag(version))) {
+                    throw new PreconditionFailedException("Version does not match for ID: " + bookingId);
+                }
+                long newVersion = bookingRepository.updateBooking(bookingId, booking, version);
+                if (newVersion != 0L) {
+                    return versionTag(newVersion);
+                }
+            }
+        });
     }
 
     /**
      * Processes a booking by delegating the business logic to the appropriate department.
+     * The department logic runs on the department executor and this method waits for its result,
+     * within the concurrency, rate and timeout limits configured for the department.
      *
      * @param bookingId the ID of the booking to process; must not be {@code null}
      * @return a string message indicating the result of the processing
      * @throws BookingNotFoundException if no booking with the given ID is found
      * @throws DepartmentNotFoundException if the department associated with the booking is unknown
+     * @throws DepartmentRejectedException if a limit of the department is exhausted or the department times out
      */
     public String doBusiness(String bookingId) {
-        Booking booking = getBooking(bookingId);
-        DepartmentService service = departmentServices.get(booking.getDepartment().toLowerCase());
-        if (service == null) {
-            throw new DepartmentNotFoundException("Unknown department: " + booking.getDepartment());
+        return metrics.call(Operation.DO_BUSINESS, () -> {
+            Booking booking = findBooking(bookingId);
+            String department = booking.getDepartment().toLowerCase();
+            DepartmentService service = departmentServices.get(department);
+            if (service == null) {
+                throw new DepartmentNotFoundException("Unknown department: " + booking.getDepartment());
+            }
+            return timeDepartment(department,
+                    () -> departmentGuards.get(department).call(() -> service.doBusiness(booking), departmentExecutor));
+        });
+    }
+
+    /**
+     * Processes many bookings, delegating each to the department service of its department.
+     * <p>
+     * The booking IDs are read as the departments keep up with them: each department is worked off by
+     * at most as many concurrent tasks on the bulk executor as its bulk parallelism allows, so one large
+     * department cannot occupy the whole pool, and reading waits while a department has a fixed number
+     * of bookings per task outstanding. Results are handed to the sink on the calling thread in the
+     * order they complete; bookings that cannot be found or have an unknown department are reported as
+     * they are read, and a department failing with an exception or error yields a failed result. Each
+     * booking passes the limits of its department like a single request, a rejection or timeout being
+     * reported as the booking's result. If no result arrives for
+     * {@link DepartmentProperties#getBulkResultTimeoutMs()}, the departments with bookings outstanding
+     * are given up on and their remaining bookings reported as timed out. The method returns once every
+     * result has been delivered.
+     *
+     * @param bookingIds the IDs of the bookings to process; must not contain {@code null}
+     * @param sink receives one result per booking ID
+     * @throws IOException if the sink fails; bookings not yet started are then abandoned
+     */
+    public void doBusiness(Iterator<String> bookingIds, BusinessResultSink sink) throws IOException {
+        metrics.run(Operation.DO_BUSINESS_BULK, () -> processBulk(bookingIds, sink));
+    }
+
+    /**
+     * Processes every booking of a department, see {@link #doBusiness(Iterator, BusinessResultSink)}.
+     *
+     * @param department the name of the department; must not be {@code null}
+     * @param sink receives one result per booking
+     * @throws IOException if the sink fails; bookings not yet started are then abandoned
+     */
+    public void doBusinessForDepartment(String department, BusinessResultSink sink) throws IOException {
+        doBusiness(bookingRepository.iterateBookingsByDepartment(department), sink);
+    }
+
+    /**
+     * Follows the booking changes, handing each to the sink as soon as it is published, until the sink
+     * fails or the thread is interrupted. Changes the subscription fell too far behind to receive are
+     * reported as a gap. Waiting for changes never holds up writers.
+     *
+     * @param afterSequence the last sequence the client has seen, or {@code null} to start with the next change
+     * @param overrunPolicy whether to continue or end the subscription after a gap
+     * @param sink receives the changes
+     * @throws IOException if the sink fails
+     */
+    public void streamChanges(Long afterSequence, ChangeOverrunPolicy overrunPolicy, BookingChangeSink sink) throws IOException {
+        ChangeLog changeLog = bookingRepository.getChangeLog();
+        ChangeLog.Cursor cursor = changeLog.cursor(afterSequence != null ? afterSequence : changeLog.getLatestSequence());
+        try {
+            while (true) {
+                BookingChange change = cursor.poll(0L, TimeUnit.MILLISECONDS);
+                if (change == null) {
+                    sink.flush();
+                    change = cursor.poll(CHANGE_HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        sink.heartbeat();
+                        continue;
+                    }
+                }
+                sink.accept(change);
+                if (change.getType() == BookingChange.Type.GAP && overrunPolicy == ChangeOverrunPolicy.CLOSE) {
+                    sink.flush();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        return service.doBusiness(booking);
     }
 
     /**
@@ -97,7 +414,41 @@ public class BookingService {
      * @return a list of booking IDs associated with the specified department
      */
     public List<String> getBookingsByDepartment(String department) {
-        return bookingRepository.getBookingsByDepartment(department);
+        return metrics.call(Operation.GET_BOOKINGS_BY_DEPARTMENT, () -> bookingRepository.getBookingsByDepartment(department));
+    }
+
+    /**
+     * Retrieves one page of the booking IDs of a department, in insertion order. Pages stay stable
+     * while bookings are added: new bookings only ever appear after the pages already read, and a page
+     * stops short of bookings whose insertion is still in progress, so none is skipped.
+     *
+     * @param department the name of the department; must not be {@code null}
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of booking IDs in the page; must be positive
+     * @return the page of booking IDs and the cursor of the next page, if there are more bookings
+     * @throws InvalidCursorException if the cursor was not issued by this service
+     */
+    public BookingIdPage getBookingsByDepartment(String department, String cursor, int limit) {
+        return metrics.call(Operation.GET_DEPARTMENT_PAGE, () -> {
+            NavigableMap<Long, String> entries = bookingRepository.getBookingsByDepartment(department, decodeCursor(cursor), limit + 1);
+            String nextCursor = null;
+            if (entries.size() > limit) {
+                entries.pollLastEntry();
+                nextCursor = encodeCursor(entries.lastKey());
+            }
+            return new BookingIdPage(new ArrayList<>(entries.values()), nextCursor);
+        });
+    }
+
+    /**
+     * Iterates over the booking IDs of a department in insertion order without copying them, for
+     * streaming responses.
+     *
+     * @param department the name of the department; must not be {@code null}
+     * @return a weakly consistent iterator over the booking IDs of the department
+     */
+    public Iterator<String> iterateBookingsByDepartment(String department) {
+        return bookingRepository.iterateBookingsByDepartment(department);
     }
 
     /**
@@ -106,7 +457,7 @@ public class BookingService {
      * @return a set of unique currency codes
      */
     public Set<String> getAllCurrencies() {
-        return bookingRepository.getAllCurrencies();
+        return metrics.call(Operation.GET_ALL_CURRENCIES, () -> bookingRepository.getAllCurrencies());
     }
 
     /**
@@ -116,17 +467,433 @@ public class BookingService {
      * @return the total sum of prices for the specified currency
      */
     public double getSumByCurrency(String currency) {
-        return bookingRepository.getSumByCurrency(currency);
+        return metrics.call(Operation.GET_SUM_BY_CURRENCY, () -> bookingRepository.getSumByCurrency(currency));
     }
 
     /**
-     * Sends a confirmation email for the given booking.
-     * <p>
-     * This is a placeholder method simulating the sending of an email.
+     * Retrieves the count, sum, minimum and maximum price of the bookings in a specific currency.
+     *
+     * @param currency the currency code to summarize; must not be {@code null}
+     * @return the price summary for the specified currency
+     */
+    public PriceSummary getPriceSummaryByCurrency(String currency) {
+        return metrics.call(Operation.GET_PRICE_SUMMARY_BY_CURRENCY, () -> bookingRepository.getPriceSummaryByCurrency(currency));
+    }
+
+    /**
+     * Retrieves the bookings whose subscription starts between two dates, both inclusive, ordered by start date.
+     *
+     * @param from the first start date of the range; must not be {@code null}
+     * @param to the last start date of the range; must not be {@code null}
+     * @param department restricts the bookings to a department; {@code null} for all departments
+     * @return the bookings in the range
+     * @throws InvalidDateRangeException if {@code to} lies before {@code from}
+     */
+    public List<Booking> getBookingsByDateRange(LocalDate from, LocalDate to, String department) {
+        return metrics.call(Operation.GET_BOOKINGS_BY_DATE_RANGE, () -> {
+            checkDateRange(from, to);
+            return bookingRepository.getBookingsByDateRange(from, to, department);
+        });
+    }
+
+    /**
+     * Counts the bookings whose subscription starts between two dates, both inclusive.
+     *
+     * @param from the first start date of the range; must not be {@code null}
+     * @param to the last start date of the range; must not be {@code null}
+     * @param department restricts the bookings to a department; {@code null} for all departments
+     * @return the number of bookings in the range
+     * @throws InvalidDateRangeException if {@code to} lies before {@code from}
+     */
+    public long countBookingsByDateRange(LocalDate from, LocalDate to, String department) {
+        return metrics.call(Operation.COUNT_BOOKINGS_BY_DATE_RANGE, () -> {
+            checkDateRange(from, to);
+            return bookingRepository.countBookingsByDateRange(from, to, department);
+        });
+    }
+
+    /**
+     * Summarizes the prices of the bookings whose subscription starts between two dates, both inclusive, per currency.
+     *
+     * @param from the first start date of the range; must not be {@code null}
+     * @param to the last start date of the range; must not be {@code null}
+     * @param department restricts the bookings to a department; {@code null} for all departments
+     * @return the price summaries keyed by currency code
+     * @throws InvalidDateRangeException if {@code to} lies before {@code from}
+     */
+    public SortedMap<String, PriceSummary> getPriceSummariesByDateRange(LocalDate from, LocalDate to, String department) {
+        return metrics.call(Operation.GET_PRICE_SUMMARIES_BY_DATE_RANGE, () -> {
+            checkDateRange(from, to);
+            return bookingRepository.getPriceSummariesByDateRange(from, to, department);
+        });
+    }
+
+    /**
+     * Summarizes the prices of the bookings grouped by any subset of department, currency and start month.
+     *
+     * @param groupBy the dimensions to group by; an empty set yields a single grand total row
+     * @param department restricts the bookings to a department; {@code null} for all departments
+     * @param currency restricts the bookings to a currency; {@code null} for all currencies
+     * @param fromMonth the first start month to include; {@code null} for no lower bound
+     * @param toMonth the last start month to include; {@code null} for no upper bound
+     * @return one row per non-empty group
+     * @throws InvalidDateRangeException if {@code toMonth} lies before {@code fromMonth}
+     */
+    public List<RollupRow> getRollup(Set<RollupDimension> groupBy, String department, String currency,
+                                     YearMonth fromMonth, YearMonth toMonth) {
+        return metrics.call(Operation.GET_ROLLUP, () -> {
+            if (fromMonth != null && toMonth != null && toMonth.isBefore(fromMonth)) {
+                throw new InvalidDateRangeException(fromMonth + " is after " + toMonth);
+            }
+            return bookingRepository.getRollup(groupBy, department, currency, fromMonth, toMonth);
+        });
+    }
+
+    /**
+     * Reports the latency of every operation and of the business logic of each department, and the
+     * number of department calls that failed or were rejected.
+     */
+    @Override
+    public void writeMetrics(PrometheusWriter writer) {
+        metrics.write(writer, "booking_service_operation_seconds", "Latency of service operations.");
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        departmentLatencies.forEach((department, histogram) -> writer.histogram("booking_department_business_seconds",
+                "Latency of department business logic, including time spent waiting for the department.",
+                histogram, "department", department));
+        departmentFailures.forEach((department, failures) -> writer.counter("booking_department_failures_total",
+                "Department business calls that failed, timed out or were rejected.",
+                failures.sum(), "department", department));
+    }
+
+    private Booking findBooking(String bookingId) {
+        Booking booking = bookingRepository.getBooking(bookingId);
+        if (booking == null) {
+            throw new BookingNotFoundException("Booking not found for ID: " + bookingId);
+        }
+        return booking;
+    }
+
+    /**
+     * Runs a call of a department service, recording its latency and whether it failed for the department.
+     */
+    private <T> T timeDepartment(String department, Supplier<T> call) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            if (metrics.isEnabled()) {
+                departmentLatencies.get(department).record(System.nanoTime() - start);
+                if (failed) {
+                    departmentFailures.get(department).increment();
+                }
+            }
+        }
+    }
+
+    private String versionTag(long version) {
+        return Long.toHexString(bookingRepository.getVersionEpoch()) + "-" + Long.toHexString(version);
+    }
+
+    private static void checkDateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new InvalidDateRangeException(from + " is after " + to);
+        }
+    }
+
+    private static String encodeCursor(long sequence) {
+        return CURSOR_ENCODER.encodeToString(Long.toString(sequence).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            long sequence = Long.parseLong(new String(CURSOR_DECODER.decode(cursor), StandardCharsets.US_ASCII));
+            if (sequence < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return sequence;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Processes bookings in bulk as described in {@link #doBusiness(Iterator, BusinessResultSink)}.
+     * Results are only ever handed to the sink from the calling thread, and the outstanding bookings of
+     * a department are only touched there.
+     */
+    private void processBulk(Iterator<String> bookingIds, BusinessResultSink sink) throws IOException {
+        Map<DepartmentService, BulkLanes> lanes = new HashMap<>();
+        BlockingQueue<BulkResult> completed = new LinkedBlockingQueue<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        try {
+            while (bookingIds.hasNext()) {
+                String bookingId = bookingIds.next();
+                Booking booking = bookingRepository.getBooking(bookingId);
+                if (booking == null) {
+                    sink.accept(BusinessResult.rejected(bookingId, null, BusinessResult.Status.NOT_FOUND,
+                            "Booking not found for ID: " + bookingId));
+                    continue;
+                }
+                DepartmentService service = departmentServices.get(booking.getDepartment().toLowerCase());
+                if (service == null) {
+                    sink.accept(BusinessResult.rejected(bookingId, booking.getDepartment(), BusinessResult.Status.UNKNOWN_DEPARTMENT,
+                            "Unknown department: " + booking.getDepartment()));
+                    continue;
+                }
+                BulkLanes department = lanes.computeIfAbsent(service, s -> new BulkLanes(s, completed, abandoned));
+                while (!department.stalled && department.outstanding.size() >= department.capacity) {
+                    awaitResult(lanes.values(), completed, sink);
+                }
+                if (department.stalled) {
+                    sink.accept(department.stalledResult(booking));
+                    continue;
+                }
+                department.submit(booking);
+                for (BulkResult result; (result = completed.poll()) != null; ) {
+                    deliver(result, sink);
+                }
+            }
+            while (lanes.values().stream().anyMatch(department -> !department.outstanding.isEmpty())) {
+                awaitResult(lanes.values(), completed, sink);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bulk processing results", e);
+        } finally {
+            abandoned.set(true);
+        }
+    }
+
+    /**
+     * Delivers the next result, waiting at most {@link DepartmentProperties#getBulkResultTimeoutMs()}
+     * for it. If none arrives by then, every department with bookings outstanding is given up on: its
+     * outstanding bookings are reported as timed out and it takes no further bookings of this request.
+     */
+    private void awaitResult(Collection<BulkLanes> lanes, BlockingQueue<BulkResult> completed, BusinessResultSink sink)
+            throws IOException, InterruptedException {
+        BulkResult result = completed.poll();
+        if (result == null) {
+            sink.flush();
+            result = completed.poll(departmentProperties.getBulkResultTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+        if (result != null) {
+            deliver(result, sink);
+            return;
+        }
+        for (BulkLanes department : lanes) {
+            if (!department.outstanding.isEmpty()) {
+                department.stall(sink);
+            }
+        }
+    }
+
+    private static void deliver(BulkResult result, BusinessResultSink sink) throws IOException {
+        // A department that was given up on may still finish bookings already reported as timed out
+        if (result.lanes().outstanding.remove(result.item())) {
+            sink.accept(result.result());
+        }
+    }
+
+    private BusinessResult process(DepartmentService service, Booking booking) {
+        String department = service.getDepartmentName().toLowerCase();
+        try {
+            String result = timeDepartment(department,
+                    () -> departmentGuards.get(department).call(() -> service.doBusiness(booking), Runnable::run));
+            return BusinessResult.processed(booking.getBookingId(), booking.getDepartment(), result);
+        } catch (DepartmentRejectedException e) {
+            BusinessResult.Status status = e.getReason() == DepartmentRejectedException.Reason.TIMED_OUT
+                    ? BusinessResult.Status.TIMED_OUT : BusinessResult.Status.REJECTED;
+            return BusinessResult.rejected(booking.getBookingId(), booking.getDepartment(), status, e.getMessage());
+        } catch (Throwable e) {
+            // Errors as well: a booking without a result would leave the bulk request waiting for it
+            return BusinessResult.rejected(booking.getBookingId(), booking.getDepartment(), BusinessResult.Status.FAILED,
+                    String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * A booking submitted to a department in a bulk request. Compared by identity, since a request may
+     * name the same booking more than once.
+     */
+    private static final class BulkItem {
+
+        private final Booking booking;
+
+        BulkItem(Booking booking) {
+            this.booking = booking;
+        }
+    }
+
+    private record BulkResult(BulkLanes lanes, BulkItem item, BusinessResult result) {
+    }
+
+    /**
+     * The bookings of one department in a bulk request and the tasks working them off on the bulk
+     * executor. At most {@code parallelism} tasks run at once, capped by the department's bulkhead so
+     * that the request does not reject its own bookings, and the calling thread submits no more than
+     * {@link #BULK_BOOKINGS_PER_LANE} bookings per task before their results have been delivered, so
+     * the booking IDs are read no faster than the departments process them. Each booking passes the
+     * department's {@link DepartmentGuard} like a single request does.
+     */
+    private final class BulkLanes {
+
+        private final DepartmentService service;
+        private final int parallelism;
+        private final int capacity;
+        private final BlockingQueue<BulkResult> completed;
+        private final AtomicBoolean abandoned;
+        private final Queue<BulkItem> bookings = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger activeLanes = new AtomicInteger();
+        private final Set<BulkItem> outstanding = new LinkedHashSet<>();
+        private volatile boolean stalled;
+
+        BulkLanes(DepartmentService service, BlockingQueue<BulkResult> completed, AtomicBoolean abandoned) {
+            String department = service.getDepartmentName();
+            int maxConcurrent = departmentProperties.maxConcurrent(department);
+            int bulkParallelism = departmentProperties.bulkParallelism(department);
+            this.service = service;
+            this.parallelism = Math.max(1, maxConcurrent > 0 ? Math.min(bulkParallelism, maxConcurrent) : bulkParallelism);
+            this.capacity = this.parallelism * BULK_BOOKINGS_PER_LANE;
+            this.completed = completed;
+            this.abandoned = abandoned;
+        }
+
+        void submit(Booking booking) {
+            BulkItem item = new BulkItem(booking);
+            outstanding.add(item);
+            bookings.add(item);
+            if (tryClaimLane()) {
+                try {
+                    bulkExecutor.execute(this::run);
+                } catch (RuntimeException e) {
+                    activeLanes.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * Gives up on the department: reports its outstanding bookings as timed out and stops its tasks
+         * from starting further bookings.
+         */
+        void stall(BusinessResultSink sink) throws IOException {
+            stalled = true;
+            for (BulkItem item : outstanding) {
+                sink.accept(stalledResult(item.booking));
+            }
+            outstanding.clear();
+        }
+
+        BusinessResult stalledResult(Booking booking) {
+            return BusinessResult.rejected(booking.getBookingId(), booking.getDepartment(), BusinessResult.Status.TIMED_OUT,
+                    "Department " + service.getDepartmentName() + " returned no result within "
+                            + departmentProperties.getBulkResultTimeoutMs() + " ms");
+        }
+
+        private void run() {
+            do {
+                BulkItem item;
+                while (!abandoned.get() && !stalled && (item = bookings.poll()) != null) {
+                    completed.add(new BulkResult(this, item, process(service, item.booking)));
+                }
+                activeLanes.decrementAndGet();
+                // A booking added after the last poll may have found every lane still active
+            } while (!abandoned.get() && !stalled && !bookings.isEmpty() && tryClaimLane());
+        }
+
+        private boolean tryClaimLane() {
+            for (int active = activeLanes.get(); active < parallelism; active = activeLanes.get()) {
+                if (activeLanes.compareAndSet(active, active + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reads the next chunk of bookings. A malformed element takes its place in the chunk as
+     * {@code null} with its outcome already set.
+     *
+     * @return whether the sequence may have more bookings after this chunk
+     */
+    private static boolean readChunk(Iterator<Booking> bookings, int offset, List<Booking> chunk, BatchItemResult[] chunkResults) {
+        while (chunk.size() < BATCH_CHUNK_SIZE) {
+            try {
+                if (!bookings.hasNext()) {
+                    return false;
+                }
+                chunk.add(bookings.next());
+            } catch (MalformedBookingException e) {
+                chunkResults[chunk.size()] = BatchItemResult.malformed(offset + chunk.size(), e.getMessage());
+                chunk.add(null);
+                if (!e.isRecoverable()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void createChunk(int offset, List<Booking> chunk, BatchItemResult[] chunkResults, BatchItemResultSink sink)
+            throws IOException {
+        IntStream.range(0, chunk.size()).parallel()
+                .filter(i -> chunkResults[i] == null)
+                .forEach(i -> chunkResults[i] = validate(offset + i, chunk.get(i)));
+
+        List<Booking> valid = new ArrayList<>(chunk.size());
+        int[] validIndexes = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunkResults[i].getStatus() == BatchItemResult.Status.CREATED) {
+                validIndexes[valid.size()] = i;
+                valid.add(chunk.get(i));
+            }
+        }
+        boolean[] created = bookingRepository.createBookings(valid);
+        for (int v = 0; v < valid.size(); v++) {
+            if (created[v]) {
+                sendEmailForBooking(valid.get(v));
+            } else {
+                int i = validIndexes[v];
+                chunkResults[i] = BatchItemResult.conflict(offset + i, valid.get(v).getBookingId());
+            }
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            sink.accept(chunkResults[i]);
+        }
+        sink.flush();
+    }
+
+    private BatchItemResult validate(int index, Booking booking) {
+        if (booking == null) {
+            return BatchItemResult.invalid(index, null, Map.of(NULL_BOOKING_FIELD, NULL_BOOKING_MESSAGE));
+        }
+        Set<ConstraintViolation<Booking>> violations = validator.validate(booking);
+        if (violations.isEmpty()) {
+            return BatchItemResult.created(index, booking.getBookingId());
+        }
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<Booking> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return BatchItemResult.invalid(index, booking.getBookingId(), errors);
+    }
+
+    /**
+     * Queues a confirmation email for the given booking. The email is delivered asynchronously,
+     * so this method does not wait for the mail to be sent.
      *
      * @param booking the booking for which to send an email; must not be {@code null}
      */
     private void sendEmailForBooking(Booking booking) {
-        System.out.println("Sending email for booking: " + booking);
+        emailDispatcher.submit(booking);
     }
 }
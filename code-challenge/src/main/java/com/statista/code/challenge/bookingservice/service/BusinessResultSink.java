@@ -0,0 +1,27 @@
+package com.statista.code.challenge.bookingservice.service;
+
+import com.statista.code.challenge.bookingservice.model.BusinessResult;
+
+import java.io.IOException;
+
+/**
+ * Receives the results of a bulk processing request as they complete.
+ */
+public interface BusinessResultSink {
+
+    /**
+     * Receives the result of one booking. Called on the thread that submitted the request.
+     *
+     * @param result the result; never {@code null}
+     * @throws IOException if the result cannot be written; the remaining bookings are abandoned
+     */
+    void accept(BusinessResult result) throws IOException;
+
+    /**
+     * Called when no further result is ready, before waiting for the next one.
+     *
+     * @throws IOException if buffered results cannot be written; the remaining bookings are abandoned
+     */
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,87 @@
+package com.statista.code.challenge.bookingservice.service;
+
+import com.statista.code.challenge.bookingservice.exception.UnknownCurrencyException;
+import com.statista.code.challenge.bookingservice.fx.FxRateProvider;
+import com.statista.code.challenge.bookingservice.fx.FxRates;
+import com.statista.code.challenge.bookingservice.model.ConvertedTotal;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Service class that converts booking totals into a reporting currency.
+ * <p>
+ * Totals are computed from the per-currency price summaries maintained by the repository and the
+ * cached conversion factors of the current {@link FxRates}, so a request costs one multiplication
+ * per currency in use and never revisits the bookings.
+ */
+@Service
+public class CurrencyConversionService {
+
+    private final BookingRepository bookingRepository;
+    private final FxRateProvider rateProvider;
+
+    /**
+     * Constructs a new CurrencyConversionService.
+     *
+     * @param bookingRepository the repository providing the per-currency totals
+     * @param rateProvider the provider of the current exchange rates
+     */
+    @Autowired
+    public CurrencyConversionService(BookingRepository bookingRepository, FxRateProvider rateProvider) {
+        this.bookingRepository = bookingRepository;
+        this.rateProvider = rateProvider;
+    }
+
+    /**
+     * Converts the prices of all bookings into the given currency and adds them up.
+     *
+     * @param currency the currency to convert into; matched case-insensitively; must not be {@code null}
+     * @return the converted total and the currencies that could not be converted
+     * @throws UnknownCurrencyException if there is no exchange rate for the currency
+     */
+    public ConvertedTotal getTotalIn(String currency) {
+        FxRates rates = rateProvider.current();
+        Map<String, BigDecimal> factors = rates.factorsTo(currency);
+
+        // Currency codes are registered as written, summaries are kept per upper-cased code
+        Set<String> currencies = new TreeSet<>();
+        for (String used : bookingRepository.getAllCurrencies()) {
+            currencies.add(used.toUpperCase(Locale.ROOT));
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        long count = 0;
+        Set<String> unconverted = new TreeSet<>();
+        for (String source : currencies) {
+            PriceSummary summary = bookingRepository.getPriceSummaryByCurrency(source);
+            if (summary.getCount() == 0) {
+                continue;
+            }
+            BigDecimal factor = factors.get(source);
+            if (factor == null) {
+                unconverted.add(source);
+                continue;
+            }
+            total = total.add(summary.getSum().multiply(factor, MathContext.DECIMAL64));
+            count += summary.getCount();
+        }
+        return new ConvertedTotal(currency.toUpperCase(Locale.ROOT), total.round(MathContext.DECIMAL64),
+                count, rates.getVersion(), unconverted);
+    }
+
+    /**
+     * @return the exchange rates currently in effect
+     */
+    public FxRates getRates() {
+        return rateProvider.current();
+    }
+}
@@ -0,0 +1,112 @@
+package com.statista.code.challenge.bookingservice.service;
+
+import com.statista.code.challenge.bookingservice.config.DepartmentProperties;
+import com.statista.code.challenge.bookingservice.exception.DepartmentRejectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Dispatch limits of one department: a bulkhead capping the bookings processed concurrently, a
+ * token bucket capping the rate at which bookings are accepted, and a timeout on waiting for the
+ * result. Bookings over a limit are rejected immediately with a {@link DepartmentRejectedException}
+ * rather than queued, so a slow department cannot tie up the threads of the others.
+ * <p>
+ * A booking keeps its bulkhead permit until the department actually finishes it, including after
+ * its caller has timed out. The work of a department with a timeout always runs on a virtual thread of
+ * its own rather than on the department executor, which may run it on the calling thread, so that the
+ * caller can stop waiting when the timeout expires. The bulkhead, if set, bounds how many such threads
+ * a slow department keeps busy.
+ */
+final class DepartmentGuard {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final Executor TIMED_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("department-timed-", 0).factory());
+
+    private final String department;
+    private final Semaphore bulkhead;
+    private final long timeoutMillis;
+
+    // Token bucket state, guarded by this
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    DepartmentGuard(String department, DepartmentProperties properties) {
+        this.department = department;
+        int maxConcurrent = properties.maxConcurrent(department);
+        this.bulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.timeoutMillis = properties.timeoutMillis(department);
+        this.tokensPerNano = properties.ratePerSecond(department) / NANOS_PER_SECOND;
+        this.capacity = properties.burst(department);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Runs the department's work within the department's limits and waits for its result. The work runs
+     * on the given executor, or on a virtual thread if the department has a timeout.
+     *
+     * @throws DepartmentRejectedException if a limit is exhausted or the work does not finish in time
+     */
+    String call(Supplier<String> work, Executor executor) {
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            throw new DepartmentRejectedException(department, DepartmentRejectedException.Reason.BULKHEAD_FULL);
+        }
+        CompletableFuture<String> future;
+        try {
+            if (!tryAcquireToken()) {
+                throw new DepartmentRejectedException(department, DepartmentRejectedException.Reason.RATE_LIMITED);
+            }
+            future = CompletableFuture.supplyAsync(work, timeoutMillis > 0 ? TIMED_EXECUTOR : executor);
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+        future.whenComplete((result, failure) -> release());
+        try {
+            return timeoutMillis > 0 ? future.get(timeoutMillis, TimeUnit.MILLISECONDS) : future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DepartmentRejectedException(department, DepartmentRejectedException.Reason.TIMED_OUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for department " + department, e);
+        }
+    }
+
+    private synchronized boolean tryAcquireToken() {
+        if (tokensPerNano == 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private void release() {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+}
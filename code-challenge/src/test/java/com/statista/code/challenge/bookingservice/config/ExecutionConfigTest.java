@@ -0,0 +1,33 @@
+package com.statista.code.challenge.bookingservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionConfigTest {
+
+    private final ExecutionConfig executionConfig = new ExecutionConfig();
+
+    @Test
+    void departmentExecutor_ShouldRunOnVirtualThreads_WhenEnabled() throws Exception {
+        Executor executor = executionConfig.departmentExecutor(true);
+
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("department-virtual-"));
+    }
+
+    @Test
+    void departmentExecutor_ShouldRunOnCallingThread_WhenDisabled() throws Exception {
+        Executor executor = executionConfig.departmentExecutor(false);
+
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+
+        assertSame(Thread.currentThread(), thread);
+    }
+}
@@ -1,7 +1,20 @@
 package com.statista.code.challenge.bookingservice.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.statista.code.challenge.bookingservice.exception.BookingConflictException;
+import com.statista.code.challenge.bookingservice.exception.BookingNotFoundException;
+import com.statista.code.challenge.bookingservice.exception.IdempotencyKeyReusedException;
+import com.statista.code.challenge.bookingservice.exception.MalformedBookingException;
+import com.statista.code.challenge.bookingservice.exception.PreconditionFailedException;
+import com.statista.code.challenge.bookingservice.model.BatchItemResult;
 import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingIdPage;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.service.BatchItemResultSink;
 import com.statista.code.challenge.bookingservice.service.BookingService;
+import com.statista.code.challenge.bookingservice.service.CurrencyConversionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -9,21 +22,34 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class BookingControllerTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -32,46 +58,166 @@ class BookingControllerTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    private BookingController cachingController() {
+        return new BookingController(bookingService, currencyConversionService, new ResponseCache(OBJECT_MAPPER, 16),
+                new IdempotencyCache(16, 60_000), OBJECT_MAPPER);
+    }
+
     @Test
     void createBooking_ShouldReturnCreatedStatus() {
         Booking booking = new Booking("1", "Test Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        when(bookingService.createBooking(booking)).thenReturn("a-1");
 
-        ResponseEntity<Void> response = bookingController.createBooking(booking);
+        ResponseEntity<Void> response = bookingController.createBooking(booking, null);
 
         verify(bookingService, times(1)).createBooking(booking);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("\"a-1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void createBooking_ShouldReplayResponse_WhenIdempotencyKeyIsRepeated() {
+        BookingController controller = cachingController();
+        Booking booking = new Booking("1", "Test Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        when(bookingService.createBooking(booking)).thenReturn("a-1").thenThrow(new BookingConflictException("1"));
+
+        ResponseEntity<Void> first = controller.createBooking(booking, "key-1");
+        ResponseEntity<Void> retry = controller.createBooking(booking, "key-1");
+
+        verify(bookingService, times(1)).createBooking(booking);
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getHeaders().getETag(), retry.getHeaders().getETag());
+        assertThrows(BookingConflictException.class, () -> controller.createBooking(booking, "key-2"));
+    }
+
+    @Test
+    void createBooking_ShouldRejectIdempotencyKeyReusedForAnotherBooking() {
+        BookingController controller = cachingController();
+        Booking booking = new Booking("1", "Test Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        Booking other = new Booking("2", "Other Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        when(bookingService.createBooking(booking)).thenReturn("a-1");
+        controller.createBooking(booking, "key-1");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> controller.createBooking(other, "key-1"));
+        verify(bookingService, never()).createBooking(other);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBookings_ShouldReadNewlineDelimitedBookings() throws Exception {
+        BookingController controller = new BookingController(bookingService, currencyConversionService, null, null, new ObjectMapper().registerModule(new JavaTimeModule()));
+        String body = """
+                {"bookingId":"1","description":"Booking 1","price":100.0,"currency":"USD","subscriptionStartDate":"2023-01-01","email":"test1@example.com","department":"sales"}
+                {"bookingId":"2","description":"Booking 2","price":150.0,"currency":"EUR","subscriptionStartDate":"2023-01-02","email":"test2@example.com","department":"it"}
+                """;
+        List<BatchItemResult> results = List.of(BatchItemResult.created(0, "1"), BatchItemResult.created(1, "2"));
+        doAnswer(invocation -> {
+            Iterator<Booking> bookings = invocation.getArgument(0);
+            BatchItemResultSink sink = invocation.getArgument(1);
+            assertEquals("1", bookings.next().getBookingId());
+            assertEquals(LocalDate.of(2023, 1, 2), bookings.next().getSubscriptionStartDate());
+            assertFalse(bookings.hasNext());
+            for (BatchItemResult result : results) {
+                sink.accept(result);
+            }
+            return null;
+        }).when(bookingService).createBookings(any(Iterator.class), any(BatchItemResultSink.class));
+
+        ResponseEntity<StreamingResponseBody> response = controller.createBookings(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(OBJECT_MAPPER.writeValueAsString(results), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createBookings_ShouldReportMalformedElements() throws Exception {
+        BookingController controller = new BookingController(bookingService, currencyConversionService, null, null, new ObjectMapper().registerModule(new JavaTimeModule()));
+        String body = "[{\"bookingId\":\"1\"},{\"bookingId\":\"2\",\"price\":\"cheap\"},{\"bookingId\":\"3\"},{\"bookingId\":}, {\"bookingId\":\"5\"}]";
+        doAnswer(invocation -> {
+            Iterator<Booking> bookings = invocation.getArgument(0);
+            assertEquals("1", bookings.next().getBookingId());
+            MalformedBookingException mapping = assertThrows(MalformedBookingException.class, bookings::next);
+            assertTrue(mapping.isRecoverable());
+            assertTrue(mapping.getMessage().contains("cheap"), mapping.getMessage());
+            assertEquals("3", bookings.next().getBookingId());
+            MalformedBookingException syntax = assertThrows(MalformedBookingException.class, bookings::next);
+            assertFalse(syntax.isRecoverable());
+            assertFalse(bookings.hasNext());
+            return null;
+        }).when(bookingService).createBookings(any(Iterator.class), any(BatchItemResultSink.class));
+
+        ResponseEntity<StreamingResponseBody> response = controller.createBookings(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        verify(bookingService).createBookings(any(Iterator.class), any(BatchItemResultSink.class));
+        assertEquals("[]", output.toString(StandardCharsets.UTF_8));
     }
 
     @Test
     void updateBooking_ShouldReturnOkStatus() {
         Booking booking = new Booking("1", "Updated Booking", 150.0, "EUR", LocalDate.now(), "update@example.com", "support");
 
-        ResponseEntity<Void> response = bookingController.updateBooking("1", booking);
+        ResponseEntity<Void> response = bookingController.updateBooking("1", booking, null);
 
         verify(bookingService, times(1)).updateBooking("1", booking);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
-    void getBooking_ShouldReturnBooking_WhenBookingExists() {
+    @SuppressWarnings("unchecked")
+    void updateBooking_ShouldPassIfMatchAsPrecondition() {
+        Booking booking = new Booking("1", "Updated Booking", 150.0, "EUR", LocalDate.now(), "update@example.com", "support");
+        when(bookingService.updateBooking(eq("1"), eq(booking), any(Predicate.class))).thenAnswer(invocation -> {
+            Predicate<String> precondition = invocation.getArgument(2);
+            if (!precondition.test("a-1") || precondition.test("a-2")) {
+                throw new PreconditionFailedException("1");
+            }
+            return "a-3";
+        });
+
+        ResponseEntity<Void> response = bookingController.updateBooking("1", booking, "\"a-0\", \"a-1\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"a-3\"", response.getHeaders().getETag());
+        assertThrows(PreconditionFailedException.class, () -> bookingController.updateBooking("1", booking, "W/\"a-1\""));
+    }
+
+    @Test
+    void getBooking_ShouldReturnBooking_WhenBookingExists() throws Exception {
         Booking booking = new Booking("1", "Test Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        when(bookingService.getBookingVersionTag("1")).thenReturn("a-1");
         when(bookingService.getBooking("1")).thenReturn(booking);
 
-        ResponseEntity<Booking> response = bookingController.getBooking("1");
+        ResponseEntity<byte[]> response = cachingController().getBooking("1", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"a-1\"", response.getHeaders().getETag());
         assertNotNull(response.getBody());
-        assertEquals(booking, response.getBody());
+        assertEquals(booking, OBJECT_MAPPER.readValue(response.getBody(), Booking.class));
     }
 
     @Test
-    void getBooking_ShouldReturnNotFound_WhenBookingDoesNotExist() {
-        when(bookingService.getBooking("1")).thenReturn(null);
+    void getBooking_ShouldReturnNotModified_WhenETagMatches() {
+        when(bookingService.getBookingVersionTag("1")).thenReturn("a-1");
 
-        ResponseEntity<Booking> response = bookingController.getBooking("1");
+        ResponseEntity<byte[]> response = cachingController().getBooking("1", "\"a-0\", W/\"a-1\"");
 
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
         assertNull(response.getBody());
+        verify(bookingService, never()).getBooking("1");
+    }
+
+    @Test
+    void getBooking_ShouldPropagateNotFound_WhenBookingDoesNotExist() {
+        when(bookingService.getBookingVersionTag("1")).thenThrow(new BookingNotFoundException("Booking not found for ID: 1"));
+
+        assertThrows(BookingNotFoundException.class, () -> cachingController().getBooking("1", null));
     }
 
     @Test
@@ -96,26 +242,96 @@ class BookingControllerTest {
     }
 
     @Test
-    void getAllCurrencies_ShouldReturnListOfCurrencies() {
+    void getBookingsByDepartmentPage_ShouldReturnPage() {
+        BookingIdPage page = new BookingIdPage(List.of("1", "2"), "Mg");
+        when(bookingService.getBookingsByDepartment("sales", null, 2)).thenReturn(page);
+
+        ResponseEntity<BookingIdPage> response = bookingController.getBookingsByDepartmentPage("sales", null, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void getBookingsByDepartmentPage_ShouldCapPageSizeAndReturnEmptyLaterPages() {
+        BookingIdPage empty = new BookingIdPage(List.of(), null);
+        when(bookingService.getBookingsByDepartment(eq("sales"), any(), eq(10_000))).thenReturn(empty);
+
+        assertEquals(HttpStatus.NOT_FOUND, bookingController.getBookingsByDepartmentPage("sales", null, 1_000_000).getStatusCode());
+        assertEquals(HttpStatus.OK, bookingController.getBookingsByDepartmentPage("sales", "Mg", 1_000_000).getStatusCode());
+    }
+
+    @Test
+    void streamBookingsByDepartment_ShouldWriteNewlineDelimitedIds() throws Exception {
+        BookingController controller = new BookingController(bookingService, currencyConversionService, null, null, new ObjectMapper());
+        when(bookingService.iterateBookingsByDepartment("sales")).thenReturn(List.of("1", "with \"quote\"").iterator());
+
+        ResponseEntity<StreamingResponseBody> response = controller.streamBookingsByDepartment("sales");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1\"\n\"with \\\"quote\\\"\"\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamBookingsByDepartment_ShouldReturnNotFound_WhenNoBookingsInDepartment() {
+        when(bookingService.iterateBookingsByDepartment("sales")).thenReturn(Collections.emptyIterator());
+
+        assertEquals(HttpStatus.NOT_FOUND, bookingController.streamBookingsByDepartment("sales").getStatusCode());
+    }
+
+    @Test
+    void getAllCurrencies_ShouldReturnListOfCurrencies() throws Exception {
         Set<String> currencies = new HashSet<>(Arrays.asList("USD", "EUR"));
+        when(bookingService.getVersionTag()).thenReturn("a-2");
         when(bookingService.getAllCurrencies()).thenReturn(currencies);
 
-        ResponseEntity<Set<String>> response = bookingController.getAllCurrencies();
+        ResponseEntity<byte[]> response = cachingController().getAllCurrencies(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(currencies, response.getBody());
+        assertEquals(currencies, OBJECT_MAPPER.readValue(response.getBody(), new TypeReference<Set<String>>() { }));
     }
 
     @Test
-    void getSumByCurrency_ShouldReturnSumOfPricesInCurrency() {
+    void getSumByCurrency_ShouldReturnSumOfPricesInCurrency() throws Exception {
+        when(bookingService.getVersionTag()).thenReturn("a-2");
         when(bookingService.getSumByCurrency("USD")).thenReturn(250.0);
 
-        ResponseEntity<Double> response = bookingController.getSumByCurrency("USD");
+        ResponseEntity<byte[]> response = cachingController().getSumByCurrency("USD", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(250.0, response.getBody());
+        assertEquals(250.0, OBJECT_MAPPER.readValue(response.getBody(), Double.class));
+    }
+
+    @Test
+    void getSumByCurrency_ShouldServeCachedBodyUntilVersionChanges() {
+        BookingController controller = cachingController();
+        when(bookingService.getVersionTag()).thenReturn("a-2");
+        when(bookingService.getSumByCurrency(anyString())).thenReturn(250.0, 300.0);
+
+        controller.getSumByCurrency("USD", null);
+        controller.getSumByCurrency("usd", null);
+        verify(bookingService, times(1)).getSumByCurrency(anyString());
+
+        when(bookingService.getVersionTag()).thenReturn("a-3");
+        ResponseEntity<byte[]> response = controller.getSumByCurrency("USD", "\"a-2\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("300.0", new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getPriceSummaryByCurrency_ShouldReturnSummary() {
+        PriceSummary summary = new PriceSummary(2, new BigDecimal("250"), new BigDecimal("100"), new BigDecimal("150"));
+        when(bookingService.getPriceSummaryByCurrency("USD")).thenReturn(summary);
+
+        ResponseEntity<PriceSummary> response = bookingController.getPriceSummaryByCurrency("USD");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summary, response.getBody());
     }
 
     @Test
@@ -0,0 +1,67 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import com.statista.code.challenge.bookingservice.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final IdempotencyCache cache = new IdempotencyCache(100, 60_000);
+
+    @Test
+    void execute_ShouldReturnFirstOutcome_WhenKeyIsRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = cache.execute("key", "request", () -> "outcome " + calls.incrementAndGet());
+        String retry = cache.execute("key", "request", () -> "outcome " + calls.incrementAndGet());
+
+        assertEquals("outcome 1", first);
+        assertEquals("outcome 1", retry);
+        assertThrows(IdempotencyKeyReusedException.class, () -> cache.execute("key", "other request", () -> "other"));
+    }
+
+    @Test
+    void execute_ShouldReleaseWaitingRetryAndForgetKey_WhenActionFailsWithError() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() -> cache.execute("key", "request", () -> {
+            started.countDown();
+            awaitUninterruptibly(fail);
+            throw new AssertionError("Broken action");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> cache.execute("key", "request", () -> "second"));
+
+        fail.countDown();
+
+        ExecutionException originalFailure = assertThrows(ExecutionException.class, () -> original.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, originalFailure.getCause());
+        // The retry either waited for the original and got its error, or ran itself after the key was forgotten
+        String expected;
+        try {
+            expected = waiting.get(5, TimeUnit.SECONDS);
+            assertEquals("second", expected);
+        } catch (ExecutionException e) {
+            assertInstanceOf(AssertionError.class, e.getCause());
+            expected = "third";
+        }
+        assertEquals(expected, assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cache.execute("key", "request", () -> "third")));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
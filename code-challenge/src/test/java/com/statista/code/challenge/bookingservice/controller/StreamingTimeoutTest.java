@@ -0,0 +1,66 @@
+package com.statista.code.challenge.bookingservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.mvc.async.request-timeout=500")
+class StreamingTimeoutTest {
+
+    private static final long PAST_DEFAULT_TIMEOUT_MILLIS = 1_500;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void changeStream_ShouldOutliveDefaultAsyncTimeout() throws Exception {
+        HttpResponse<Stream<String>> response = client.send(HttpRequest.newBuilder(uri("/changes"))
+                .header("Accept", "application/x-ndjson").build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread reader = Thread.ofVirtual().start(() -> response.body().forEach(lines::add));
+        try {
+            Thread.sleep(PAST_DEFAULT_TIMEOUT_MILLIS);
+            assertEquals(201, post("/bookings", objectMapper.writeValueAsString(booking("stream-1"))));
+
+            String line = lines.poll(5, TimeUnit.SECONDS);
+            while (line != null && line.isEmpty()) {
+                line = lines.poll(5, TimeUnit.SECONDS);
+            }
+            assertNotNull(line, "the change stream ended before the change was published");
+            assertTrue(line.contains("stream-1"), line);
+        } finally {
+            reader.interrupt();
+            response.body().close();
+        }
+    }
+
+    private int post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/bookingservice" + path);
+    }
+}
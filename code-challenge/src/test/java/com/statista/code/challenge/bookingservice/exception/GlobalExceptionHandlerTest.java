@@ -65,6 +65,17 @@ class GlobalExceptionHandlerTest {
         assertEquals("Department not found. Unknown", response.getBody());
     }
 
+    @Test
+    void handleDepartmentRejectedException() {
+        // Prepare exceptions
+        DepartmentRejectedException rateLimited = new DepartmentRejectedException("sales", DepartmentRejectedException.Reason.RATE_LIMITED);
+        DepartmentRejectedException timedOut = new DepartmentRejectedException("sales", DepartmentRejectedException.Reason.TIMED_OUT);
+
+        // Call the method under test and assert the responses
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, globalExceptionHandler.handleDepartmentRejectedException(rateLimited).getStatusCode());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, globalExceptionHandler.handleDepartmentRejectedException(timedOut).getStatusCode());
+    }
+
     @Test
     void handleGeneralExceptions() {
         // Prepare exception
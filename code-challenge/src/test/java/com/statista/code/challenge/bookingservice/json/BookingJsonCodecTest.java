@@ -0,0 +1,154 @@
+package com.statista.code.challenge.bookingservice.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJsonCodecTest {
+
+    // Configured like the object mapper Spring Boot creates for the application
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    // Needs escaping and multi-byte UTF-8
+    private static final String DESCRIPTION = "Test \"Booking\" é€";
+
+    private final BookingJsonCodec codec = new BookingJsonCodec(OBJECT_MAPPER.getFactory());
+
+    @Test
+    void encode_ShouldWriteSameJsonAsObjectMapper() throws Exception {
+        Booking withNulls = new Booking(null, null, 0.0, null, null, null, null);
+        Booking farFuture = new Booking("2", "x", 1e-7, "EUR", LocalDate.of(12345, 12, 31), "a@b.c", "it");
+
+        for (Booking booking : new Booking[]{booking("1", DESCRIPTION, 100.25, "USD", "sales"), withNulls, farFuture}) {
+            assertEquals(OBJECT_MAPPER.writeValueAsString(booking), new String(codec.encode(booking), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void decode_ShouldReadJsonWrittenByObjectMapper() throws Exception {
+        Booking booking = booking("1", DESCRIPTION, 100.25, "USD", "sales");
+
+        assertEquals(booking, codec.decode(OBJECT_MAPPER.writeValueAsBytes(booking)));
+        assertEquals(booking, OBJECT_MAPPER.readValue(codec.encode(booking), Booking.class));
+    }
+
+    @Test
+    void decode_ShouldReadFieldsInAnyOrderAndSkipUnknownFields() throws Exception {
+        String json = """
+                {"department":"sales","extra":{"nested":[1,{"a":null}]},"subscriptionStartDate":"2023-01-01",
+                 "email":"test@example.com","currency":"USD","price":100.25,"bookingId":"1",
+                 "description":"Test \\"Booking\\" \\u00e9\\u20ac","unknown":true}""";
+
+        assertEquals(booking("1", DESCRIPTION, 100.25, "USD", "sales"), codec.decode(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void decode_ShouldAcceptTheValueFormsOfDataBinding() throws Exception {
+        String[] documents = {
+                "{\"bookingId\":1,\"price\":\"100.5\",\"subscriptionStartDate\":[2023,1,1]}",
+                "{\"bookingId\":\"1\",\"price\":100.5,\"subscriptionStartDate\":\" 2023-01-01 \"}",
+                "{\"bookingId\":\"1\",\"price\":100.5,\"subscriptionStartDate\":19358}"
+        };
+
+        for (String document : documents) {
+            Booking expected = OBJECT_MAPPER.readValue(document, Booking.class);
+            Booking actual = codec.decode(document.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(expected, actual, document);
+            assertEquals(new Booking("1", null, 100.5, null, LocalDate.of(2023, 1, 1), null, null), actual, document);
+        }
+    }
+
+    @Test
+    void decode_ShouldCutDateTimesToTheirDate() throws Exception {
+        for (String dateTime : new String[]{"2023-01-01T10:15:30", "2023-01-01T23:59:59.999Z"}) {
+            String json = "{\"subscriptionStartDate\":\"" + dateTime + "\"}";
+
+            assertEquals(LocalDate.of(2023, 1, 1), codec.decode(json.getBytes(StandardCharsets.UTF_8)).getSubscriptionStartDate());
+        }
+    }
+
+    @Test
+    void decode_ShouldReadNulls() throws Exception {
+        Booking booking = codec.decode("{\"bookingId\":null,\"price\":null,\"subscriptionStartDate\":null}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new Booking(), booking);
+    }
+
+    @Test
+    void decode_ShouldRejectInvalidInput() {
+        String[] documents = {"", "[]", "\"booking\"", "{\"subscriptionStartDate\":\"2023-02-30\"}",
+                "{\"subscriptionStartDate\":\"yesterday\"}", "{\"price\":\"cheap\"}", "{\"price\":true}",
+                "{\"bookingId\":{\"id\":1}}", "{\"bookingId\":\"1\""};
+
+        for (String document : documents) {
+            assertThrows(JsonParseException.class, () -> codec.decode(document.getBytes(StandardCharsets.UTF_8)), document);
+        }
+    }
+
+    @Test
+    void write_ShouldLeaveStreamOpen() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        codec.write(booking("1", DESCRIPTION, 100.25, "USD", "sales"), output);
+        output.write('\n');
+        codec.write(booking("1", DESCRIPTION, 100.25, "USD", "sales"), output);
+
+        String expected = OBJECT_MAPPER.writeValueAsString(booking("1", DESCRIPTION, 100.25, "USD", "sales"));
+        assertEquals(expected + "\n" + expected, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void converter_ShouldReadAndWriteBookingsOnly() throws Exception {
+        BookingHttpMessageConverter converter = new BookingHttpMessageConverter(codec);
+        MockHttpInputMessage input = new MockHttpInputMessage(OBJECT_MAPPER.writeValueAsBytes(booking("1", DESCRIPTION, 100.25, "USD", "sales")));
+        input.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        assertEquals(booking("1", DESCRIPTION, 100.25, "USD", "sales"), converter.read(Booking.class, input));
+        converter.write(booking("1", DESCRIPTION, 100.25, "USD", "sales"), MediaType.APPLICATION_JSON, output);
+
+        assertEquals(OBJECT_MAPPER.writeValueAsString(booking("1", DESCRIPTION, 100.25, "USD", "sales")), output.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+        assertFalse(converter.canRead(String.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(Booking.class, MediaType.TEXT_PLAIN));
+    }
+
+    @Test
+    void converter_ShouldDecodeDeclaredCharset() throws Exception {
+        BookingHttpMessageConverter converter = new BookingHttpMessageConverter(codec);
+        Booking booking = booking("1", DESCRIPTION, 100.25, "USD", "sales");
+        booking.setDescription("Test é");
+        MockHttpInputMessage input = new MockHttpInputMessage(
+                OBJECT_MAPPER.writeValueAsString(booking).getBytes(StandardCharsets.ISO_8859_1));
+        input.getHeaders().setContentType(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.ISO_8859_1));
+
+        assertEquals(booking, converter.read(Booking.class, input));
+    }
+
+    @Test
+    void converter_ShouldReportMalformedBodyAsNotReadable() {
+        BookingHttpMessageConverter converter = new BookingHttpMessageConverter(codec);
+        MockHttpInputMessage input = new MockHttpInputMessage("{\"price\":".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Booking.class, input));
+    }
+}
@@ -0,0 +1,69 @@
+package com.statista.code.challenge.bookingservice.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrometheusWriterTest {
+
+    @Test
+    void histogramIndex_ShouldPlaceValuesInBucketsBoundedByTheirUpperBound() {
+        long[] values = {0L, 1_000L, 1_024L, 1_536L, 2_047L, 50_000L, 1_000_000L, 3_000_000_000L, Long.MAX_VALUE};
+
+        for (long value : values) {
+            int bucket = LatencyHistogram.index(value);
+            assertTrue(value < LatencyHistogram.upperBoundNanos(bucket) || bucket == LatencyHistogram.BUCKETS - 1);
+            assertTrue(bucket == 0 || value >= LatencyHistogram.upperBoundNanos(bucket - 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    void histogramBuckets_ShouldBeNoWiderThanAnEighthOfTheirLowerBound() {
+        for (int bucket = 2; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long lower = LatencyHistogram.upperBoundNanos(bucket - 1);
+            long width = LatencyHistogram.upperBoundNanos(bucket) - lower;
+
+            assertTrue(width * 8 <= lower, "bucket " + bucket);
+        }
+    }
+
+    @Test
+    void histogram_ShouldWriteCumulativeBucketsSumAndCount() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500L);
+        histogram.record(1_600L);
+        histogram.record(1_600L);
+
+        String text = new PrometheusWriter().histogram("op_seconds", "Latency.", histogram, "operation", "get").toString();
+
+        assertTrue(text.startsWith("# HELP op_seconds Latency.\n# TYPE op_seconds histogram\n"));
+        assertTrue(text.contains("op_seconds_bucket{operation=\"get\",le=\"1.024E-6\"} 1\n"));
+        assertTrue(text.contains("op_seconds_bucket{operation=\"get\",le=\"1.536E-6\"} 1\n"));
+        assertTrue(text.contains("op_seconds_bucket{operation=\"get\",le=\"2.048E-6\"} 3\n"));
+        assertTrue(text.contains("op_seconds_bucket{operation=\"get\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("op_seconds_sum{operation=\"get\"} " + 3_700L / 1e9 + "\n"));
+        assertTrue(text.contains("op_seconds_count{operation=\"get\"} 3\n"));
+    }
+
+    @Test
+    void gauge_ShouldDeclareFamilyOnceAndEscapeLabelValues() {
+        String text = new PrometheusWriter()
+                .gauge("size", "Size.", 1, "name", "a\"b")
+                .gauge("size", "Size.", 2.5, "name", "c")
+                .toString();
+
+        assertEquals("# HELP size Size.\n# TYPE size gauge\nsize{name=\"a\\\"b\"} 1\nsize{name=\"c\"} 2.5\n", text);
+    }
+
+    @Test
+    void operationMetrics_ShouldNotRecordWhenDisabled() {
+        OperationMetrics<Thread.State> metrics = new OperationMetrics<>(Thread.State.class, false);
+        metrics.record(Thread.State.NEW, metrics.start(Thread.State.NEW));
+        PrometheusWriter writer = new PrometheusWriter();
+
+        metrics.write(writer, "op_seconds", "Latency.");
+
+        assertEquals("", writer.toString());
+    }
+}
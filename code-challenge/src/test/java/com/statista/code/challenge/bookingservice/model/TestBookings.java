@@ -0,0 +1,32 @@
+package com.statista.code.challenge.bookingservice.model;
+
+import java.time.LocalDate;
+
+/**
+ * Bookings for tests. Unless given, a booking is described as {@code "Booking <id>"}, costs 100.0 USD,
+ * starts on 2023-01-01, is for {@code test@example.com} and belongs to sales.
+ */
+public final class TestBookings {
+
+    private static final LocalDate START_DATE = LocalDate.of(2023, 1, 1);
+    private static final String EMAIL = "test@example.com";
+
+    private TestBookings() {
+    }
+
+    public static Booking booking(String bookingId) {
+        return booking(bookingId, 100.0, "sales");
+    }
+
+    public static Booking booking(String bookingId, double price, String department) {
+        return booking(bookingId, price, "USD", department);
+    }
+
+    public static Booking booking(String bookingId, double price, String currency, String department) {
+        return booking(bookingId, "Booking " + bookingId, price, currency, department);
+    }
+
+    public static Booking booking(String bookingId, String description, double price, String currency, String department) {
+        return new Booking(bookingId, description, price, currency, START_DATE, EMAIL, department);
+    }
+}
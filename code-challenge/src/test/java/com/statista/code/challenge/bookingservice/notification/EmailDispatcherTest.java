@@ -0,0 +1,119 @@
+package com.statista.code.challenge.bookingservice.notification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailDispatcherTest {
+
+    private InMemoryEmailSender sender;
+
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        sender = new InMemoryEmailSender();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldDeliverEmailsInBatches() throws Exception {
+        dispatcher = new EmailDispatcher(sender, 1000, 50, 1, 3, 1, 10, 10);
+        for (int i = 0; i < 200; i++) {
+            dispatcher.submit(booking(String.valueOf(i)));
+        }
+
+        dispatcher.start();
+        awaitCondition(() -> sender.getSentMessages().size() == 200);
+
+        assertTrue(sender.getBatchCount() <= 200 / 50 + 1);
+        assertEquals("test@example.com", sender.getSentMessages().get(0).getRecipient());
+        assertEquals(200, dispatcher.getMetrics().getSent());
+        assertEquals(0, dispatcher.getMetrics().getQueueDepth());
+    }
+
+    @Test
+    void submit_ShouldRetryFailedBatchesWithBackoff() throws Exception {
+        dispatcher = new EmailDispatcher(sender, 100, 10, 1, 3, 1, 10, 10);
+        dispatcher.start();
+        sender.failNextBatches(2);
+
+        dispatcher.submit(booking("1"));
+        awaitCondition(() -> sender.getSentMessages().size() == 1);
+
+        EmailMetrics metrics = dispatcher.getMetrics();
+        assertEquals(2, metrics.getFailedBatches());
+        assertEquals(2, metrics.getRetried());
+        assertEquals(0, metrics.getDeadLettered());
+        assertTrue(dispatcher.getDeadLetters().isEmpty());
+    }
+
+    @Test
+    void submit_ShouldDeadLetterAfterMaxAttempts() throws Exception {
+        dispatcher = new EmailDispatcher(sender, 100, 10, 1, 3, 1, 10, 10);
+        dispatcher.start();
+        sender.failNextBatches(Integer.MAX_VALUE);
+
+        dispatcher.submit(booking("1"));
+        awaitCondition(() -> !dispatcher.getDeadLetters().isEmpty());
+
+        List<DeadLetter> deadLetters = dispatcher.getDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals("1", deadLetters.get(0).getMessage().getBookingId());
+        assertEquals(3, deadLetters.get(0).getAttempts());
+        assertTrue(sender.getSentMessages().isEmpty());
+    }
+
+    @Test
+    void submit_ShouldRejectWithoutBlockingWhenQueueIsFull() {
+        dispatcher = new EmailDispatcher(sender, 2, 10, 1, 3, 1, 10, 10);
+
+        assertTrue(dispatcher.submit(booking("1")));
+        assertTrue(dispatcher.submit(booking("2")));
+        assertFalse(dispatcher.submit(booking("3")));
+
+        assertEquals(1, dispatcher.getMetrics().getRejected());
+        assertEquals(2, dispatcher.getMetrics().getQueueDepth());
+        assertEquals("3", dispatcher.getDeadLetters().get(0).getMessage().getBookingId());
+    }
+
+    @Test
+    void stop_ShouldDeadLetterRetriesWaitingForTheirBackoff() throws Exception {
+        dispatcher = new EmailDispatcher(sender, 100, 10, 1, 3, 60_000, 60_000, 10);
+        dispatcher.start();
+        sender.failNextBatches(1);
+
+        dispatcher.submit(booking("1"));
+        awaitCondition(() -> dispatcher.getMetrics().getRetried() == 1);
+        dispatcher.stop();
+
+        List<DeadLetter> deadLetters = dispatcher.getDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals("1", deadLetters.get(0).getMessage().getBookingId());
+        assertEquals(1, deadLetters.get(0).getAttempts());
+        assertEquals(1, dispatcher.getMetrics().getDeadLettered());
+        assertTrue(sender.getSentMessages().isEmpty());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingRepositoryConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int BOOKINGS_PER_THREAD = 2_000;
+    private static final int UPDATES_PER_BOOKING = 3;
+
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = new BookingRepository();
+    }
+
+    @Test
+    void concurrentAddAndUpdate_ShouldNotLoseAnyWrites() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                String bookingId = thread + "-" + i;
+                bookingRepository.addBooking(booking(bookingId, 1.0, "sales"));
+                for (int update = 1; update <= UPDATES_PER_BOOKING; update++) {
+                    bookingRepository.updateBooking(bookingId, booking(bookingId, 1.0 + update, "support"));
+                }
+            }
+        });
+
+        Collection<Booking> allBookings = bookingRepository.getAllBookings();
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, allBookings.size());
+
+        Set<String> seen = new HashSet<>();
+        for (Booking booking : allBookings) {
+            assertTrue(seen.add(booking.getBookingId()), "Duplicate booking " + booking.getBookingId());
+            assertEquals(1.0 + UPDATES_PER_BOOKING, booking.getPrice(), 0.0);
+            assertEquals("support", booking.getDepartment());
+        }
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, bookingRepository.getBookingsByDepartment("support").size());
+        assertTrue(bookingRepository.getBookingsByDepartment("sales").isEmpty());
+        assertEquals(THREADS * BOOKINGS_PER_THREAD * (1.0 + UPDATES_PER_BOOKING),
+                bookingRepository.getSumByCurrency("USD"), 0.001);
+    }
+
+    @Test
+    void concurrentAddAndUpdate_ShouldKeepPriceSummaryExact() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                String bookingId = thread + "-" + i;
+                bookingRepository.addBooking(booking(bookingId, thread + 1.0, "sales"));
+                bookingRepository.updateBooking(bookingId, booking(bookingId, thread + 101.0, "sales"));
+            }
+        });
+
+        PriceSummary summary = bookingRepository.getPriceSummaryByCurrency("USD");
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, summary.getCount());
+        long expectedSum = 0;
+        for (int thread = 0; thread < THREADS; thread++) {
+            expectedSum += (thread + 101L) * BOOKINGS_PER_THREAD;
+        }
+        assertEquals(0, BigDecimal.valueOf(expectedSum).compareTo(summary.getSum()));
+        assertEquals(0, BigDecimal.valueOf(101).compareTo(summary.getMin()));
+        assertEquals(0, BigDecimal.valueOf(THREADS + 100).compareTo(summary.getMax()));
+    }
+
+    @Test
+    void concurrentUpdatesOfSameBookings_ShouldKeepOneEntryPerBooking() throws Exception {
+        int sharedBookings = 16;
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                String bookingId = "shared-" + (i % sharedBookings);
+                bookingRepository.updateBooking(bookingId, booking(bookingId, thread + 1.0, "it"));
+            }
+        });
+
+        Collection<Booking> allBookings = bookingRepository.getAllBookings();
+        assertEquals(sharedBookings, allBookings.size());
+        assertEquals(sharedBookings, bookingRepository.getBookingsByDepartment("it").size());
+        for (Booking booking : allBookings) {
+            assertEquals(booking, bookingRepository.getBooking(booking.getBookingId()));
+        }
+    }
+
+    @Test
+    void getAllBookings_ShouldPreserveInsertionOrderPerWriter() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                bookingRepository.addBooking(booking(thread + "-" + i, 1.0, "sales"));
+            }
+        });
+
+        int[] lastSeen = new int[THREADS];
+        Arrays.fill(lastSeen, -1);
+        for (Booking booking : bookingRepository.getAllBookings()) {
+            String[] parts = booking.getBookingId().split("-");
+            int thread = Integer.parseInt(parts[0]);
+            int index = Integer.parseInt(parts[1]);
+            assertEquals(lastSeen[thread] + 1, index);
+            lastSeen[thread] = index;
+        }
+    }
+
+    @Test
+    void getBookingsByDepartmentPage_ShouldNotSkipBookingsInsertedWhilePaging() throws Exception {
+        int writers = THREADS - 1;
+        int batchSize = 50;
+        AtomicInteger writersDone = new AtomicInteger();
+        List<String> paged = new ArrayList<>();
+        runConcurrently(thread -> {
+            if (thread > 0) {
+                // Single insertions and batches interleave, so sequence numbers become visible out of order
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i += batchSize) {
+                    List<Booking> batch = new ArrayList<>(batchSize);
+                    for (int j = i; j < i + batchSize; j++) {
+                        batch.add(booking(thread + "-" + j, 1.0, "sales"));
+                    }
+                    if (thread % 2 == 0) {
+                        bookingRepository.addBookings(batch);
+                    } else {
+                        batch.forEach(bookingRepository::addBooking);
+                    }
+                }
+                writersDone.incrementAndGet();
+                return;
+            }
+            long cursor = 0L;
+            boolean finished = false;
+            while (!finished) {
+                finished = writersDone.get() == writers;
+                NavigableMap<Long, String> page;
+                do {
+                    page = bookingRepository.getBookingsByDepartment("sales", cursor, 100);
+                    if (!page.isEmpty()) {
+                        assertTrue(page.firstKey() > cursor);
+                        paged.addAll(page.values());
+                        cursor = page.lastKey();
+                    }
+                } while (!page.isEmpty());
+            }
+        });
+
+        assertEquals(writers * BOOKINGS_PER_THREAD, paged.size());
+        assertEquals(writers * BOOKINGS_PER_THREAD, new HashSet<>(paged).size());
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadIndex);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -1,13 +1,26 @@
 package com.statista.code.challenge.bookingservice.repository;
 
+import com.statista.code.challenge.bookingservice.metrics.OperationMetrics;
+import com.statista.code.challenge.bookingservice.metrics.PrometheusWriter;
 import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.model.RollupDimension;
+import com.statista.code.challenge.bookingservice.model.RollupRow;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,7 +30,16 @@ class BookingRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        bookingRepository = new BookingRepository();
+        bookingRepository = createRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.close();
+    }
+
+    BookingRepository createRepository() {
+        return new BookingRepository();
     }
 
     @Test
@@ -89,6 +111,62 @@ class BookingRepositoryTest {
         assertTrue(salesBookings.contains("1"));
     }
 
+    @Test
+    void getBookingsByDepartment_ShouldMatchCaseInsensitivelyInInsertionOrder() {
+        Booking booking1 = new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "Sales");
+        Booking booking2 = new Booking("2", "Booking 2", 150.0, "EUR", LocalDate.now(), "test2@example.com", "support");
+        Booking booking3 = new Booking("3", "Booking 3", 200.0, "EUR", LocalDate.now(), "test3@example.com", "SALES");
+
+        bookingRepository.addBooking(booking1);
+        bookingRepository.addBooking(booking2);
+        bookingRepository.addBooking(booking3);
+
+        assertEquals(List.of("1", "3"), bookingRepository.getBookingsByDepartment("sales"));
+    }
+
+    @Test
+    void getBookingsByDepartmentPage_ShouldResumeAfterSequenceDespiteConcurrentInserts() {
+        for (int i = 1; i <= 5; i++) {
+            bookingRepository.addBooking(new Booking(String.valueOf(i), "Booking " + i, 100.0, "USD", LocalDate.now(),
+                    "test@example.com", i % 2 == 0 ? "support" : "sales"));
+        }
+
+        NavigableMap<Long, String> first = bookingRepository.getBookingsByDepartment("sales", 0L, 2);
+        bookingRepository.addBooking(new Booking("6", "Booking 6", 100.0, "USD", LocalDate.now(), "test@example.com", "sales"));
+        NavigableMap<Long, String> second = bookingRepository.getBookingsByDepartment("sales", first.lastKey(), 2);
+
+        assertEquals(List.of("1", "3"), new ArrayList<>(first.values()));
+        assertEquals(List.of("5", "6"), new ArrayList<>(second.values()));
+        assertTrue(bookingRepository.getBookingsByDepartment("sales", second.lastKey(), 2).isEmpty());
+        assertTrue(bookingRepository.getBookingsByDepartment("unknown", 0L, 2).isEmpty());
+    }
+
+    @Test
+    void iterateBookingsByDepartment_ShouldYieldIdsInInsertionOrder() {
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 150.0, "EUR", LocalDate.now(), "test2@example.com", "Sales"));
+
+        List<String> bookingIds = new ArrayList<>();
+        bookingRepository.iterateBookingsByDepartment("SALES").forEachRemaining(bookingIds::add);
+
+        assertEquals(List.of("1", "2"), bookingIds);
+        assertFalse(bookingRepository.iterateBookingsByDepartment("it").hasNext());
+    }
+
+    @Test
+    void updateBooking_ShouldMoveBookingToNewDepartment() {
+        Booking booking1 = new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+        Booking booking2 = new Booking("2", "Booking 2", 150.0, "EUR", LocalDate.now(), "test2@example.com", "support");
+        bookingRepository.addBooking(booking1);
+        bookingRepository.addBooking(booking2);
+
+        Booking movedBooking = new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "support");
+        bookingRepository.updateBooking("1", movedBooking);
+
+        assertTrue(bookingRepository.getBookingsByDepartment("sales").isEmpty());
+        assertEquals(List.of("1", "2"), bookingRepository.getBookingsByDepartment("support"));
+    }
+
     @Test
     void getAllCurrencies_ShouldReturnUniqueCurrencies() {
         Booking booking1 = new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales");
@@ -122,4 +200,281 @@ class BookingRepositoryTest {
         assertEquals(250.0, sumUSD, 0.001);
         assertEquals(200.0, sumEUR, 0.001);
     }
+
+    @Test
+    void getSumByCurrency_ShouldReflectUpdatedPriceAndCurrency() {
+        Booking booking1 = new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+        Booking booking2 = new Booking("2", "Booking 2", 150.0, "USD", LocalDate.now(), "test2@example.com", "support");
+        bookingRepository.addBooking(booking1);
+        bookingRepository.addBooking(booking2);
+
+        Booking updatedBooking = new Booking("2", "Booking 2", 175.0, "EUR", LocalDate.now(), "test2@example.com", "support");
+        bookingRepository.updateBooking("2", updatedBooking);
+
+        assertEquals(100.0, bookingRepository.getSumByCurrency("usd"), 0.0);
+        assertEquals(175.0, bookingRepository.getSumByCurrency("EUR"), 0.0);
+    }
+
+    @Test
+    void getSumByCurrency_ShouldNotDriftWithDecimalPrices() {
+        for (int i = 0; i < 10; i++) {
+            bookingRepository.addBooking(new Booking(String.valueOf(i), "Booking", 0.1, "USD", LocalDate.now(), "test@example.com", "sales"));
+        }
+
+        assertEquals(1.0, bookingRepository.getSumByCurrency("USD"), 0.0);
+    }
+
+    @Test
+    void getPriceSummaryByCurrency_ShouldTrackCountMinAndMax() {
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 50.0, "USD", LocalDate.now(), "test2@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("3", "Booking 3", 300.0, "USD", LocalDate.now(), "test3@example.com", "sales"));
+        bookingRepository.updateBooking("3", new Booking("3", "Booking 3", 300.0, "EUR", LocalDate.now(), "test3@example.com", "sales"));
+
+        PriceSummary summary = bookingRepository.getPriceSummaryByCurrency("USD");
+
+        assertEquals(2, summary.getCount());
+        assertEquals(0, new BigDecimal("150").compareTo(summary.getSum()));
+        assertEquals(0, new BigDecimal("50").compareTo(summary.getMin()));
+        assertEquals(0, new BigDecimal("100").compareTo(summary.getMax()));
+        assertEquals(PriceSummary.EMPTY, bookingRepository.getPriceSummaryByCurrency("GBP"));
+    }
+
+    @Test
+    void getAllCurrencies_ShouldDropCurrencyWhenNoLongerUsed() {
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 150.0, "EUR", LocalDate.now(), "test2@example.com", "sales"));
+        Set<String> before = bookingRepository.getAllCurrencies();
+
+        bookingRepository.updateBooking("2", new Booking("2", "Booking 2", 150.0, "USD", LocalDate.now(), "test2@example.com", "sales"));
+        Set<String> after = bookingRepository.getAllCurrencies();
+
+        assertEquals(Set.of("USD", "EUR"), before);
+        assertEquals(Set.of("USD"), after);
+        assertSame(after, bookingRepository.getAllCurrencies());
+    }
+
+    @Test
+    void addBookings_ShouldAddAllBookingsInBatchOrder() {
+        bookingRepository.addBooking(new Booking("0", "Booking 0", 10.0, "USD", LocalDate.now(), "test0@example.com", "sales"));
+        List<Booking> batch = new ArrayList<>();
+        for (int i = 100; i > 0; i--) {
+            batch.add(new Booking(String.valueOf(i), "Booking " + i, i, "USD", LocalDate.now(), "test@example.com", "sales"));
+        }
+        batch.add(new Booking("0", "Booking 0", 20.0, "EUR", LocalDate.now(), "test0@example.com", "it"));
+
+        bookingRepository.addBookings(batch);
+
+        List<String> salesBookings = bookingRepository.getBookingsByDepartment("sales");
+        assertEquals(100, salesBookings.size());
+        assertEquals("100", salesBookings.get(0));
+        assertEquals("1", salesBookings.get(99));
+        assertEquals(List.of("0"), bookingRepository.getBookingsByDepartment("it"));
+        assertEquals(5050.0, bookingRepository.getSumByCurrency("USD"), 0.0);
+        assertEquals(20.0, bookingRepository.getSumByCurrency("EUR"), 0.0);
+        assertEquals(101, bookingRepository.getAllBookings().size());
+    }
+
+    @Test
+    void createBookings_ShouldKeepExistingBookingsAndReportWhichWereAdded() {
+        Booking existing = new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        bookingRepository.addBooking(existing);
+        long version = bookingRepository.getBookingVersion("1");
+        Booking resubmitted = new Booking("1", "Booking 1 again", 99.0, "EUR", LocalDate.now(), "test@example.com", "it");
+        Booking added = new Booking("2", "Booking 2", 20.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        Booking repeated = new Booking("2", "Booking 2 again", 30.0, "USD", LocalDate.now(), "test@example.com", "sales");
+
+        boolean[] created = bookingRepository.createBookings(List.of(resubmitted, added, repeated));
+
+        assertArrayEquals(new boolean[]{false, true, false}, created);
+        assertEquals(existing, bookingRepository.getBooking("1"));
+        assertEquals(version, bookingRepository.getBookingVersion("1"));
+        assertEquals(added, bookingRepository.getBooking("2"));
+        assertEquals(List.of("1", "2"), bookingRepository.getBookingsByDepartment("sales"));
+        assertEquals(30.0, bookingRepository.getSumByCurrency("USD"), 0.0);
+        assertFalse(bookingRepository.getAllCurrencies().contains("EUR"));
+    }
+
+    @Test
+    void getBookingsByDateRange_ShouldReturnBookingsInRangeOrderedByDate() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", start.plusDays(5), "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 20.0, "USD", start.plusDays(1), "test2@example.com", "Sales"));
+        bookingRepository.addBooking(new Booking("3", "Booking 3", 30.0, "EUR", start.plusDays(3), "test3@example.com", "it"));
+        bookingRepository.addBooking(new Booking("4", "Booking 4", 40.0, "USD", start.plusDays(10), "test4@example.com", "sales"));
+
+        List<String> ids = bookingRepository.getBookingsByDateRange(start.plusDays(1), start.plusDays(5), null)
+                .stream().map(Booking::getBookingId).toList();
+        List<String> salesIds = bookingRepository.getBookingsByDateRange(start, start.plusDays(10), "SALES")
+                .stream().map(Booking::getBookingId).toList();
+
+        assertEquals(List.of("2", "3", "1"), ids);
+        assertEquals(List.of("2", "1", "4"), salesIds);
+        assertEquals(3, bookingRepository.countBookingsByDateRange(start, start.plusDays(9), null));
+        assertEquals(0, bookingRepository.countBookingsByDateRange(start.plusDays(6), start.plusDays(9), null));
+    }
+
+    @Test
+    void getBookingsByDateRange_ShouldFollowUpdatedDateAndDepartment() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", start, "test1@example.com", "sales"));
+
+        bookingRepository.updateBooking("1", new Booking("1", "Booking 1", 10.0, "USD", start.plusMonths(1), "test1@example.com", "it"));
+
+        assertEquals(0, bookingRepository.countBookingsByDateRange(start, start, null));
+        assertEquals(0, bookingRepository.countBookingsByDateRange(start, start.plusMonths(1), "sales"));
+        assertEquals(1, bookingRepository.countBookingsByDateRange(start, start.plusMonths(1), "it"));
+    }
+
+    @Test
+    void getPriceSummariesByDateRange_ShouldSummarizeEachCurrency() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 0.1, "usd", start, "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 0.2, "USD", start.plusDays(1), "test2@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("3", "Booking 3", 5.0, "EUR", start.plusDays(2), "test3@example.com", "it"));
+        bookingRepository.addBooking(new Booking("4", "Booking 4", 7.0, "USD", start.plusDays(3), "test4@example.com", "sales"));
+
+        var summaries = bookingRepository.getPriceSummariesByDateRange(start, start.plusDays(2), null);
+
+        assertEquals(Set.of("EUR", "USD"), summaries.keySet());
+        assertEquals(new PriceSummary(2, new BigDecimal("0.3"), new BigDecimal("0.1"), new BigDecimal("0.2")), summaries.get("USD"));
+        assertEquals(1, summaries.get("EUR").getCount());
+        assertEquals(Set.of("USD"), bookingRepository.getPriceSummariesByDateRange(start, start.plusDays(3), "sales").keySet());
+    }
+
+    @Test
+    void getRollup_ShouldGroupByAnySubsetOfDimensions() {
+        LocalDate january = LocalDate.of(2024, 1, 15);
+        LocalDate february = LocalDate.of(2024, 2, 15);
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", january, "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 20.0, "usd", february, "test2@example.com", "Sales"));
+        bookingRepository.addBooking(new Booking("3", "Booking 3", 30.0, "EUR", january, "test3@example.com", "it"));
+
+        List<RollupRow> byDepartment = bookingRepository.getRollup(EnumSet.of(RollupDimension.DEPARTMENT), null, null, null, null);
+        List<RollupRow> byCurrencyAndMonth = bookingRepository.getRollup(
+                EnumSet.of(RollupDimension.CURRENCY, RollupDimension.MONTH), null, null, null, null);
+        List<RollupRow> total = bookingRepository.getRollup(EnumSet.noneOf(RollupDimension.class), null, "usd", null, YearMonth.of(2024, 1));
+
+        assertEquals(List.of(
+                new RollupRow("it", "EUR", null, new PriceSummary(1, new BigDecimal("30.0"), new BigDecimal("30.0"), new BigDecimal("30.0"))),
+                new RollupRow("sales", "USD", null, new PriceSummary(2, new BigDecimal("30.0"), new BigDecimal("10.0"), new BigDecimal("20.0")))),
+                byDepartment);
+        assertEquals(3, byCurrencyAndMonth.size());
+        assertEquals(new RollupRow(null, "EUR", YearMonth.of(2024, 1), byCurrencyAndMonth.get(0).getSummary()), byCurrencyAndMonth.get(0));
+        assertEquals(List.of(new RollupRow(null, "USD", null,
+                new PriceSummary(1, new BigDecimal("10.0"), new BigDecimal("10.0"), new BigDecimal("10.0")))), total);
+    }
+
+    @Test
+    void getRollup_ShouldNotAddUpPricesInDifferentCurrencies() {
+        LocalDate january = LocalDate.of(2024, 1, 15);
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", january, "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 20.0, "EUR", january, "test2@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("3", "Booking 3", 30.0, "usd", january, "test3@example.com", "sales"));
+
+        List<RollupRow> expected = List.of(
+                new RollupRow("sales", "EUR", null, new PriceSummary(1, new BigDecimal("20.0"), new BigDecimal("20.0"), new BigDecimal("20.0"))),
+                new RollupRow("sales", "USD", null, new PriceSummary(2, new BigDecimal("40.0"), new BigDecimal("10.0"), new BigDecimal("30.0"))));
+        assertEquals(expected, bookingRepository.getRollup(EnumSet.of(RollupDimension.DEPARTMENT), null, null, null, null));
+        assertEquals(List.of(new RollupRow(null, "EUR", null, expected.get(0).getSummary()),
+                        new RollupRow(null, "USD", null, expected.get(1).getSummary())),
+                bookingRepository.getRollup(EnumSet.noneOf(RollupDimension.class), null, null, null, null));
+    }
+
+    @Test
+    void getRollup_ShouldFollowUpdatedBookings() {
+        LocalDate january = LocalDate.of(2024, 1, 15);
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", january, "test1@example.com", "sales"));
+
+        bookingRepository.updateBooking("1", new Booking("1", "Booking 1", 15.0, "EUR", january.plusMonths(1), "test1@example.com", "it"));
+
+        assertEquals(List.of(new RollupRow("it", "EUR", YearMonth.of(2024, 2),
+                        new PriceSummary(1, new BigDecimal("15.0"), new BigDecimal("15.0"), new BigDecimal("15.0")))),
+                bookingRepository.getRollup(EnumSet.allOf(RollupDimension.class), null, null, null, null));
+    }
+
+    @Test
+    void getVersion_ShouldIncreaseWithEveryWriteGloballyAndPerBooking() {
+        long initial = bookingRepository.getVersion();
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+        long firstVersion = bookingRepository.getBookingVersion("1");
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 20.0, "USD", LocalDate.now(), "test2@example.com", "sales"));
+
+        assertEquals(firstVersion, bookingRepository.getBookingVersion("1"));
+        assertTrue(bookingRepository.getBookingVersion("2") > firstVersion);
+
+        bookingRepository.updateBooking("1", new Booking("1", "Booking 1", 15.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+
+        assertTrue(bookingRepository.getBookingVersion("1") > bookingRepository.getBookingVersion("2"));
+        assertEquals(initial + 3, bookingRepository.getVersion());
+        assertEquals(0L, bookingRepository.getBookingVersion("missing"));
+    }
+
+    @Test
+    void createBooking_ShouldNotOverwriteExistingBooking() {
+        Booking booking = new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+        Booking duplicate = new Booking("1", "Duplicate", 20.0, "EUR", LocalDate.now(), "test2@example.com", "it");
+
+        long version = bookingRepository.createBooking(booking);
+
+        assertEquals(bookingRepository.getBookingVersion("1"), version);
+        assertEquals(0L, bookingRepository.createBooking(duplicate));
+        assertEquals(booking, bookingRepository.getBooking("1"));
+        assertEquals(Set.of("USD"), bookingRepository.getAllCurrencies());
+    }
+
+    @Test
+    void updateBookingWithVersion_ShouldOnlyApplyToExpectedVersion() {
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+        long version = bookingRepository.getBookingVersion("1");
+        Booking first = new Booking("1", "First", 15.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+        Booking second = new Booking("1", "Second", 20.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+
+        long newVersion = bookingRepository.updateBooking("1", first, version);
+
+        assertTrue(newVersion > version);
+        assertEquals(0L, bookingRepository.updateBooking("1", second, version));
+        assertEquals(first, bookingRepository.getBooking("1"));
+        assertEquals(0L, bookingRepository.updateBooking("2", second, 0L));
+        assertNull(bookingRepository.getBooking("2"));
+    }
+
+    @Test
+    void changeLog_ShouldPublishEveryWriteWithBeforeAndAfter() throws Exception {
+        ChangeLog.Cursor cursor = bookingRepository.getChangeLog().cursor(bookingRepository.getChangeLog().getLatestSequence());
+        Booking created = new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+        Booking updated = new Booking("1", "Booking 1", 15.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+
+        bookingRepository.addBooking(created);
+        bookingRepository.updateBooking("1", updated);
+
+        BookingChange first = cursor.poll(0, TimeUnit.MILLISECONDS);
+        BookingChange second = cursor.poll(0, TimeUnit.MILLISECONDS);
+        assertEquals(BookingChange.of(first.getSequence(), "1", null, created), first);
+        assertEquals(BookingChange.of(bookingRepository.getBookingVersion("1"), "1", created, updated), second);
+        assertEquals(BookingChange.Type.UPDATED, second.getType());
+        assertNull(cursor.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void writeMetrics_ShouldReportSizesAndOperationLatencies() {
+        bookingRepository.addBookings(List.of(
+                new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test1@example.com", "sales"),
+                new Booking("2", "Booking 2", 20.0, "EUR", LocalDate.now(), "test2@example.com", "it")));
+        // A sampled operation: one call in the interval is timed and counted for the whole interval
+        for (int i = 0; i < OperationMetrics.SAMPLE_INTERVAL; i++) {
+            bookingRepository.getBooking("1");
+        }
+        PrometheusWriter writer = new PrometheusWriter();
+
+        bookingRepository.writeMetrics(writer);
+
+        String metrics = writer.toString();
+        assertTrue(metrics.contains("booking_repository_bookings 2\n"));
+        assertTrue(metrics.contains("booking_repository_currencies 2\n"));
+        assertTrue(metrics.contains("booking_repository_department_bookings{department=\"sales\"} 1\n"));
+        assertTrue(metrics.contains("booking_repository_operation_seconds_count{operation=\"add_bookings\"} 1\n"));
+        assertTrue(metrics.contains("booking_repository_operation_seconds_count{operation=\"get_booking\"} "
+                + OperationMetrics.SAMPLE_INTERVAL + "\n"));
+    }
 }
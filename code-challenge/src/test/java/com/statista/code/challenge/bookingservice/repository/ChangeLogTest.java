@@ -0,0 +1,69 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingChange;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    private static BookingChange change(long sequence) {
+        Booking booking = new Booking(String.valueOf(sequence), "Booking", 10.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        return BookingChange.of(sequence, booking.getBookingId(), null, booking);
+    }
+
+    @Test
+    void cursor_ShouldReturnChangesInSequenceOrder_WhenPublishedOutOfOrder() throws Exception {
+        ChangeLog changeLog = new ChangeLog(8);
+        changeLog.publish(change(2));
+        ChangeLog.Cursor cursor = changeLog.cursor(0);
+
+        assertNull(cursor.poll(0, TimeUnit.MILLISECONDS));
+
+        changeLog.publish(change(1));
+
+        assertEquals(1, cursor.poll(0, TimeUnit.MILLISECONDS).getSequence());
+        assertEquals(2, cursor.poll(0, TimeUnit.MILLISECONDS).getSequence());
+        assertNull(cursor.poll(0, TimeUnit.MILLISECONDS));
+        assertEquals(2, changeLog.getLatestSequence());
+    }
+
+    @Test
+    void cursor_ShouldWaitForNextChange() throws Exception {
+        ChangeLog changeLog = new ChangeLog(8);
+        ChangeLog.Cursor cursor = changeLog.cursor(0);
+
+        CompletableFuture<BookingChange> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cursor.poll(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        changeLog.publish(change(1));
+
+        assertEquals(1, next.get(10, TimeUnit.SECONDS).getSequence());
+    }
+
+    @Test
+    void cursor_ShouldReportGapAndContinue_WhenChangesWereOverwritten() throws Exception {
+        ChangeLog changeLog = new ChangeLog(4);
+        for (long sequence = 1; sequence <= 10; sequence++) {
+            changeLog.publish(change(sequence));
+        }
+        ChangeLog.Cursor cursor = changeLog.cursor(2);
+
+        BookingChange gap = cursor.poll(0, TimeUnit.MILLISECONDS);
+
+        assertEquals(BookingChange.Type.GAP, gap.getType());
+        assertEquals(6, gap.getSequence());
+        assertEquals(4, gap.getLost());
+        assertEquals(7, cursor.poll(0, TimeUnit.MILLISECONDS).getSequence());
+    }
+}
@@ -0,0 +1,12 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+/**
+ * Runs the repository tests against the columnar storage layout.
+ */
+class ColumnarBookingRepositoryTest extends BookingRepositoryTest {
+
+    @Override
+    BookingRepository createRepository() {
+        return new BookingRepository(BookingJournal.NONE, StorageMode.COLUMNAR);
+    }
+}
@@ -0,0 +1,97 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarBookingStoreTest {
+
+    private ColumnarBookingStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarBookingStore();
+    }
+
+    @Test
+    void get_ShouldMaterializeEqualBooking() {
+        Booking booking = new Booking("1", "Test Booking", 99.99, "USD", LocalDate.of(2023, 5, 17), "test@example.com", "sales");
+
+        store.put("1", new StoredBooking(7L, 3L, booking));
+
+        StoredBooking stored = store.get("1");
+        assertEquals(7L, stored.sequence());
+        assertEquals(3L, stored.version());
+        assertEquals(booking, stored.booking());
+        assertNotSame(booking, stored.booking());
+        assertNull(store.get("2"));
+    }
+
+    @Test
+    void put_ShouldKeepNullFieldsAndForeignBookingIds() {
+        Booking booking = new Booking("other", null, 1.5, null, null, null, null);
+
+        store.put("1", new StoredBooking(1L, booking));
+
+        assertEquals(booking, store.get("1").booking());
+    }
+
+    @Test
+    void put_ShouldOverwriteExistingSlot() {
+        store.put("1", new StoredBooking(1L, booking("1", 1.0, "sales")));
+        store.put("1", new StoredBooking(1L, booking("1", 2.0, "support")));
+
+        assertEquals(1, store.size());
+        assertEquals(booking("1", 2.0, "support"), store.get("1").booking());
+    }
+
+    @Test
+    void put_ShouldGrowAcrossPages() {
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            store.put(String.valueOf(i), new StoredBooking(i + 1, booking(String.valueOf(i), i, "dept-" + (i % 10))));
+        }
+
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i += 997) {
+            StoredBooking stored = store.get(String.valueOf(i));
+            assertEquals(i + 1, stored.sequence());
+            assertEquals(booking(String.valueOf(i), i, "dept-" + (i % 10)), stored.booking());
+        }
+    }
+
+    @Test
+    void get_ShouldNeverReturnTornBookingDuringUpdates() throws Exception {
+        store.put("1", new StoredBooking(1L, booking("1", 0, "dept-0")));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= 200_000; i++) {
+                    store.put("1", new StoredBooking(1L, booking("1", i, "dept-" + i)));
+                }
+                running.set(false);
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (running.get()) {
+                    Booking booking = store.get("1").booking();
+                    assertEquals("dept-" + (long) booking.getPrice(), booking.getDepartment());
+                }
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+/**
+ * Runs the repository tests against the off-heap storage layout.
+ */
+class OffHeapBookingRepositoryTest extends BookingRepositoryTest {
+
+    @Override
+    BookingRepository createRepository() {
+        return new BookingRepository(BookingJournal.NONE, StorageMode.OFF_HEAP);
+    }
+}
@@ -0,0 +1,176 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBookingStoreTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private OffHeapBookingStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapBookingStore(CHUNK_SIZE);
+    }
+
+    @Test
+    void get_ShouldReadBackEqualBooking() {
+        Booking booking = new Booking("1", "Tëst Booking", 99.99, "USD", LocalDate.of(2023, 5, 17), "test@example.com", "sales");
+
+        store.put("1", new StoredBooking(7L, 3L, booking));
+
+        StoredBooking stored = store.get("1");
+        assertEquals(7L, stored.sequence());
+        assertEquals(3L, stored.version());
+        assertEquals(booking, stored.booking());
+        assertNull(store.get("2"));
+    }
+
+    @Test
+    void put_ShouldKeepNullFieldsAndForeignBookingIds() {
+        Booking foreign = new Booking("other", null, 1.5, null, null, null, null);
+        Booking withoutId = new Booking(null, "No ID", 2.5, "EUR", LocalDate.of(2023, 1, 1), "a@b.c", "it");
+
+        store.put("1", new StoredBooking(1L, foreign));
+        store.put("2", new StoredBooking(2L, withoutId));
+
+        assertEquals(foreign, store.get("1").booking());
+        assertEquals(withoutId, store.get("2").booking());
+    }
+
+    @Test
+    void put_ShouldGrowTableAndArena() {
+        int count = 50_000;
+        for (int i = 0; i < count; i++) {
+            store.put(String.valueOf(i), new StoredBooking(i + 1, booking(String.valueOf(i), i, "dept-" + (i % 10))));
+        }
+
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i++) {
+            StoredBooking stored = store.get(String.valueOf(i));
+            assertEquals(i + 1, stored.sequence());
+            assertEquals(booking(String.valueOf(i), i, "dept-" + (i % 10)), stored.booking());
+        }
+    }
+
+    @Test
+    void put_ShouldReplaceBookingsAcrossCompactions() {
+        for (int i = 0; i < 100; i++) {
+            store.put(String.valueOf(i), new StoredBooking(i + 1, booking(String.valueOf(i), 0, "sales")));
+        }
+        for (int round = 1; round <= 200; round++) {
+            for (int i = 0; i < 100; i++) {
+                store.put(String.valueOf(i), new StoredBooking(i + 1, booking(String.valueOf(i), round, "sales")));
+            }
+        }
+
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(booking(String.valueOf(i), 200, "sales"), store.get(String.valueOf(i)).booking());
+        }
+    }
+
+    @Test
+    void put_ShouldKeepArenaBoundedUnderChurn() {
+        // Writes far more than the 4096 chunks of the arena could hold without freeing any
+        int rounds = 30_000;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < 100; i++) {
+                store.put(String.valueOf(i), new StoredBooking(i + 1, booking(String.valueOf(i), round, "sales")));
+            }
+        }
+
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(booking(String.valueOf(i), rounds - 1, "sales"), store.get(String.valueOf(i)).booking());
+        }
+    }
+
+    @Test
+    void get_ShouldSeeConsistentBookingsWhileWriterGrowsAndCompacts() throws Exception {
+        store.put("shared", new StoredBooking(1L, booking("shared", 0, "dept-0")));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= 100_000; i++) {
+                    store.put("shared", new StoredBooking(1L, booking("shared", i, "dept-" + i)));
+                    if (i % 10 == 0) {
+                        store.put(String.valueOf(i), new StoredBooking(i, booking(String.valueOf(i), i, "sales")));
+                    }
+                }
+                running.set(false);
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (running.get()) {
+                    Booking booking = store.get("shared").booking();
+                    assertEquals("dept-" + (long) booking.getPrice(), booking.getDepartment());
+                }
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(10_001, store.size());
+    }
+
+    @Test
+    void get_ShouldSeeConsistentBookingsWhileWritersReuseFreedChunks() throws Exception {
+        int writers = 4;
+        int keysPerWriter = 50;
+        for (int key = 0; key < writers * keysPerWriter; key++) {
+            store.put(String.valueOf(key), new StoredBooking(key, booking(String.valueOf(key), 0, "dept-0")));
+        }
+        AtomicInteger running = new AtomicInteger(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int firstKey = writer * keysPerWriter;
+                futures.add(executor.submit(() -> {
+                    for (int round = 1; round <= 2_000; round++) {
+                        for (int key = firstKey; key < firstKey + keysPerWriter; key++) {
+                            store.put(String.valueOf(key), new StoredBooking(key, booking(String.valueOf(key), round, "dept-" + round)));
+                        }
+                    }
+                    running.decrementAndGet();
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                futures.add(executor.submit(() -> {
+                    while (running.get() > 0) {
+                        for (int key = 0; key < writers * keysPerWriter; key++) {
+                            Booking booking = store.get(String.valueOf(key)).booking();
+                            assertEquals(String.valueOf(key), booking.getBookingId());
+                            assertEquals("dept-" + (long) booking.getPrice(), booking.getDepartment());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int key = 0; key < writers * keysPerWriter; key++) {
+            assertEquals("dept-2000", store.get(String.valueOf(key)).booking().getDepartment());
+        }
+    }
+}
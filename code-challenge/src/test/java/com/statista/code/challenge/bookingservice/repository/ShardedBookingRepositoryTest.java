@@ -0,0 +1,172 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedBookingRepositoryTest {
+
+    private final List<LocalBookingShard> shards = List.of(
+            new LocalBookingShard("shard-0"), new LocalBookingShard("shard-1"), new LocalBookingShard("shard-2"));
+    private final ShardedBookingRepository repository = new ShardedBookingRepository(shards);
+
+    @AfterEach
+    void closeShards() {
+        shards.forEach(LocalBookingShard::close);
+    }
+
+    @Test
+    void addBooking_ShouldStoreBookingInOwningShardOnly() throws Exception {
+        repository.addBooking(booking("1", 10.0, "USD", "sales"));
+
+        BookingShard owner = repository.shardFor("1");
+        for (BookingShard shard : shards) {
+            assertEquals(shard == owner, shard.get("1").get() != null);
+        }
+        assertEquals("Booking 1", repository.getBooking("1").getDescription());
+        assertNull(repository.getBooking("2"));
+    }
+
+    @Test
+    void getBookingsByDepartment_ShouldMergeShardsInInsertionOrder() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            repository.addBooking(booking("booking-" + i, 10.0, "USD", i % 2 == 0 ? "Sales" : "support"));
+            if (i % 2 == 0) {
+                expected.add("booking-" + i);
+            }
+        }
+        repository.updateBooking("booking-0", booking("booking-0", 20.0, "USD", "sales"));
+
+        assertEquals(expected, repository.getBookingsByDepartment("SALES"));
+        assertTrue(shards.stream().allMatch(shard -> !shard.bookingsByDepartment("sales").join().isEmpty()));
+    }
+
+    @Test
+    void addBookings_ShouldKeepBatchOrderAcrossShards() {
+        repository.addBooking(booking("first", 10.0, "USD", "sales"));
+        List<Booking> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(booking("batch-" + i, 10.0, "USD", "sales"));
+        }
+        batch.add(booking("batch-0", 30.0, "USD", "sales"));
+
+        repository.addBookings(batch);
+        repository.addBooking(booking("last", 10.0, "USD", "sales"));
+
+        List<String> ids = repository.getBookingsByDepartment("sales");
+        assertEquals(52, ids.size());
+        assertEquals("first", ids.get(0));
+        assertEquals("batch-0", ids.get(1));
+        assertEquals("batch-49", ids.get(50));
+        assertEquals("last", ids.get(51));
+        assertEquals(30.0, repository.getBooking("batch-0").getPrice());
+    }
+
+    @Test
+    void currencyQueries_ShouldMergeAllShards() {
+        repository.addBooking(booking("1", 10.0, "USD", "sales"));
+        repository.addBooking(booking("2", 30.5, "USD", "sales"));
+        repository.addBooking(booking("3", 5.0, "EUR", "sales"));
+        repository.addBooking(booking("4", 2.5, "USD", "support"));
+
+        assertEquals(Set.of("USD", "EUR"), repository.getAllCurrencies());
+        assertEquals(43.0, repository.getSumByCurrency("USD"));
+        PriceSummary summary = repository.getPriceSummaryByCurrency("usd");
+        assertEquals(3, summary.getCount());
+        assertEquals(0, new BigDecimal("2.5").compareTo(summary.getMin()));
+        assertEquals(0, new BigDecimal("30.5").compareTo(summary.getMax()));
+        assertEquals(PriceSummary.EMPTY, repository.getPriceSummaryByCurrency("GBP"));
+    }
+
+    @Test
+    void query_ShouldRethrowShardFailure() {
+        ShardedBookingRepository withFailingShard = new ShardedBookingRepository(List.of(shards.get(0), new FailingShard()));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> withFailingShard.getAllCurrencies());
+        assertEquals("shard unavailable", e.getMessage());
+    }
+
+    @Test
+    void ring_ShouldSpreadKeysEvenlyAndMoveFewKeysWhenShardIsAdded() {
+        List<String> three = List.of("a", "b", "c");
+        List<String> four = List.of("a", "b", "c", "d");
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(three, name -> name, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(four, name -> name, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        ConsistentHashRing<String> rebuilt = new ConsistentHashRing<>(three, name -> name, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+
+        int keys = 30_000;
+        Map<String, Integer> counts = new HashMap<>();
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            String key = "booking-" + i;
+            String owner = before.nodeFor(key);
+            counts.merge(owner, 1, Integer::sum);
+            String newOwner = after.nodeFor(key);
+            if (!owner.equals(newOwner)) {
+                moved++;
+                assertEquals("d", newOwner);
+            }
+            assertEquals(owner, rebuilt.nodeFor(key));
+        }
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - keys / 3) < keys / 3 * 0.2, "uneven distribution " + counts);
+        }
+        assertTrue(Math.abs(moved - keys / 4) < keys / 4 * 0.3, "moved " + moved);
+    }
+
+    /**
+     * Stands in for a shard on another node that cannot be reached.
+     */
+    private static class FailingShard implements BookingShard {
+
+        @Override
+        public String getName() {
+            return "failing";
+        }
+
+        @Override
+        public CompletableFuture<Void> put(String bookingId, Booking booking, long sequence) {
+            return unavailable();
+        }
+
+        @Override
+        public CompletableFuture<Void> putAll(NavigableMap<Long, Booking> bookings) {
+            return unavailable();
+        }
+
+        @Override
+        public CompletableFuture<Booking> get(String bookingId) {
+            return unavailable();
+        }
+
+        @Override
+        public CompletableFuture<NavigableMap<Long, String>> bookingsByDepartment(String department) {
+            return unavailable();
+        }
+
+        @Override
+        public CompletableFuture<Set<String>> currencies() {
+            return unavailable();
+        }
+
+        @Override
+        public CompletableFuture<PriceSummary> priceSummary(String currency) {
+            return unavailable();
+        }
+
+        private static <T> CompletableFuture<T> unavailable() {
+            return CompletableFuture.supplyAsync(() -> {
+                throw new IllegalStateException("shard unavailable");
+            });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the repository tests with all writes applied by a single writer thread, and checks the
+ * asynchronous writes that mode is meant for.
+ */
+class SingleWriterBookingRepositoryTest extends BookingRepositoryTest {
+
+    @Override
+    BookingRepository createRepository() {
+        return singleWriter();
+    }
+
+    private static BookingRepository singleWriter() {
+        return new BookingRepository(BookingJournal.NONE, StorageMode.HEAP, true, 1024, WriteMode.SINGLE_WRITER, 64);
+    }
+
+    @Test
+    void asyncWrites_ShouldBeVisibleOnceCompleted() {
+        try (BookingRepository repository = singleWriter()) {
+            long version = repository.createBookingAsync(booking("1", 10.0, "sales")).join();
+            assertTrue(version > 0);
+            assertEquals(0L, repository.createBookingAsync(booking("1", 20.0, "sales")).join());
+
+            long newVersion = repository.updateBookingAsync("1", booking("1", 30.0, "sales"), version).join();
+            assertTrue(newVersion > version);
+            assertEquals(0L, repository.updateBookingAsync("1", booking("1", 40.0, "sales"), version).join());
+
+            repository.updateBookingAsync("2", booking("2", 50.0, "sales")).join();
+            assertEquals(30.0, repository.getBooking("1").getPrice());
+            assertEquals(80.0, repository.getSumByCurrency("USD"));
+        }
+    }
+
+    @Test
+    void concurrentCreates_ShouldLetExactlyOneWriterWinPerBooking() throws Exception {
+        int threads = 16;
+        int bookings = 500;
+        try (BookingRepository repository = singleWriter()) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Integer>> wins = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    double price = thread + 1.0;
+                    wins.add(executor.submit(() -> {
+                        List<CompletableFuture<Long>> pending = new ArrayList<>();
+                        for (int i = 0; i < bookings; i++) {
+                            pending.add(repository.createBookingAsync(booking("booking-" + i, price, "sales")));
+                        }
+                        int won = 0;
+                        for (CompletableFuture<Long> future : pending) {
+                            won += future.join() > 0 ? 1 : 0;
+                        }
+                        return won;
+                    }));
+                }
+                int total = 0;
+                for (Future<Integer> win : wins) {
+                    total += win.get();
+                }
+
+                assertEquals(bookings, total);
+                assertEquals(bookings, repository.getAllBookings().size());
+                assertEquals(bookings, repository.getVersion());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void write_ShouldFail_WhenRepositoryIsClosed() {
+        BookingRepository repository = singleWriter();
+        repository.addBooking(booking("1", 10.0, "sales"));
+        repository.close();
+
+        assertThrows(IllegalStateException.class, () -> repository.addBooking(booking("2", 10.0, "sales")));
+        assertEquals(1, repository.getAllBookings().size());
+    }
+}
@@ -0,0 +1,113 @@
+package com.statista.code.challenge.bookingservice.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteRingTest {
+
+    @Test
+    void submit_ShouldApplyWritesOfEachProducerInOrder_WhenRingWrapsAround() throws Exception {
+        int producers = 8;
+        int writesPerProducer = 5_000;
+        Map<Long, Long> lastWrite = new HashMap<>();
+        List<String> violations = new ArrayList<>();
+        AtomicInteger batches = new AtomicInteger();
+        // The argument carries the producer in the high and the write number in the low half
+        WriteRing ring = new WriteRing(16, slot -> {
+            Long previous = lastWrite.put(slot.argument >>> 32, slot.argument & 0xffffffffL);
+            if (previous != null && previous + 1 != (slot.argument & 0xffffffffL)) {
+                violations.add(slot.argument + " after " + previous);
+            }
+            return slot.argument;
+        }, batches::incrementAndGet);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (long producer = 0; producer < producers; producer++) {
+                long high = producer << 32;
+                results.add(executor.submit(() -> {
+                    for (long write = 0; write < writesPerProducer; write++) {
+                        CompletableFuture<Long> future = ring.submit(WriteRing.Kind.STORE, "id", null, null, high | write);
+                        if (write % 100 == 0) {
+                            assertEquals(high | write, future.join().longValue());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            ring.close();
+        }
+
+        assertTrue(violations.isEmpty(), violations.toString());
+        assertEquals(producers, lastWrite.size());
+        lastWrite.values().forEach(last -> assertEquals(writesPerProducer - 1L, last.longValue()));
+        assertTrue(batches.get() <= producers * writesPerProducer);
+    }
+
+    @Test
+    void submit_ShouldFailOnlyTheFailedWrite() {
+        try (WriteRing ring = new WriteRing(8, slot -> {
+            if ("bad".equals(slot.bookingId)) {
+                throw new IllegalArgumentException("bad booking");
+            }
+            return 1L;
+        }, () -> { })) {
+            CompletableFuture<Long> bad = ring.submit(WriteRing.Kind.STORE, "bad", null, null, 0L);
+            CompletableFuture<Long> good = ring.submit(WriteRing.Kind.STORE, "good", null, null, 0L);
+
+            CompletionException e = assertThrows(CompletionException.class, bad::join);
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            assertEquals(1L, good.join().longValue());
+        }
+    }
+
+    @Test
+    void submit_ShouldFailBatch_WhenEndOfBatchFails() {
+        try (WriteRing ring = new WriteRing(8, slot -> 1L, () -> {
+            throw new IllegalStateException("journal unavailable");
+        })) {
+            CompletableFuture<Long> future = ring.submit(WriteRing.Kind.STORE, "1", null, null, 0L);
+
+            CompletionException e = assertThrows(CompletionException.class, future::join);
+            assertEquals("journal unavailable", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void close_ShouldApplyQueuedWritesAndRejectLaterOnes() {
+        AtomicInteger applied = new AtomicInteger();
+        WriteRing ring = new WriteRing(1024, slot -> applied.incrementAndGet(), () -> { });
+        List<CompletableFuture<Long>> pending = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pending.add(ring.submit(WriteRing.Kind.STORE, "1", null, null, 0L));
+        }
+
+        ring.close();
+
+        assertEquals(1000, applied.get());
+        assertTrue(pending.stream().allMatch(CompletableFuture::isDone));
+        assertThrows(IllegalStateException.class, () -> ring.submit(WriteRing.Kind.STORE, "1", null, null, 0L));
+    }
+
+    @Test
+    void constructor_ShouldRejectCapacityThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteRing(12, slot -> 0L, () -> { }));
+    }
+}
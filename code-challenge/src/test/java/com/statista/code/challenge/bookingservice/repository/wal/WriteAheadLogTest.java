@@ -0,0 +1,217 @@
+package com.statista.code.challenge.bookingservice.repository.wal;
+
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void replay_ShouldRestoreBookingsAndIndexesAfterRestart() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            repository.addBooking(booking("1", 100.0, "USD", "sales"));
+            repository.addBooking(booking("2", 150.0, "EUR", "support"));
+            repository.updateBooking("1", booking("1", 120.0, "USD", "it"));
+            repository.addBookings(List.of(booking("3", 200.0, "EUR", "support"), booking("4", null, 50.0, "USD", "sales")));
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+
+            assertEquals(booking("1", 120.0, "USD", "it"), repository.getBooking("1"));
+            assertNull(repository.getBooking("4").getDescription());
+            assertEquals(List.of("1", "2", "3", "4"),
+                    repository.getAllBookings().stream().map(Booking::getBookingId).toList());
+            assertEquals(List.of("2", "3"), repository.getBookingsByDepartment("support"));
+            assertEquals(170.0, repository.getSumByCurrency("USD"), 0.0);
+
+            repository.addBooking(booking("5", 10.0, "USD", "sales"));
+            assertEquals(List.of("4", "5"), repository.getBookingsByDepartment("sales"));
+        }
+    }
+
+    @Test
+    void append_ShouldRollOverToNewSegmentsWhenFull() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.INTERVAL, 5)) {
+            BookingRepository repository = new BookingRepository(log);
+            for (int i = 0; i < 200; i++) {
+                repository.addBooking(booking(String.valueOf(i), i + 1.0, "USD", "sales"));
+            }
+        }
+        assertTrue(segments().size() > 2);
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.INTERVAL, 5)) {
+            BookingRepository repository = new BookingRepository(log);
+
+            assertEquals(200, repository.getAllBookings().size());
+            assertEquals(20100.0, repository.getSumByCurrency("USD"), 0.0);
+        }
+    }
+
+    @Test
+    void replay_ShouldStopAtCorruptFrame() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            repository.addBooking(booking("1", 100.0, "USD", "sales"));
+            repository.addBooking(booking("2", 150.0, "USD", "sales"));
+        }
+        tearSecondFrame(segments().get(0));
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            log.replay((sequence, bookingId, booking) -> replayed.add(bookingId));
+        }
+
+        assertEquals(List.of("1"), replayed);
+    }
+
+    @Test
+    void replay_ShouldKeepWritesOfLaterRuns_WhenEarlierSegmentHasTornTail() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            repository.addBooking(booking("1", 100.0, "USD", "sales"));
+            repository.addBooking(booking("2", 150.0, "USD", "sales"));
+        }
+        // A crash while writing the second frame
+        tearSecondFrame(segments().get(0));
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            assertEquals(List.of("1"), repository.getBookingsByDepartment("sales"));
+            repository.addBooking(booking("3", 200.0, "USD", "sales"));
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+
+            assertEquals(List.of("1", "3"), repository.getBookingsByDepartment("sales"));
+            assertEquals(300.0, repository.getSumByCurrency("USD"), 0.0);
+        }
+    }
+
+    @Test
+    void checkpoint_ShouldCompactLogAndRestoreFromSnapshotAfterRestart() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            for (int i = 0; i < 100; i++) {
+                repository.addBooking(booking(String.valueOf(i), i + 1.0, i % 2 == 0 ? "USD" : "EUR", "sales"));
+            }
+            repository.updateBooking("0", booking("0", null, 7.0, "GBP", "it"));
+            repository.checkpoint();
+
+            assertEquals(1, files(WriteAheadLog.SNAPSHOT_SUFFIX).size());
+            assertEquals(1, segments().size());
+
+            repository.addBooking(booking("100", 500.0, "USD", "support"));
+            repository.updateBooking("1", booking("1", 2.0, "EUR", "support"));
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+
+            assertEquals(101, repository.getAllBookings().size());
+            assertEquals("0", repository.getAllBookings().iterator().next().getBookingId());
+            assertEquals(booking("0", null, 7.0, "GBP", "it"), repository.getBooking("0"));
+            assertEquals(List.of("1", "100"), repository.getBookingsByDepartment("support"));
+            assertEquals(98, repository.getBookingsByDepartment("sales").size());
+            assertEquals(Set.of("USD", "EUR", "GBP"), repository.getAllCurrencies());
+            assertEquals(2500.0 - 1.0 + 500.0, repository.getSumByCurrency("USD"), 0.0);
+
+            log.replay((sequence, bookingId, booking) -> replayed.add(bookingId));
+        }
+        assertEquals(100 + 2, replayed.size());
+    }
+
+    @Test
+    void checkpoint_ShouldBeSkippedWhenNothingWasWrittenSinceTheLastOne() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            repository.addBooking(booking("1", 100.0, "USD", "sales"));
+            repository.checkpoint();
+            List<Path> afterFirstCheckpoint = segments();
+
+            repository.checkpoint();
+
+            assertEquals(afterFirstCheckpoint, segments());
+        }
+    }
+
+    @Test
+    void replay_ShouldFail_WhenLatestSnapshotIsCorrupt() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            BookingRepository repository = new BookingRepository(log);
+            repository.addBooking(booking("1", 100.0, "USD", "sales"));
+            repository.checkpoint();
+            repository.addBooking(booking("2", 150.0, "USD", "sales"));
+        }
+        Path snapshot = files(WriteAheadLog.SNAPSHOT_SUFFIX).get(0);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 20);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE, DurabilityMode.BATCH, 10)) {
+            IOException e = assertThrows(IOException.class,
+                    () -> log.replay((sequence, bookingId, booking) -> replayed.add(bookingId)));
+            assertTrue(e.getMessage().contains(snapshot.getFileName().toString()));
+            assertThrows(UncheckedIOException.class, () -> new BookingRepository(log));
+        }
+
+        assertTrue(replayed.isEmpty());
+    }
+
+    private static void tearSecondFrame(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long secondFrame = channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0) + WalRecordCodec.FRAME_HEADER_BYTES;
+            channel.write(ByteBuffer.wrap(new byte[]{42}), secondFrame + WalRecordCodec.FRAME_HEADER_BYTES + 1);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        return files(WriteAheadLog.SEGMENT_SUFFIX);
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+}
@@ -1,9 +1,24 @@
 package com.statista.code.challenge.bookingservice.service;
 
+import com.statista.code.challenge.bookingservice.config.DepartmentProperties;
+import com.statista.code.challenge.bookingservice.exception.BookingConflictException;
 import com.statista.code.challenge.bookingservice.exception.BookingNotFoundException;
 import com.statista.code.challenge.bookingservice.exception.DepartmentNotFoundException;
+import com.statista.code.challenge.bookingservice.exception.DepartmentRejectedException;
+import com.statista.code.challenge.bookingservice.exception.InvalidCursorException;
+import com.statista.code.challenge.bookingservice.exception.InvalidDateRangeException;
+import com.statista.code.challenge.bookingservice.exception.MalformedBookingException;
+import com.statista.code.challenge.bookingservice.exception.PreconditionFailedException;
+import com.statista.code.challenge.bookingservice.metrics.OperationMetrics;
+import com.statista.code.challenge.bookingservice.metrics.PrometheusWriter;
+import com.statista.code.challenge.bookingservice.model.BatchItemResult;
 import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.BookingIdPage;
+import com.statista.code.challenge.bookingservice.model.BusinessResult;
+import com.statista.code.challenge.bookingservice.model.PriceSummary;
+import com.statista.code.challenge.bookingservice.notification.EmailDispatcher;
 import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,12 +26,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.Set;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.statista.code.challenge.bookingservice.model.TestBookings.booking;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -34,6 +63,9 @@ class BookingServiceTest {
     @Mock
     private ITDepartmentService itDepartmentService;
 
+    @Mock
+    private EmailDispatcher emailDispatcher;
+
     private BookingService bookingService;
 
     private AutoCloseable closeable;
@@ -50,7 +82,8 @@ class BookingServiceTest {
         // Initialize the departmentServiceList with mock services
         List<DepartmentService> departmentServices = Arrays.asList(salesDepartmentService, supportDepartmentService, itDepartmentService);
 
-        bookingService = new BookingService(bookingRepository, departmentServices);
+        bookingService = new BookingService(bookingRepository, departmentServices,
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, Runnable::run);
     }
 
     @AfterEach
@@ -62,9 +95,111 @@ class BookingServiceTest {
     void createBooking_ShouldAddBookingAndSendEmail() {
         Booking booking = new Booking("1", "Test Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
 
+        when(bookingRepository.createBooking(booking)).thenReturn(1L);
+
         bookingService.createBooking(booking);
 
-        verify(bookingRepository, times(1)).addBooking(booking);
+        verify(bookingRepository, times(1)).createBooking(booking);
+        verify(emailDispatcher, times(1)).submit(booking);
+    }
+
+    @Test
+    void createBooking_ShouldThrowConflict_WhenBookingExists() {
+        Booking booking = new Booking("1", "Test Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+        when(bookingRepository.createBooking(booking)).thenReturn(0L);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(booking));
+        verify(emailDispatcher, never()).submit(booking);
+    }
+
+    @Test
+    void createBookings_ShouldAddValidBookingsAndReportInvalidOnes() throws Exception {
+        Booking valid1 = new Booking("1", "Booking 1", 100.0, "USD", LocalDate.now(), "test1@example.com", "sales");
+        Booking invalid = new Booking("2", "Booking 2", -5.0, "USD", LocalDate.now(), "test2@example.com", "sales");
+        Booking valid2 = new Booking("3", "Booking 3", 200.0, "EUR", LocalDate.now(), "test3@example.com", "it");
+        Iterator<Booking> bookings = Arrays.asList(valid1, invalid, null, valid2).iterator();
+        when(bookingRepository.createBookings(List.of(valid1, valid2))).thenReturn(new boolean[]{true, true});
+
+        List<BatchItemResult> results = new ArrayList<>();
+        bookingService.createBookings(bookings, results::add);
+
+        verify(bookingRepository, times(1)).createBookings(List.of(valid1, valid2));
+        verify(emailDispatcher, times(1)).submit(valid1);
+        verify(emailDispatcher, times(1)).submit(valid2);
+        verify(emailDispatcher, never()).submit(invalid);
+        assertEquals(4, results.size());
+        assertEquals(BatchItemResult.created(0, "1"), results.get(0));
+        assertEquals(BatchItemResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals("Price must be positive", results.get(1).getErrors().get("price"));
+        assertEquals(BatchItemResult.Status.INVALID, results.get(2).getStatus());
+        assertEquals(BatchItemResult.created(3, "3"), results.get(3));
+    }
+
+    @Test
+    void createBookings_ShouldReportConflictAndSkipEmail_WhenBookingIsResubmitted() throws Exception {
+        Booking existing = booking("1");
+        Booking fresh = booking("2");
+        when(bookingRepository.createBookings(List.of(existing, fresh))).thenReturn(new boolean[]{false, true});
+
+        List<BatchItemResult> results = new ArrayList<>();
+        bookingService.createBookings(List.of(existing, fresh).iterator(), results::add);
+
+        verify(emailDispatcher, never()).submit(existing);
+        verify(emailDispatcher, times(1)).submit(fresh);
+        assertEquals(List.of(BatchItemResult.conflict(0, "1"), BatchItemResult.created(1, "2")), results);
+    }
+
+    @Test
+    void createBookings_ShouldKeepEarlierChunksAndReportMalformedElements() throws Exception {
+        int count = 25_000;
+        Iterator<Booking> bookings = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Booking next() {
+                int index = next++;
+                if (index == 5) {
+                    throw new MalformedBookingException("Cannot deserialize price", true, null);
+                }
+                if (index == count) {
+                    throw new MalformedBookingException("Unexpected end-of-input", false, null);
+                }
+                return new Booking(String.valueOf(index), "Booking", 100.0, "USD", LocalDate.now(), "test@example.com", "sales");
+            }
+        };
+        when(bookingRepository.createBookings(anyList())).thenAnswer(invocation -> {
+            boolean[] created = new boolean[invocation.<List<Booking>>getArgument(0).size()];
+            Arrays.fill(created, true);
+            return created;
+        });
+        List<BatchItemResult> results = new ArrayList<>();
+        AtomicInteger resultsAtFirstFlush = new AtomicInteger(-1);
+
+        bookingService.createBookings(bookings, new BatchItemResultSink() {
+            @Override
+            public void accept(BatchItemResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void flush() {
+                resultsAtFirstFlush.compareAndSet(-1, results.size());
+            }
+        });
+
+        verify(bookingRepository, times(3)).createBookings(anyList());
+        verify(emailDispatcher, times(count - 1)).submit(any(Booking.class));
+        assertEquals(10_000, resultsAtFirstFlush.get());
+        assertEquals(count + 1, results.size());
+        assertEquals(BatchItemResult.malformed(5, "Cannot deserialize price"), results.get(5));
+        assertEquals(BatchItemResult.created(6, "6"), results.get(6));
+        assertEquals(BatchItemResult.created(count - 1, String.valueOf(count - 1)), results.get(count - 1));
+        assertEquals(BatchItemResult.malformed(count, "Unexpected end-of-input"), results.get(count));
     }
 
     @Test
@@ -94,6 +229,30 @@ class BookingServiceTest {
         verify(bookingRepository, times(1)).updateBooking("1", booking);
     }
 
+    @Test
+    void updateBookingWithPrecondition_ShouldRetryAgainstNewVersion_WhenConcurrentWriteGetsIn() {
+        Booking booking = new Booking("1", "Updated Booking", 150.0, "EUR", LocalDate.now(), "update@example.com", "support");
+        when(bookingRepository.getVersionEpoch()).thenReturn(10L);
+        when(bookingRepository.getBookingVersion("1")).thenReturn(5L, 6L);
+        when(bookingRepository.updateBooking("1", booking, 5L)).thenReturn(0L);
+        when(bookingRepository.updateBooking("1", booking, 6L)).thenReturn(7L);
+
+        String versionTag = bookingService.updateBooking("1", booking, tag -> true);
+
+        assertEquals("a-7", versionTag);
+    }
+
+    @Test
+    void updateBookingWithPrecondition_ShouldFail_WhenVersionDoesNotMatchOrBookingIsMissing() {
+        Booking booking = new Booking("1", "Updated Booking", 150.0, "EUR", LocalDate.now(), "update@example.com", "support");
+        when(bookingRepository.getVersionEpoch()).thenReturn(10L);
+        when(bookingRepository.getBookingVersion("1")).thenReturn(5L);
+
+        assertThrows(PreconditionFailedException.class, () -> bookingService.updateBooking("1", booking, "a-4"::equals));
+        assertThrows(PreconditionFailedException.class, () -> bookingService.updateBooking("2", booking, tag -> true));
+        verify(bookingRepository, never()).updateBooking(eq("1"), eq(booking), anyLong());
+    }
+
     @Test
     void doBusiness_ShouldReturnBusinessResult_WhenDepartmentIsValid() {
         Booking booking = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
@@ -105,6 +264,15 @@ class BookingServiceTest {
         assertEquals("Processed in Sales", result);
     }
 
+    @Test
+    void doBusiness_ShouldPropagateDepartmentFailure() {
+        Booking booking = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        when(bookingRepository.getBooking("1")).thenReturn(booking);
+        when(salesDepartmentService.doBusiness(booking)).thenThrow(new IllegalArgumentException("Invalid booking"));
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.doBusiness("1"));
+    }
+
     @Test
     void doBusiness_ShouldThrowDepartmentNotFoundException_WhenDepartmentIsInvalid() {
         Booking booking = new Booking("2", "Unknown Booking", 100.0, "USD", LocalDate.now(), "unknown@example.com", "unknown");
@@ -113,6 +281,265 @@ class BookingServiceTest {
         assertThrows(DepartmentNotFoundException.class, () -> bookingService.doBusiness("2"));
     }
 
+    @Test
+    void doBusiness_ShouldRejectBookingsOverDepartmentRateLimit() {
+        DepartmentProperties properties = new DepartmentProperties();
+        DepartmentProperties.Limits limits = new DepartmentProperties.Limits();
+        limits.setRatePerSecond(0.001);
+        limits.setBurst(2);
+        properties.getOverrides().put("sales", limits);
+        BookingService limitedService = new BookingService(bookingRepository, List.of(salesDepartmentService, itDepartmentService),
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, Runnable::run, Runnable::run, properties);
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        Booking it = new Booking("2", "IT Booking", 100.0, "USD", LocalDate.now(), "it@example.com", "it");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        when(bookingRepository.getBooking("2")).thenReturn(it);
+        when(salesDepartmentService.doBusiness(sales)).thenReturn("Processed in Sales");
+        when(itDepartmentService.doBusiness(it)).thenReturn("Processed in IT");
+
+        limitedService.doBusiness("1");
+        limitedService.doBusiness("1");
+        DepartmentRejectedException rejection = assertThrows(DepartmentRejectedException.class, () -> limitedService.doBusiness("1"));
+
+        assertEquals(DepartmentRejectedException.Reason.RATE_LIMITED, rejection.getReason());
+        assertEquals("Processed in IT", limitedService.doBusiness("2"));
+    }
+
+    @Test
+    void doBusiness_ShouldRejectBookingsOverDepartmentBulkheadAndTimeout() throws Exception {
+        DepartmentProperties properties = new DepartmentProperties();
+        DepartmentProperties.Limits limits = new DepartmentProperties.Limits();
+        limits.setMaxConcurrent(1);
+        limits.setTimeoutMs(50L);
+        properties.getOverrides().put("sales", limits);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        BookingService limitedService = new BookingService(bookingRepository, List.of(salesDepartmentService),
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, executor, Runnable::run, properties);
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        CountDownLatch release = new CountDownLatch(1);
+        when(salesDepartmentService.doBusiness(sales)).thenAnswer(invocation -> {
+            release.await();
+            return "Processed in Sales";
+        });
+
+        try {
+            DepartmentRejectedException timedOut = assertThrows(DepartmentRejectedException.class, () -> limitedService.doBusiness("1"));
+            DepartmentRejectedException full = assertThrows(DepartmentRejectedException.class, () -> limitedService.doBusiness("1"));
+
+            assertEquals(DepartmentRejectedException.Reason.TIMED_OUT, timedOut.getReason());
+            assertEquals(DepartmentRejectedException.Reason.BULKHEAD_FULL, full.getReason());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void doBusiness_ShouldTimeOut_WhenDepartmentExecutorRunsOnCallingThread() {
+        DepartmentProperties properties = new DepartmentProperties();
+        DepartmentProperties.Limits limits = new DepartmentProperties.Limits();
+        limits.setTimeoutMs(50L);
+        properties.getOverrides().put("sales", limits);
+        BookingService limitedService = new BookingService(bookingRepository, List.of(salesDepartmentService),
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, Runnable::run, Runnable::run, properties);
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        CountDownLatch release = new CountDownLatch(1);
+        when(salesDepartmentService.doBusiness(sales)).thenAnswer(invocation -> {
+            release.await();
+            return "Processed in Sales";
+        });
+
+        try {
+            DepartmentRejectedException timedOut = assertThrows(DepartmentRejectedException.class, () -> limitedService.doBusiness("1"));
+
+            assertEquals(DepartmentRejectedException.Reason.TIMED_OUT, timedOut.getReason());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void doBusinessBulk_ShouldReportEveryBooking() throws Exception {
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "Sales");
+        Booking it = new Booking("2", "IT Booking", 100.0, "USD", LocalDate.now(), "it@example.com", "it");
+        Booking unknown = new Booking("3", "Unknown Booking", 100.0, "USD", LocalDate.now(), "unknown@example.com", "unknown");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        when(bookingRepository.getBooking("2")).thenReturn(it);
+        when(bookingRepository.getBooking("3")).thenReturn(unknown);
+        when(salesDepartmentService.doBusiness(sales)).thenReturn("Processed in Sales");
+        when(itDepartmentService.doBusiness(it)).thenThrow(new IllegalArgumentException("Invalid booking"));
+
+        List<BusinessResult> results = new ArrayList<>();
+        bookingService.doBusiness(List.of("1", "2", "3", "4").iterator(), results::add);
+
+        Map<String, BusinessResult> byId = new HashMap<>();
+        results.forEach(result -> byId.put(result.getBookingId(), result));
+        assertEquals(4, results.size());
+        assertEquals(BusinessResult.processed("1", "Sales", "Processed in Sales"), byId.get("1"));
+        assertEquals(BusinessResult.Status.FAILED, byId.get("2").getStatus());
+        assertEquals("Invalid booking", byId.get("2").getError());
+        assertEquals(BusinessResult.Status.UNKNOWN_DEPARTMENT, byId.get("3").getStatus());
+        assertEquals(BusinessResult.Status.NOT_FOUND, byId.get("4").getStatus());
+    }
+
+    @Test
+    void doBusinessBulk_ShouldReportFailure_WhenDepartmentThrowsError() throws Exception {
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        Booking it = new Booking("2", "IT Booking", 100.0, "USD", LocalDate.now(), "it@example.com", "it");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        when(bookingRepository.getBooking("2")).thenReturn(it);
+        when(salesDepartmentService.doBusiness(sales)).thenThrow(new AssertionError("Broken department"));
+        when(itDepartmentService.doBusiness(it)).thenReturn("Processed in IT");
+
+        List<BusinessResult> results = new ArrayList<>();
+        bookingService.doBusiness(List.of("1", "2").iterator(), results::add);
+
+        Map<String, BusinessResult> byId = new HashMap<>();
+        results.forEach(result -> byId.put(result.getBookingId(), result));
+        assertEquals(2, results.size());
+        assertEquals(BusinessResult.Status.FAILED, byId.get("1").getStatus());
+        assertEquals("Broken department", byId.get("1").getError());
+        assertEquals(BusinessResult.processed("2", "it", "Processed in IT"), byId.get("2"));
+    }
+
+    @Test
+    void doBusinessBulk_ShouldReadBookingIdsAsDepartmentKeepsUp() throws Exception {
+        int count = 1_000;
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(i);
+            when(bookingRepository.getBooking(id)).thenReturn(
+                    new Booking(id, "Booking " + i, 100.0, "USD", LocalDate.now(), "sales@example.com", "sales"));
+        }
+        when(salesDepartmentService.doBusiness(any())).thenReturn("Processed");
+        AtomicInteger read = new AtomicInteger();
+        Iterator<String> ids = IntStream.range(0, count)
+                .peek(i -> read.incrementAndGet())
+                .mapToObj(String::valueOf)
+                .iterator();
+        AtomicInteger readAtFirstResult = new AtomicInteger(-1);
+
+        List<BusinessResult> results = new ArrayList<>();
+        bookingService.doBusiness(ids, result -> {
+            readAtFirstResult.compareAndSet(-1, read.get());
+            results.add(result);
+        });
+
+        assertEquals(count, results.size());
+        assertTrue(readAtFirstResult.get() < count, "read " + readAtFirstResult.get() + " IDs before the first result");
+    }
+
+    @Test
+    void doBusinessBulk_ShouldNotExceedDepartmentParallelism() throws Exception {
+        DepartmentProperties properties = new DepartmentProperties();
+        properties.getOverrides().put("sales", new DepartmentProperties.Limits(2));
+        ExecutorService pool = Executors.newWorkStealingPool(8);
+        BookingService bulkService = new BookingService(bookingRepository, List.of(salesDepartmentService),
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, Runnable::run, pool, properties);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String id = String.valueOf(i);
+            ids.add(id);
+            when(bookingRepository.getBooking(id)).thenReturn(
+                    new Booking(id, "Booking " + i, 100.0, "USD", LocalDate.now(), "sales@example.com", "sales"));
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(salesDepartmentService.doBusiness(any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return "Processed";
+        });
+
+        List<BusinessResult> results = new ArrayList<>();
+        try {
+            bulkService.doBusiness(ids.iterator(), results::add);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(50, results.size());
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void doBusinessBulk_ShouldReportBookingsOverDepartmentLimits() throws Exception {
+        DepartmentProperties properties = new DepartmentProperties();
+        DepartmentProperties.Limits salesLimits = new DepartmentProperties.Limits();
+        salesLimits.setTimeoutMs(50L);
+        properties.getOverrides().put("sales", salesLimits);
+        DepartmentProperties.Limits itLimits = new DepartmentProperties.Limits();
+        itLimits.setRatePerSecond(0.001);
+        itLimits.setBurst(1);
+        properties.getOverrides().put("it", itLimits);
+        ExecutorService pool = Executors.newWorkStealingPool(4);
+        BookingService limitedService = new BookingService(bookingRepository, List.of(salesDepartmentService, itDepartmentService),
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, Runnable::run, pool, properties);
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        Booking it = new Booking("2", "IT Booking", 100.0, "USD", LocalDate.now(), "it@example.com", "it");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        when(bookingRepository.getBooking("2")).thenReturn(it);
+        CountDownLatch release = new CountDownLatch(1);
+        when(salesDepartmentService.doBusiness(sales)).thenAnswer(invocation -> {
+            release.await();
+            return "Processed in Sales";
+        });
+        when(itDepartmentService.doBusiness(it)).thenReturn("Processed in IT");
+
+        List<BusinessResult> results = new ArrayList<>();
+        try {
+            limitedService.doBusiness(List.of("1", "2", "2").iterator(), results::add);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        assertEquals(3, results.size());
+        assertEquals(BusinessResult.Status.TIMED_OUT, results.stream().filter(result -> result.getBookingId().equals("1"))
+                .findFirst().orElseThrow().getStatus());
+        assertEquals(Set.of(BusinessResult.Status.PROCESSED, BusinessResult.Status.REJECTED), results.stream()
+                .filter(result -> result.getBookingId().equals("2"))
+                .map(BusinessResult::getStatus)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void doBusinessBulk_ShouldFinish_WhenDepartmentWithoutTimeoutHangs() throws Exception {
+        DepartmentProperties properties = new DepartmentProperties();
+        properties.setBulkResultTimeoutMs(200);
+        ExecutorService pool = Executors.newWorkStealingPool(4);
+        BookingService bulkService = new BookingService(bookingRepository, List.of(salesDepartmentService, itDepartmentService),
+                Validation.buildDefaultValidatorFactory().getValidator(), emailDispatcher, Runnable::run, pool, properties);
+        Booking sales = new Booking("1", "Sales Booking", 100.0, "USD", LocalDate.now(), "sales@example.com", "sales");
+        Booking it = new Booking("2", "IT Booking", 100.0, "USD", LocalDate.now(), "it@example.com", "it");
+        when(bookingRepository.getBooking("1")).thenReturn(sales);
+        when(bookingRepository.getBooking("2")).thenReturn(it);
+        CountDownLatch release = new CountDownLatch(1);
+        when(salesDepartmentService.doBusiness(sales)).thenAnswer(invocation -> {
+            release.await();
+            return "Processed in Sales";
+        });
+        when(itDepartmentService.doBusiness(it)).thenReturn("Processed in IT");
+
+        List<BusinessResult> results = new ArrayList<>();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> bulkService.doBusiness(List.of("1", "2", "1").iterator(), results::add));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        assertEquals(3, results.size());
+        assertEquals(List.of(BusinessResult.Status.TIMED_OUT, BusinessResult.Status.TIMED_OUT), results.stream()
+                .filter(result -> result.getBookingId().equals("1"))
+                .map(BusinessResult::getStatus)
+                .toList());
+        assertTrue(results.contains(BusinessResult.processed("2", "it", "Processed in IT")));
+    }
+
     @Test
     void getBookingsByDepartment_ShouldReturnBookingIds_WhenDepartmentIsValid() {
         when(bookingRepository.getBookingsByDepartment("sales")).thenReturn(Arrays.asList("1", "2"));
@@ -123,6 +550,37 @@ class BookingServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getBookingsByDepartmentPage_ShouldReturnCursorThatResumesAfterLastBooking() {
+        when(bookingRepository.getBookingsByDepartment("sales", 0L, 3))
+                .thenReturn(new TreeMap<>(Map.of(1L, "1", 4L, "4", 9L, "9")));
+        when(bookingRepository.getBookingsByDepartment("sales", 4L, 3))
+                .thenReturn(new TreeMap<>(Map.of(9L, "9")));
+
+        BookingIdPage first = bookingService.getBookingsByDepartment("sales", null, 2);
+        BookingIdPage second = bookingService.getBookingsByDepartment("sales", first.getNextCursor(), 2);
+
+        assertEquals(List.of("1", "4"), first.getBookingIds());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of("9"), second.getBookingIds());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getBookingsByDepartmentPage_ShouldRejectForeignCursor() {
+        assertThrows(InvalidCursorException.class, () -> bookingService.getBookingsByDepartment("sales", "not a cursor", 2));
+        assertThrows(InvalidCursorException.class, () -> bookingService.getBookingsByDepartment("sales", "LTE", 2));
+    }
+
+    @Test
+    void getBookingsByDateRange_ShouldRejectRangeEndingBeforeItStarts() {
+        LocalDate from = LocalDate.of(2024, 2, 1);
+
+        assertThrows(InvalidDateRangeException.class, () -> bookingService.getBookingsByDateRange(from, from.minusDays(1), null));
+        assertThrows(InvalidDateRangeException.class, () -> bookingService.countBookingsByDateRange(from, from.minusDays(1), null));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void getAllCurrencies_ShouldReturnAllCurrencies() {
         Set<String> currencies = new HashSet<>(Arrays.asList("USD", "EUR"));
@@ -143,4 +601,36 @@ class BookingServiceTest {
 
         assertEquals(300.0, sum, 0.001);
     }
+
+    @Test
+    void getPriceSummaryByCurrency_ShouldReturnSummaryFromRepository() {
+        PriceSummary summary = new PriceSummary(2, new BigDecimal("300"), new BigDecimal("100"), new BigDecimal("200"));
+        when(bookingRepository.getPriceSummaryByCurrency("USD")).thenReturn(summary);
+
+        PriceSummary result = bookingService.getPriceSummaryByCurrency("USD");
+
+        assertEquals(summary, result);
+    }
+
+    @Test
+    void writeMetrics_ShouldReportBookingAndRepositoryVersionTagsSeparately() {
+        when(bookingRepository.getBookingVersion("1")).thenReturn(3L);
+        when(bookingRepository.getVersion()).thenReturn(7L);
+        // Sampled operations: one call in the interval is timed and counted for the whole interval
+        for (int i = 0; i < OperationMetrics.SAMPLE_INTERVAL; i++) {
+            bookingService.getBookingVersionTag("1");
+        }
+        for (int i = 0; i < 2 * OperationMetrics.SAMPLE_INTERVAL; i++) {
+            bookingService.getVersionTag();
+        }
+        PrometheusWriter writer = new PrometheusWriter();
+
+        bookingService.writeMetrics(writer);
+
+        String metrics = writer.toString();
+        assertTrue(metrics.contains("booking_service_operation_seconds_count{operation=\"get_booking_version_tag\"} "
+                + OperationMetrics.SAMPLE_INTERVAL + "\n"));
+        assertTrue(metrics.contains("booking_service_operation_seconds_count{operation=\"get_version_tag\"} "
+                + 2 * OperationMetrics.SAMPLE_INTERVAL + "\n"));
+    }
 }
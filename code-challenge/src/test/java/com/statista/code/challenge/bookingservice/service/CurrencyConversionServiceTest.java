@@ -0,0 +1,66 @@
+package com.statista.code.challenge.bookingservice.service;
+
+import com.statista.code.challenge.bookingservice.exception.UnknownCurrencyException;
+import com.statista.code.challenge.bookingservice.fx.FxRateProvider;
+import com.statista.code.challenge.bookingservice.model.Booking;
+import com.statista.code.challenge.bookingservice.model.ConvertedTotal;
+import com.statista.code.challenge.bookingservice.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyConversionServiceTest {
+
+    private BookingRepository bookingRepository;
+    private FxRateProvider rateProvider;
+    private CurrencyConversionService conversionService;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = new BookingRepository();
+        rateProvider = new FxRateProvider(new ByteArrayResource("EUR=1\nUSD=2\n".getBytes()), 0);
+        rateProvider.start();
+        conversionService = new CurrencyConversionService(bookingRepository, rateProvider);
+    }
+
+    @Test
+    void getTotalIn_ShouldConvertEveryCurrencyIntoTarget() {
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "EUR", LocalDate.now(), "test1@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("2", "Booking 2", 20.0, "usd", LocalDate.now(), "test2@example.com", "sales"));
+        bookingRepository.addBooking(new Booking("3", "Booking 3", 30.0, "USD", LocalDate.now(), "test3@example.com", "it"));
+        bookingRepository.addBooking(new Booking("4", "Booking 4", 99.0, "GBP", LocalDate.now(), "test4@example.com", "it"));
+
+        ConvertedTotal eur = conversionService.getTotalIn("eur");
+        ConvertedTotal usd = conversionService.getTotalIn("USD");
+
+        assertEquals("EUR", eur.getCurrency());
+        assertEquals(0, new BigDecimal("35").compareTo(eur.getTotal()));
+        assertEquals(0, new BigDecimal("70").compareTo(usd.getTotal()));
+        assertEquals(3, eur.getCount());
+        assertEquals(Set.of("GBP"), eur.getUnconvertedCurrencies());
+    }
+
+    @Test
+    void getTotalIn_ShouldUseReplacedRates() {
+        bookingRepository.addBooking(new Booking("1", "Booking 1", 10.0, "USD", LocalDate.now(), "test1@example.com", "sales"));
+        long version = conversionService.getRates().getVersion();
+
+        rateProvider.replace(Map.of("EUR", BigDecimal.ONE, "USD", new BigDecimal("4")));
+        ConvertedTotal total = conversionService.getTotalIn("EUR");
+
+        assertEquals(0, new BigDecimal("2.5").compareTo(total.getTotal()));
+        assertEquals(version + 1, total.getRatesVersion());
+    }
+
+    @Test
+    void getTotalIn_ShouldRejectCurrencyWithoutRate() {
+        assertThrows(UnknownCurrencyException.class, () -> conversionService.getTotalIn("GBP"));
+    }
+}
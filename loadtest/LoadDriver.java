@@ -0,0 +1,187 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal closed-loop HTTP/1.1 load driver for machines without wrk. Each connection is a keep-alive
+ * socket served by its own virtual thread, which sends the next GET as soon as the previous response
+ * has been read and reconnects when the server closes the connection, as wrk does. Prints the
+ * throughput and the latency distribution of the responses completed within the duration.
+ * <p>
+ * Usage: {@code java loadtest/LoadDriver.java <url> [connections] [duration-seconds]}
+ */
+public class LoadDriver {
+
+    private static final double[] PERCENTILES = {50, 75, 90, 99, 99.9};
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long durationNanos = (args.length > 2 ? Long.parseLong(args[2]) : 60) * 1_000_000_000L;
+        byte[] request = ("GET " + uri.getRawPath() + " HTTP/1.1\r\nHost: " + uri.getHost() + ":" + uri.getPort()
+                + "\r\nConnection: keep-alive\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        List<long[]> latencies = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Thread> threads = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            Thread thread = Thread.ofVirtual().start(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                try {
+                    Connection connection = new Connection(uri);
+                    connected.countDown();
+                    start.await();
+                    long end = deadline[0];
+                    for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                        if (connection == null) {
+                            connection = new Connection(uri);
+                        }
+                        connection.out.write(request);
+                        connection.out.flush();
+                        Response response = readResponse(connection.in);
+                        if (response.status != 200) {
+                            errors.incrementAndGet();
+                        }
+                        if (response.close) {
+                            connection.socket.close();
+                            connection = null;
+                        }
+                        long done = System.nanoTime();
+                        if (done >= end) {
+                            break;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = done - now;
+                    }
+                    if (connection != null) {
+                        connection.socket.close();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                    connected.countDown();
+                }
+                long[] completed = Arrays.copyOf(samples, count);
+                synchronized (latencies) {
+                    latencies.add(completed);
+                }
+            });
+            threads.add(thread);
+        }
+        connected.await();
+        deadline[0] = System.nanoTime() + durationNanos;
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = latencies.stream().mapToLong(samples -> samples.length).sum();
+        long[] all = new long[(int) total];
+        int offset = 0;
+        for (long[] samples : latencies) {
+            System.arraycopy(samples, 0, all, offset, samples.length);
+            offset += samples.length;
+        }
+        Arrays.sort(all);
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%d connections, %.0f s: %d responses, %.0f requests/s, %d errors%n",
+                connections, seconds, total, total / seconds, errors.get());
+        for (double percentile : PERCENTILES) {
+            long value = all.length == 0 ? 0 : all[Math.min(all.length - 1, (int) Math.ceil(percentile / 100 * all.length) - 1)];
+            System.out.printf("  p%-5s %10.2f ms%n", percentile == (long) percentile ? Long.toString((long) percentile) : Double.toString(percentile),
+                    value / 1e6);
+        }
+    }
+
+    private record Connection(Socket socket, OutputStream out, InputStream in) {
+
+        Connection(URI uri) throws IOException {
+            this(new Socket(uri.getHost(), uri.getPort()));
+        }
+
+        private Connection(Socket socket) throws IOException {
+            this(socket, socket.getOutputStream(), new BufferedInputStream(socket.getInputStream()));
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * A response's status code and whether the server closes the connection after it, as Tomcat does
+     * once a connection reaches its keep-alive request limit.
+     */
+    private record Response(int status, boolean close) {
+    }
+
+    /**
+     * Reads one response, with a {@code Content-Length} or chunked body.
+     */
+    private static Response readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long contentLength = 0;
+        boolean chunked = false;
+        boolean close = false;
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            String header = line.toLowerCase();
+            if (header.startsWith("content-length:")) {
+                contentLength = Long.parseLong(header.substring(15).trim());
+            } else if (header.startsWith("transfer-encoding:") && header.contains("chunked")) {
+                chunked = true;
+            } else if (header.startsWith("connection:") && header.contains("close")) {
+                close = true;
+            }
+        }
+        if (!chunked) {
+            skip(in, contentLength);
+            return new Response(status, close);
+        }
+        for (long size = Long.parseLong(readLine(in).trim(), 16); size > 0; size = Long.parseLong(readLine(in).trim(), 16)) {
+            skip(in, size);
+            readLine(in);
+        }
+        readLine(in);
+        return new Response(status, close);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c < 0) {
+                throw new IOException("Connection closed");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void skip(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new IOException("Connection closed");
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+#
+# Compares throughput and tail latency of the booking service with platform threads and with
+# virtual threads (booking.execution.virtual-threads=true).
+#
+# Requires a built application jar (mvn -B package) and wrk (https://github.com/wg/wrk); without wrk
+# it falls back to LoadDriver.java next to this script, which keeps the same number of keep-alive
+# connections busy on virtual threads (wrk-threads is then ignored). For each mode the script starts
+# the service, seeds a booking, drives GET /bookingservice/bookings/dobusiness/{bookingId} with the
+# given number of connections and prints the latency distribution (including p99).
+#
+# Usage: loadtest/compare-thread-modes.sh [connections] [duration-seconds] [wrk-threads]
+
+set -euo pipefail
+
+CONNECTIONS=${1:-10000}
+DURATION=${2:-60}
+WRK_THREADS=${3:-16}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}/bookingservice"
+SCRIPT_DIR=$(dirname "$0")
+JAR=$(ls "${SCRIPT_DIR}"/../code-challenge/target/*-exec.jar "${SCRIPT_DIR}"/../code-challenge/target/*.jar 2>/dev/null | head -n 1 || true)
+
+if [[ -z "${JAR}" ]]; then
+    echo "No application jar found; run 'mvn -B package' first." >&2
+    exit 1
+fi
+
+ulimit -n 65535 || true
+
+run_mode() {
+    local virtual_threads=$1
+    echo "=== booking.execution.virtual-threads=${virtual_threads}, ${CONNECTIONS} connections, ${DURATION}s"
+
+    java -jar "${JAR}" \
+        --server.port="${PORT}" \
+        --server.tomcat.max-connections="${CONNECTIONS}" \
+        --server.tomcat.accept-count="${CONNECTIONS}" \
+        --booking.execution.virtual-threads="${virtual_threads}" \
+        > "loadtest-virtual-${virtual_threads}.log" 2>&1 &
+    local pid=$!
+    trap 'kill ${pid} 2>/dev/null || true' RETURN
+
+    until curl -s -o /dev/null "${BASE_URL}/bookings/currencies"; do
+        sleep 1
+    done
+
+    curl -s -X POST "${BASE_URL}/bookings" -H "Content-Type: application/json" -d '{
+        "bookingId": "load-1",
+        "description": "Load test booking",
+        "price": 100.0,
+        "currency": "USD",
+        "subscriptionStartDate": "2023-01-01",
+        "email": "load@example.com",
+        "department": "sales"
+    }'
+
+    if command -v wrk > /dev/null; then
+        wrk -t"${WRK_THREADS}" -c"${CONNECTIONS}" -d"${DURATION}s" --latency "${BASE_URL}/bookings/dobusiness/load-1"
+    else
+        java "${SCRIPT_DIR}/LoadDriver.java" "${BASE_URL}/bookings/dobusiness/load-1" "${CONNECTIONS}" "${DURATION}"
+    fi
+}
+
+run_mode false
+run_mode true